@@ -0,0 +1,156 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.IdFormat;
+import com.example.crudapp.dao.StorageSettings;
+import com.example.crudapp.model.Product;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Заполненные базы для бенчмарков. База каждого размера создаётся один раз
+ * в {@code target/jmh-data} (или в {@code -Dcrudapp.bench.dir}) и переиспользуется
+ * следующими форками и запусками; бенчмарки записи работают с её копией.
+ */
+final class BenchmarkDatabase {
+
+    static final String[] WORDS = {
+            "ноутбук", "смартфон", "планшет", "монитор", "клавиатура", "мышь", "наушники", "колонка",
+            "камера", "принтер", "роутер", "кабель", "зарядка", "чехол", "часы", "телевизор"
+    };
+
+    private static final int SEED_CHUNK = 10_000;
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private BenchmarkDatabase() {}
+
+    static Path seeded(int size) throws IOException, SQLException {
+        return seeded(size, IdFormat.TEXT);
+    }
+
+    /**
+     * База, заполненная сразу в заданном формате id (а не переведённая на месте),
+     * чтобы размеры файлов и индексов можно было сравнивать.
+     */
+    static Path seeded(int size, IdFormat idFormat) throws IOException, SQLException {
+        Path dir = Paths.get(System.getProperty("crudapp.bench.dir", "target/jmh-data"));
+        Files.createDirectories(dir);
+        String name = "products-" + size + (idFormat == IdFormat.TEXT ? "" : "-" + idFormat.getSettingValue());
+        Path file = dir.resolve(name + ".db");
+        // Маркер пишется после заполнения: прерванное заполнение начнётся заново
+        Path marker = dir.resolve(name + ".ok");
+        if (!Files.exists(marker)) {
+            Files.deleteIfExists(file);
+            seed(file, size, idFormat);
+            Files.createFile(marker);
+        }
+        return file;
+    }
+
+    static Path copyOf(int size) throws IOException, SQLException {
+        return copyOf(size, IdFormat.TEXT);
+    }
+
+    static Path copyOf(int size, IdFormat idFormat) throws IOException, SQLException {
+        Path source = seeded(size, idFormat);
+        Path copy = Files.createTempFile(source.getParent(), "products-" + size + "-", ".db");
+        Files.copy(source, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    /**
+     * Копия {@link #seeded(int)}, в которой created_at и updated_at хранятся текстом
+     * {@code yyyy-MM-dd HH:mm:ss.SSS}, как в базах, где время ставил удалённый триггер
+     * или DEFAULT CURRENT_TIMESTAMP. Создаётся один раз, как и исходная база.
+     */
+    static Path withTextTimestamps(int size) throws IOException, SQLException {
+        Path source = seeded(size);
+        String name = "products-" + size + "-text-time";
+        Path file = source.resolveSibling(name + ".db");
+        Path marker = source.resolveSibling(name + ".ok");
+        if (!Files.exists(marker)) {
+            Files.copy(source, file, StandardCopyOption.REPLACE_EXISTING);
+            try (ConnectionPool pool = open(file);
+                 Connection conn = pool.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE products SET " +
+                        "created_at = strftime('%Y-%m-%d %H:%M:%f', created_at / 1000.0, 'unixepoch', 'localtime'), " +
+                        "updated_at = strftime('%Y-%m-%d %H:%M:%f', updated_at / 1000.0, 'unixepoch', 'localtime')");
+                stmt.execute("ANALYZE");
+            }
+            Files.createFile(marker);
+        }
+        return file;
+    }
+
+    static ConnectionPool open(Path file) {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + file);
+        DatabaseConnection.initializeDatabase(pool);
+        return pool;
+    }
+
+    static Product product(int i) {
+        Product product = new Product(
+                WORDS[i % WORDS.length] + " " + WORDS[(i / 7) % WORDS.length] + " " + i,
+                "Описание товара: " + WORDS[(i / 13) % WORDS.length]);
+        LocalDateTime createdAt = BASE_TIME.plusSeconds(i);
+        product.setCreatedAt(createdAt);
+        product.setUpdatedAt(createdAt);
+        return product;
+    }
+
+    /**
+     * Случайная выборка id существующих строк.
+     */
+    static UUID[] sampleIds(ConnectionPool pool, int count) throws SQLException {
+        List<UUID> ids = new ArrayList<>(count);
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM products ORDER BY random() LIMIT " + count)) {
+            while (rs.next()) {
+                ids.add(IdFormat.fromValue(rs.getObject(1)));
+            }
+        }
+        return ids.toArray(new UUID[0]);
+    }
+
+    private static void seed(Path file, int size, IdFormat idFormat) throws SQLException {
+        System.out.println("Заполнение " + file + " (" + size + " строк)...");
+        long start = System.nanoTime();
+        try (ConnectionPool pool = open(file)) {
+            try (Connection conn = pool.getConnection()) {
+                StorageSettings.convertIds(conn, idFormat);
+            }
+            DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+            dao.setBatchSize(SEED_CHUNK);
+            List<Product> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = 0; i < size; i++) {
+                chunk.add(product(i));
+                if (chunk.size() == SEED_CHUNK) {
+                    dao.saveAll(chunk);
+                    chunk.clear();
+                }
+            }
+            dao.saveAll(chunk);
+            try (Connection conn = pool.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("ANALYZE");
+            }
+        }
+        System.out.printf("Заполнено за %d мс%n", (System.nanoTime() - start) / 1_000_000);
+    }
+}
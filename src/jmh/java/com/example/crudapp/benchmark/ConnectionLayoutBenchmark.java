@@ -0,0 +1,104 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionManager;
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.StorageProfile;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Общий пул для чтения и записи ({@code shared}, прежняя схема) против одного
+ * писателя и пула читателей ({@code split}, {@link ConnectionManager}). В группе
+ * {@code mixed} четыре потока читают по id, пока пятый вставляет пакеты по 100 строк;
+ * {@code reads} — только чтение на тех же четырёх потоках.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConnectionLayoutBenchmark {
+
+    private static final int READERS = 4;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"shared", "split"})
+    public String layout;
+
+    private Path file;
+    private ConnectionPool pool;
+    private ConnectionManager manager;
+    private DatabaseProductDAO dao;
+    private UUID[] ids;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = BenchmarkDatabase.copyOf(size);
+        String url = "jdbc:sqlite:" + file;
+        if ("split".equals(layout)) {
+            manager = new ConnectionManager(url, READERS, StorageProfile.BALANCED);
+            DatabaseConnection.initializeDatabase(manager.getWriterPool());
+            dao = new DatabaseProductDAO(manager);
+            ids = BenchmarkDatabase.sampleIds(manager.getReaderPool(), 1024);
+        } else {
+            pool = new ConnectionPool(url, READERS, ConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS,
+                    ConnectionPool.DEFAULT_ACQUIRE_TIMEOUT_MILLIS, StorageProfile.BALANCED);
+            DatabaseConnection.initializeDatabase(pool);
+            dao = new DatabaseProductDAO(pool);
+            ids = BenchmarkDatabase.sampleIds(pool, 1024);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (manager != null) {
+            manager.close();
+        }
+        if (pool != null) {
+            pool.close();
+        }
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-wal"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-shm"));
+    }
+
+    @Benchmark
+    @Group("reads")
+    @GroupThreads(READERS)
+    public Product readOnly() throws Exception {
+        return dao.findById(ids[counter.incrementAndGet() & (ids.length - 1)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(READERS)
+    public Product mixedRead() throws Exception {
+        return dao.findById(ids[counter.incrementAndGet() & (ids.length - 1)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int mixedWrite() throws Exception {
+        List<Product> batch = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            batch.add(BenchmarkDatabase.product(size + counter.incrementAndGet()));
+        }
+        dao.saveAll(batch);
+        return batch.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.IdFormat;
+import com.example.crudapp.dao.StorageSettings;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск и удаление по id при хранении id строкой и 16-байтовым BLOB.
+ * Перед замером печатает размер файла и каждого индекса базы.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdFormatBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"text", "blob"})
+    public String idFormat;
+
+    private Path file;
+    private ConnectionPool pool;
+    private DatabaseProductDAO dao;
+    private UUID[] ids;
+    private int nextId;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        IdFormat format = IdFormat.parse(idFormat);
+        System.out.printf("%n%s, %d строк: файл %,d байт%n", idFormat, size,
+                Files.size(BenchmarkDatabase.seeded(size, format)));
+        file = BenchmarkDatabase.copyOf(size, format);
+        pool = BenchmarkDatabase.open(file);
+        try (Connection conn = pool.getConnection()) {
+            for (Map.Entry<String, Long> entry : StorageSettings.spaceUsage(conn).entrySet()) {
+                System.out.printf("  %-32s %,12d байт%n", entry.getKey(), entry.getValue());
+            }
+        }
+        dao = new DatabaseProductDAO(pool);
+        ids = BenchmarkDatabase.sampleIds(pool, 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pool.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Product findById() throws Exception {
+        nextId = (nextId + 1) % ids.length;
+        return dao.findById(ids[nextId]);
+    }
+
+    @Benchmark
+    public Product findByMissingId() throws Exception {
+        return dao.findById(UUID.randomUUID());
+    }
+
+    @Benchmark
+    public void saveThenDelete() throws Exception {
+        Product product = new Product("Бенчмарк " + counter++, "Удаление по id");
+        dao.save(product);
+        dao.delete(product.getId());
+    }
+}
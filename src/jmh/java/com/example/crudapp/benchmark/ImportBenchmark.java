@@ -0,0 +1,81 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.service.ExportFormat;
+import com.example.crudapp.service.ImportResult;
+import com.example.crudapp.service.ProductImporter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка CSV из {@code rows} строк через {@link ProductImporter} в пустую базу:
+ * одна загрузка — одна операция, каждая в свежий файл.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private Path dir;
+    private Path source;
+    private Path file;
+    private ConnectionPool pool;
+    private ProductImporter importer;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        dir = Files.createTempDirectory("crudapp-import-");
+        source = dir.resolve("products.csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(source, StandardCharsets.UTF_8)) {
+            writer.write("name,description\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write("Product " + i + ",Description " + i + "\n");
+            }
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = Files.createTempFile(dir, "import-", ".db");
+        pool = BenchmarkDatabase.open(file);
+        importer = new ProductImporter(new DatabaseProductDAO(pool));
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        pool.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-wal"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-shm"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        Files.deleteIfExists(ProductImporter.checkpointFile(source));
+        Files.deleteIfExists(ProductImporter.errorReportFile(source));
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public ImportResult importCsv() throws Exception {
+        ImportResult result = importer.importFile(source, ExportFormat.CSV, null);
+        if (result.getImported() != rows) {
+            throw new IllegalStateException("Загружено " + result.getImported() + " из " + rows);
+        }
+        return result;
+    }
+}
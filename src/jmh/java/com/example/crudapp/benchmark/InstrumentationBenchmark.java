@@ -0,0 +1,104 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.InstrumentedProductDAO;
+import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.dao.SlowQueryLog;
+import com.example.crudapp.metrics.Metrics;
+import com.example.crudapp.metrics.OperationMetrics;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Цена замеров: один и тот же findById напрямую и через InstrumentedProductDAO,
+ * сама запись в гистограмму без обращения к базе, а также чтение через выражения,
+ * обёрнутые журналом медленных запросов (порог не достигается, журнал пуст).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    @Param({"10000"})
+    public int size;
+
+    private static final int PAGE_SIZE = 100;
+
+    private ConnectionPool pool;
+    private ConnectionPool loggedPool;
+    private SlowQueryLog slowQueryLog;
+    private ProductDAO plain;
+    private ProductDAO logged;
+    private ProductDAO instrumented;
+    private OperationMetrics operation;
+    private UUID[] ids;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = BenchmarkDatabase.open(BenchmarkDatabase.seeded(size));
+        plain = new DatabaseProductDAO(pool);
+        Metrics metrics = new Metrics();
+        instrumented = new InstrumentedProductDAO(new DatabaseProductDAO(pool), metrics, "dao");
+        operation = metrics.operation("bench.record");
+        ids = BenchmarkDatabase.sampleIds(pool, 1024);
+
+        loggedPool = BenchmarkDatabase.open(BenchmarkDatabase.seeded(size));
+        slowQueryLog = new SlowQueryLog(Files.createTempDirectory("slow-queries").resolve("slow.log"),
+                60_000, SlowQueryLog.Redaction.STRINGS, 1024 * 1024, 1);
+        loggedPool.setSlowQueryLog(slowQueryLog);
+        logged = new DatabaseProductDAO(loggedPool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+        loggedPool.close();
+        slowQueryLog.close();
+    }
+
+    private UUID nextId() {
+        nextId = (nextId + 1) & (ids.length - 1);
+        return ids[nextId];
+    }
+
+    @Benchmark
+    public Product findByIdPlain() throws Exception {
+        return plain.findById(nextId());
+    }
+
+    @Benchmark
+    public Product findByIdInstrumented() throws Exception {
+        return instrumented.findById(nextId());
+    }
+
+    @Benchmark
+    public Product findByIdSlowQueryLog() throws Exception {
+        return logged.findById(nextId());
+    }
+
+    @Benchmark
+    public Page<Product> findPagePlain() throws Exception {
+        return plain.findPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<Product> findPageSlowQueryLog() throws Exception {
+        return logged.findPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordOnly() {
+        operation.record(1_234, 1, false);
+    }
+}
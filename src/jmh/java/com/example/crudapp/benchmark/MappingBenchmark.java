@@ -0,0 +1,93 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.IdFormat;
+import com.example.crudapp.dao.ProductMapper;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор {@value #ROWS} строк одного запроса в продукты: прежним способом
+ * ({@code legacy}: пустой конструктор с генерацией id и {@code now()}, сеттеры,
+ * поиск столбцов по имени, {@code getTimestamp().toLocalDateTime()}) и через
+ * {@link ProductMapper} ({@code mapper}). {@code scan} только читает столбцы и
+ * показывает долю драйвера. Результат — на строку; выделения памяти смотреть
+ * с {@code -prof gc} ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(MappingBenchmark.ROWS)
+public class MappingBenchmark {
+
+    static final int ROWS = 1000;
+
+    @Param({"100000"})
+    public int size;
+
+    private ConnectionPool pool;
+    private Connection conn;
+    private PreparedStatement pstmt;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = BenchmarkDatabase.open(BenchmarkDatabase.seeded(size));
+        conn = pool.getConnection();
+        pstmt = conn.prepareStatement("SELECT * FROM products ORDER BY rowid LIMIT " + ROWS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pstmt.close();
+        conn.close();
+        pool.close();
+    }
+
+    @Benchmark
+    public void scan(Blackhole bh) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getString(1));
+                bh.consume(rs.getString(2));
+                bh.consume(rs.getString(3));
+                bh.consume(rs.getLong(4));
+                bh.consume(rs.getLong(5));
+            }
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                Product product = new Product();
+                product.setId(IdFormat.TEXT.read(rs, "id"));
+                product.setName(rs.getString("name"));
+                product.setDescription(rs.getString("description"));
+                product.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+                product.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+                bh.consume(product);
+            }
+        }
+    }
+
+    @Benchmark
+    public void mapper(Blackhole bh) throws SQLException {
+        try (ResultSet rs = pstmt.executeQuery()) {
+            ProductMapper mapper = new ProductMapper(rs, IdFormat.TEXT);
+            while (rs.next()) {
+                bh.consume(mapper.map(rs));
+            }
+        }
+    }
+}
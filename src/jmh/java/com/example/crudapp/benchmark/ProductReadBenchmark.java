@@ -0,0 +1,121 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.PageCursor;
+import com.example.crudapp.dao.SearchCursor;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение через ProductDAO напрямую, без кэша: поиск по id, первая и глубокая
+ * страница (по ключу и через OFFSET), LIKE, полнотекстовый поиск и подсчёты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductReadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private ConnectionPool pool;
+    private DatabaseProductDAO dao;
+    private UUID[] ids;
+    private int nextId;
+    private String middlePageToken;
+    private String commonWord;
+    private String rareWord;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = BenchmarkDatabase.open(BenchmarkDatabase.seeded(size));
+        dao = new DatabaseProductDAO(pool);
+        ids = BenchmarkDatabase.sampleIds(pool, 1024);
+        Product middle = dao.findWithPagination(size / 2, 1).get(0);
+        middlePageToken = PageCursor.after(middle).encode();
+        // Слово из каждого шестнадцатого названия и номер, встречающийся в единицах строк
+        commonWord = BenchmarkDatabase.WORDS[0];
+        rareWord = String.valueOf(size / 2 + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    private UUID nextId() {
+        nextId = (nextId + 1) % ids.length;
+        return ids[nextId];
+    }
+
+    @Benchmark
+    public Product findById() throws Exception {
+        return dao.findById(nextId());
+    }
+
+    @Benchmark
+    public Page<Product> findPageFirst() throws Exception {
+        return dao.findPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<Product> findPageMiddleByKey() throws Exception {
+        return dao.findPage(middlePageToken, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Product> findWithPaginationFirst() throws Exception {
+        return dao.findWithPagination(0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Product> findWithPaginationMiddle() throws Exception {
+        return dao.findWithPagination(size / 2, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Product> findByName() throws Exception {
+        return dao.findByName(rareWord);
+    }
+
+    @Benchmark
+    public int countAll() throws Exception {
+        return dao.countAll();
+    }
+
+    @Benchmark
+    public Page<Product> searchCommonFirstPage() throws Exception {
+        return dao.search(commonWord, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public Page<Product> searchCommonDeepPage() throws Exception {
+        return dao.search(commonWord, PAGE_SIZE, SearchCursor.at(commonWord, 1000).encode());
+    }
+
+    @Benchmark
+    public Page<Product> searchRare() throws Exception {
+        return dao.search(rareWord, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public int countSearchCapped() throws Exception {
+        return dao.countSearch(commonWord, 1001);
+    }
+
+    @Benchmark
+    public List<Product> findAll() throws Exception {
+        return dao.findAll();
+    }
+}
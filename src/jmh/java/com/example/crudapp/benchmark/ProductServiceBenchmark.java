@@ -0,0 +1,76 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.CachingProductDAO;
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение через ProductService в той же сборке, что и в приложении:
+ * кэширующий DAO, счётчик продуктов и сохранённые результаты поиска.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private ConnectionPool pool;
+    private ProductService service;
+    private UUID[] ids;
+    private int nextId;
+    private String rareWord;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = BenchmarkDatabase.open(BenchmarkDatabase.seeded(size));
+        service = new ProductService(new CachingProductDAO(new DatabaseProductDAO(pool)));
+        ids = BenchmarkDatabase.sampleIds(pool, 1024);
+        rareWord = String.valueOf(size / 2 + 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Benchmark
+    public Product getProductById() throws Exception {
+        nextId = (nextId + 1) % ids.length;
+        return service.getProductById(ids[nextId]);
+    }
+
+    @Benchmark
+    public Page<Product> getProductsPageFirst() throws Exception {
+        return service.getProductsPage(null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public int getTotalProductCount() throws Exception {
+        return service.getTotalProductCount();
+    }
+
+    @Benchmark
+    public SearchResult searchFirstPageCommon() throws Exception {
+        return service.searchFirstPage(BenchmarkDatabase.WORDS[1], PAGE_SIZE);
+    }
+
+    @Benchmark
+    public SearchResult searchFirstPageRare() throws Exception {
+        return service.searchFirstPage(rareWord, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись через ProductDAO в копию заполненной базы. Пакетные бенчмарки
+ * отчитываются за одну строку ({@link OperationsPerInvocation}), поэтому их
+ * можно напрямую сравнивать с одиночными вставками.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductWriteBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    private Path file;
+    private ConnectionPool pool;
+    private DatabaseProductDAO dao;
+    private List<Product> existing;
+    private int next;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = BenchmarkDatabase.copyOf(size);
+        pool = BenchmarkDatabase.open(file);
+        dao = new DatabaseProductDAO(pool);
+        existing = new ArrayList<>();
+        for (UUID id : BenchmarkDatabase.sampleIds(pool, 1024)) {
+            existing.add(dao.findById(id));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pool.close();
+        Files.deleteIfExists(file);
+    }
+
+    private Product newProduct() {
+        counter++;
+        return new Product("Бенчмарк " + BenchmarkDatabase.WORDS[counter % BenchmarkDatabase.WORDS.length],
+                "Запись " + counter);
+    }
+
+    private List<Product> newBatch() {
+        List<Product> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(newProduct());
+        }
+        return batch;
+    }
+
+    @Benchmark
+    public Product saveSingle() throws Exception {
+        Product product = newProduct();
+        dao.save(product);
+        return product;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public List<Product> saveAllBatch() throws Exception {
+        List<Product> batch = newBatch();
+        dao.saveAll(batch);
+        return batch;
+    }
+
+    @Benchmark
+    public Product update() throws Exception {
+        next = (next + 1) % existing.size();
+        Product product = existing.get(next);
+        product.setName("Обновлено " + counter++);
+        dao.update(product);
+        return product;
+    }
+
+    @Benchmark
+    public void saveThenDelete() throws Exception {
+        Product product = newProduct();
+        dao.save(product);
+        dao.delete(product.getId());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int saveAllThenDeleteAll() throws Exception {
+        List<Product> batch = newBatch();
+        dao.saveAll(batch);
+        List<UUID> ids = new ArrayList<>(BATCH);
+        for (Product product : batch) {
+            ids.add(product.getId());
+        }
+        return dao.deleteAll(ids);
+    }
+}
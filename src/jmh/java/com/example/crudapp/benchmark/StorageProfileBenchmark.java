@@ -0,0 +1,104 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionInitializer;
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.StorageProfile;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Профили хранения на копии заполненной базы. {@code rollback} — прежняя настройка
+ * соединений (журнал отката, synchronous по умолчанию) для сравнения. Группа
+ * {@code mixed}: три потока читают по id, пока четвёртый вставляет строки.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageProfileBenchmark {
+
+    private static final ConnectionInitializer ROLLBACK_JOURNAL = connection -> {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            stmt.execute("PRAGMA journal_mode = DELETE");
+        }
+    };
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"rollback", "durable", "balanced", "throughput"})
+    public String profile;
+
+    private Path file;
+    private ConnectionPool pool;
+    private DatabaseProductDAO dao;
+    private UUID[] ids;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = BenchmarkDatabase.copyOf(size);
+        ConnectionInitializer initializer = "rollback".equals(profile)
+                ? ROLLBACK_JOURNAL : StorageProfile.parse(profile);
+        pool = new ConnectionPool("jdbc:sqlite:" + file, ConnectionPool.DEFAULT_MAX_SIZE,
+                ConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, ConnectionPool.DEFAULT_ACQUIRE_TIMEOUT_MILLIS,
+                initializer);
+        DatabaseConnection.initializeDatabase(pool);
+        dao = new DatabaseProductDAO(pool);
+        ids = BenchmarkDatabase.sampleIds(pool, 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pool.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-wal"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-shm"));
+    }
+
+    private Product newProduct() {
+        int n = counter.incrementAndGet();
+        return new Product("Бенчмарк " + BenchmarkDatabase.WORDS[n % BenchmarkDatabase.WORDS.length], "Запись " + n);
+    }
+
+    @Benchmark
+    public Product saveSingle() throws Exception {
+        Product product = newProduct();
+        dao.save(product);
+        return product;
+    }
+
+    @Benchmark
+    public Product findById() throws Exception {
+        return dao.findById(ids[counter.incrementAndGet() & (ids.length - 1)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Product mixedRead() throws Exception {
+        return dao.findById(ids[counter.incrementAndGet() & (ids.length - 1)]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Product mixedWrite() throws Exception {
+        Product product = newProduct();
+        dao.save(product);
+        return product;
+    }
+}
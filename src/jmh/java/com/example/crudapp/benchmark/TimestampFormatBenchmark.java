@@ -0,0 +1,115 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.PageCursor;
+import com.example.crudapp.dao.StorageSettings;
+import com.example.crudapp.dao.TimestampFormat;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сортировка и постраничная выборка, когда время хранится текстом (до перевода,
+ * {@code timestamp}) и миллисекундами эпохи (та же база после
+ * {@link StorageSettings#convertTimestamps}, {@code epoch_millis}). Перед замером
+ * печатает длительность перевода и размер индекса по (created_at, id).
+ *
+ * <p>{@code firstPage} и {@code keysetPage} — {@link DatabaseProductDAO#findPage} с
+ * начала и с середины списка, {@code offsetPage} — OFFSET до середины,
+ * {@code sortByUpdatedAt} — первые 50 строк по updated_at, у которого нет индекса:
+ * полный обход таблицы и сравнение каждого значения. В текстовой базе
+ * {@code keysetPage} возвращает пустую страницу: ключ курсора передаётся числом,
+ * а любое число в SQLite меньше любого текста.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimestampFormatBenchmark {
+
+    private static final int PAGE = 50;
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"timestamp", "epoch_millis"})
+    public String timestampFormat;
+
+    private Path file;
+    private ConnectionPool pool;
+    private DatabaseProductDAO dao;
+    private String middleToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path source = BenchmarkDatabase.withTextTimestamps(size);
+        file = Files.createTempFile(source.getParent(), "products-" + size + "-", ".db");
+        Files.copy(source, file, StandardCopyOption.REPLACE_EXISTING);
+        pool = BenchmarkDatabase.open(file);
+        try (Connection conn = pool.getConnection()) {
+            TimestampFormat format = TimestampFormat.parse(timestampFormat);
+            if (format != TimestampFormat.TIMESTAMP) {
+                long start = System.nanoTime();
+                int converted = StorageSettings.convertTimestamps(conn, format);
+                System.out.printf("%nПеревод %,d строк: %d мс%n", converted, (System.nanoTime() - start) / 1_000_000);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("ANALYZE");
+                }
+            }
+            Map<String, Long> usage = StorageSettings.spaceUsage(conn);
+            System.out.printf("%n%s: idx_products_created_at_id %,d байт, products %,d байт%n", timestampFormat,
+                    usage.get("idx_products_created_at_id"), usage.get("products"));
+        }
+        dao = new DatabaseProductDAO(pool);
+        List<Product> middle = dao.findWithPagination(size / 2, 1);
+        middleToken = PageCursor.after(middle.get(0)).encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        pool.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Page<Product> firstPage() throws Exception {
+        return dao.findPage(null, PAGE);
+    }
+
+    @Benchmark
+    public Page<Product> keysetPage() throws Exception {
+        return dao.findPage(middleToken, PAGE);
+    }
+
+    @Benchmark
+    public List<Product> offsetPage() throws Exception {
+        return dao.findWithPagination(size / 2, PAGE);
+    }
+
+    @Benchmark
+    public void sortByUpdatedAt(Blackhole bh) throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT id FROM products ORDER BY updated_at DESC LIMIT " + PAGE);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                bh.consume(rs.getString(1));
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.crudapp.benchmark;
+
+import com.example.crudapp.dao.ConnectionManager;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.StorageProfile;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.WriteBehindQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Одиночные изменения через ProductService из нескольких потоков: каждое своей
+ * транзакцией ({@code direct}) или через {@link WriteBehindQueue} ({@code writeBehind}),
+ * где потоки ждут общую групповую фиксацию. {@code burst} — один поток отправляет
+ * {@value #BURST} изменений, не дожидаясь каждого, и ждёт все разом (на операцию —
+ * вся пачка). Профиль durable: fsync на каждую фиксацию.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class WriteBehindBenchmark {
+
+    private static final int BURST = 100;
+
+    @Param({"100000"})
+    public int size;
+
+    @Param({"direct", "writeBehind"})
+    public String mode;
+
+    private Path file;
+    private ConnectionManager manager;
+    private WriteBehindQueue queue;
+    private ProductService service;
+    private UUID[] ids;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = BenchmarkDatabase.copyOf(size);
+        manager = new ConnectionManager("jdbc:sqlite:" + file, 4, StorageProfile.DURABLE);
+        DatabaseConnection.initializeDatabase(manager.getWriterPool());
+        DatabaseProductDAO dao = new DatabaseProductDAO(manager);
+        service = new ProductService(dao);
+        if ("writeBehind".equals(mode)) {
+            queue = new WriteBehindQueue(dao, 2, WriteBehindQueue.DEFAULT_MAX_BATCH,
+                    WriteBehindQueue.DEFAULT_CAPACITY, WriteBehindQueue.DEFAULT_OFFER_TIMEOUT_MILLIS);
+            service.setWriteBehind(queue);
+        }
+        ids = BenchmarkDatabase.sampleIds(manager.getReaderPool(), 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (queue != null) {
+            queue.close();
+        }
+        manager.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-wal"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-shm"));
+    }
+
+    @Benchmark
+    public void create() throws Exception {
+        int n = counter.incrementAndGet();
+        service.createProduct("Бенчмарк " + BenchmarkDatabase.WORDS[n % BenchmarkDatabase.WORDS.length],
+                "Запись " + n);
+    }
+
+    @Benchmark
+    public void update() throws Exception {
+        int n = counter.incrementAndGet();
+        Product product = BenchmarkDatabase.product(n);
+        product.setId(ids[n & (ids.length - 1)]);
+        service.updateProduct(product);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void burst() throws Exception {
+        List<CompletableFuture<Void>> writes = new ArrayList<>(BURST);
+        for (int i = 0; i < BURST; i++) {
+            int n = counter.incrementAndGet();
+            Product product = BenchmarkDatabase.product(n);
+            product.setId(ids[n & (ids.length - 1)]);
+            writes.add(service.submitUpdate(product));
+        }
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+    }
+}
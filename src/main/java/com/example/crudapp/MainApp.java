@@ -2,13 +2,35 @@ package com.example.crudapp;
 
 import com.example.crudapp.dao.DatabaseConnection;
 import com.example.crudapp.controller.MainController;
+import com.example.crudapp.metrics.Metrics;
+import com.example.crudapp.server.ProductHttpServer;
+import com.example.crudapp.service.ExportFormat;
+import com.example.crudapp.service.ImportResult;
+import com.example.crudapp.service.InstrumentedProductService;
+import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.WriteBehindQueue;
+import javax.management.JMException;
 import javax.swing.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class MainApp {
 
     public static void main(String[] args) {
+
+        if (args.length > 0 && "--export".equals(args[0])) {
+            System.exit(runExport(args));
+        }
+        if (args.length > 0 && "--import".equals(args[0])) {
+            System.exit(runImport(args));
+        }
+        if (args.length > 0 && "--server".equals(args[0])) {
+            runServer(args);
+            return;
+        }
         
         DatabaseConnection.initializeDatabase();
+        registerMetrics();
 
         SwingUtilities.invokeLater(() -> {
             try {
@@ -23,7 +45,151 @@ public class MainApp {
         });
 
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (Boolean.getBoolean("crudapp.metrics.dumpOnExit")) {
+                System.out.print(Metrics.global().dump());
+            }
+            // Сначала дописываем отложенные изменения, пока соединения ещё открыты
+            WriteBehindQueue.closeAll();
+            DatabaseConnection.closeConnection();
+        }));
+    }
+
+    /**
+     * Метрики операций в JMX (jconsole, VisualVM: com.example.crudapp). Событие JFR
+     * com.example.crudapp.Operation записывается при запуске с -XX:StartFlightRecording.
+     */
+    private static void registerMetrics() {
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        try {
+            Metrics.global().registerJmx();
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Выгрузка без окна: {@code --export <файл> [csv|ndjson]}. Формат по умолчанию
+     * определяется по расширению файла.
+     */
+    private static int runExport(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Использование: --export <файл> [csv|ndjson]");
+            return 2;
+        }
+        Path target = Paths.get(args[1]);
+        ExportFormat format = formatOf(args, target);
+        if (format == null) {
+            System.err.println("Неизвестный формат выгрузки, укажите csv или ndjson");
+            return 2;
+        }
+
+        try {
+            DatabaseConnection.initializeDatabase();
+            long start = System.nanoTime();
+            long rows = new ProductService().exportProducts(target, format,
+                    written -> System.out.println("Выгружено строк: " + written));
+            System.out.printf("Выгрузка %s завершена: %d строк за %d мс%n",
+                    target.toAbsolutePath(), rows, (System.nanoTime() - start) / 1_000_000);
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Ошибка выгрузки: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        } finally {
+            WriteBehindQueue.closeAll();
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Загрузка без окна: {@code --import <файл> [csv|ndjson]}. Прерванная загрузка
+     * того же файла продолжается с контрольной точки.
+     */
+    private static int runImport(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Использование: --import <файл> [csv|ndjson]");
+            return 2;
+        }
+        Path source = Paths.get(args[1]);
+        ExportFormat format = formatOf(args, source);
+        if (format == null) {
+            System.err.println("Неизвестный формат файла, укажите csv или ndjson");
+            return 2;
+        }
+
+        try {
+            DatabaseConnection.initializeDatabase();
+            ImportResult result = new ProductService().importProducts(source, format,
+                    rows -> System.out.println("Обработано записей: " + rows));
+            if (result.getResumedFrom() > 0) {
+                System.out.println("Продолжено с записи " + (result.getResumedFrom() + 1));
+            }
+            System.out.printf("Загрузка завершена: добавлено %d, отклонено %d за %d мс (%.0f строк/с)%n",
+                    result.getImported(), result.getRejected(), result.getDurationMillis(),
+                    result.getRowsPerSecond());
+            if (result.getErrorReport() != null) {
+                System.out.println("Отчёт об отклонённых строках: " + result.getErrorReport().toAbsolutePath());
+            }
+            return 0;
+        } catch (Exception e) {
+            System.err.println("Ошибка загрузки: " + e.getMessage());
+            e.printStackTrace();
+            return 1;
+        } finally {
+            WriteBehindQueue.closeAll();
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Без окна, как JSON API по HTTP: {@code --server [порт]} (см. {@link ProductHttpServer}).
+     * Работает до остановки процесса; при остановке сначала закрывается сервер,
+     * затем дописываются отложенные изменения и закрываются соединения.
+     */
+    private static void runServer(String[] args) {
+        ProductHttpServer server;
+        try {
+            if (args.length > 1) {
+                System.setProperty(ProductHttpServer.PORT_PROPERTY, args[1]);
+            }
+            DatabaseConnection.initializeDatabase();
+            registerMetrics();
+            ProductService service = new ProductService();
+            if (Metrics.isEnabled()) {
+                service = new InstrumentedProductService(service);
+            }
+            server = ProductHttpServer.fromSystemProperties(service);
+            server.start();
+        } catch (Exception e) {
+            System.err.println("Ошибка запуска сервера: " + e.getMessage());
+            e.printStackTrace();
+            WriteBehindQueue.closeAll();
+            DatabaseConnection.closeConnection();
+            System.exit(1);
+            return;
+        }
+        System.out.println("Сервер слушает порт " + server.getPort());
+
+        ProductHttpServer started = server;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            started.close();
+            if (Boolean.getBoolean("crudapp.metrics.dumpOnExit")) {
+                System.out.print(Metrics.global().dump());
+            }
+            WriteBehindQueue.closeAll();
             DatabaseConnection.closeConnection();
         }));
     }
+
+    private static ExportFormat formatOf(String[] args, Path file) {
+        try {
+            return args.length > 2
+                    ? ExportFormat.valueOf(args[2].toUpperCase())
+                    : ExportFormat.forFileName(file.getFileName().toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.crudapp.controller;
+
+import javax.swing.table.DefaultTableCellRenderer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Форматирует дату при отрисовке ячейки, а не при загрузке строки.
+ */
+public class DateTimeCellRenderer extends DefaultTableCellRenderer {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DateTimeFormatter formatter;
+
+    public DateTimeCellRenderer(DateTimeFormatter formatter) {
+        this.formatter = formatter;
+    }
+
+    @Override
+    protected void setValue(Object value) {
+        setText(value instanceof LocalDateTime ? formatter.format((LocalDateTime) value) : "");
+    }
+}
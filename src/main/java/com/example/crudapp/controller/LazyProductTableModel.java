@@ -0,0 +1,267 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.AsyncProductService;
+
+import javax.swing.SwingUtilities;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Модель для просмотра всего списка прокруткой. В памяти держится не больше
+ * {@code maxBlocks} блоков по {@code blockSize} строк: блоки загружаются в фоне,
+ * когда таблица запрашивает их строки, а самые далёкие от текущего места вытесняются.
+ *
+ * <p>Отдельные строки можно заменить, вставить и удалить на месте
+ * ({@link #replaceProduct}, {@link #insertProduct}, {@link #removeProduct}): загруженные
+ * блоки сдвигаются, а то, что нельзя сдвинуть без чтения базы, перечитывается при прокрутке.</p>
+ *
+ * <p>Все методы модели вызываются в EDT, источник строк — в фоновом потоке.</p>
+ */
+public class LazyProductTableModel extends ProductTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Источник строк; вызывается вне EDT.
+     */
+    public interface RowSource {
+        int count() throws SQLException;
+
+        /**
+         * @param anchor последняя строка перед окном, если она известна, иначе null
+         */
+        List<Product> load(Product anchor, int offset, int limit) throws SQLException;
+    }
+
+    private static final Executor EDT = SwingUtilities::invokeLater;
+
+    private final AsyncProductService asyncService;
+    private final RowSource source;
+    private final int blockSize;
+    private final int maxBlocks;
+
+    private final Map<Integer, List<Product>> blocks = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private int rowCount;
+    // Меняется при refresh(): ответы, запрошенные до него, отбрасываются
+    private int generation;
+    // Меняется при вставке и удалении строк: блоки, запрошенные до сдвига, отбрасываются
+    private int layout;
+    // Блок, к которому таблица обращалась последним; читается и фоновыми задачами
+    private volatile int focusBlock;
+    private Consumer<Throwable> errorHandler = Throwable::printStackTrace;
+
+    public LazyProductTableModel(AsyncProductService asyncService, RowSource source, int blockSize, int maxBlocks) {
+        if (blockSize < 1 || maxBlocks < 1) {
+            throw new IllegalArgumentException("Размер и число блоков должны быть положительными");
+        }
+        this.asyncService = asyncService;
+        this.source = source;
+        this.blockSize = blockSize;
+        this.maxBlocks = maxBlocks;
+    }
+
+    public void setErrorHandler(Consumer<Throwable> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Пересчитывает число строк и сбрасывает загруженные блоки. Future завершается
+     * в EDT, когда модель уже обновлена, и возвращает новое число строк.
+     */
+    public CompletableFuture<Integer> refresh() {
+        int requested = ++generation;
+        return asyncService.supply(source::count).thenApplyAsync(count -> {
+            if (requested == generation) {
+                blocks.clear();
+                loading.clear();
+                rowCount = count;
+                fireTableDataChanged();
+            }
+            return count;
+        }, EDT);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getLoadedBlockCount() {
+        return blocks.size();
+    }
+
+    @Override
+    public Product getProductAt(int row) {
+        if (row < 0 || row >= rowCount) {
+            return null;
+        }
+        int block = row / blockSize;
+        focusBlock = block;
+        List<Product> items = blocks.get(block);
+        if (items == null) {
+            requestBlock(block);
+            return null;
+        }
+        int index = row - block * blockSize;
+        return index < items.size() ? items.get(index) : null;
+    }
+
+    private void requestBlock(int block) {
+        if (!loading.add(block)) {
+            return;
+        }
+        int requested = generation;
+        int requestedLayout = layout;
+        int offset = block * blockSize;
+        List<Product> previous = blocks.get(block - 1);
+        Product anchor = previous != null && previous.size() == blockSize ? previous.get(blockSize - 1) : null;
+
+        asyncService.supply(() -> {
+            // Пока задача ждала очереди, таблицу могли прокрутить далеко: такой блок не нужен
+            if (Math.abs(block - focusBlock) > maxBlocks) {
+                return null;
+            }
+            return source.load(anchor, offset, blockSize);
+        }).whenCompleteAsync((items, error) -> {
+            if (requested != generation || requestedLayout != layout) {
+                return;
+            }
+            loading.remove(block);
+            if (error != null) {
+                errorHandler.accept(AsyncProductService.unwrap(error));
+                return;
+            }
+            if (items == null) {
+                return;
+            }
+            blocks.put(block, new ArrayList<>(items));
+            evictFarBlocks();
+            int last = Math.min(rowCount, offset + blockSize) - 1;
+            if (offset <= last) {
+                fireTableRowsUpdated(offset, last);
+            }
+        }, EDT);
+    }
+
+    /**
+     * Заменяет загруженную строку с тем же id; false, если такой строки в памяти нет.
+     */
+    public boolean replaceProduct(Product product) {
+        for (Map.Entry<Integer, List<Product>> entry : blocks.entrySet()) {
+            List<Product> items = entry.getValue();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getId().equals(product.getId())) {
+                    items.set(i, product);
+                    int row = entry.getKey() * blockSize + i;
+                    fireTableRowsUpdated(row, row);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Вставляет строку на место {@code row}. Последняя строка каждого блока переходит
+     * в начало следующего, пока следующий загружен; блоки после первого пропуска
+     * выбрасываются.
+     */
+    public void insertProduct(int row, Product product) {
+        row = Math.max(0, Math.min(row, rowCount));
+        startLayoutChange();
+        rowCount++;
+        int block = row / blockSize;
+        List<Product> items = blocks.get(block);
+        if (items == null) {
+            dropBlocksFrom(block);
+        } else {
+            items.add(row - block * blockSize, product);
+            Product carry = items.size() > blockSize ? items.remove(blockSize) : null;
+            for (int next = block + 1; carry != null; next++) {
+                List<Product> following = blocks.get(next);
+                if (following == null) {
+                    dropBlocksFrom(next);
+                    break;
+                }
+                following.add(0, carry);
+                carry = following.size() > blockSize ? following.remove(blockSize) : null;
+            }
+        }
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Удаляет загруженную строку с этим id; false, если такой строки в памяти нет.
+     * Освободившееся место блоки занимают первой строкой следующего блока; блок,
+     * который дополнить нечем, и все после него перечитываются при прокрутке.
+     */
+    public boolean removeProduct(UUID id) {
+        for (Map.Entry<Integer, List<Product>> entry : blocks.entrySet()) {
+            List<Product> items = entry.getValue();
+            for (int i = 0; i < items.size(); i++) {
+                if (items.get(i).getId().equals(id)) {
+                    int block = entry.getKey();
+                    int row = block * blockSize + i;
+                    startLayoutChange();
+                    items.remove(i);
+                    rowCount--;
+                    refill(block);
+                    fireTableRowsDeleted(row, row);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void refill(int block) {
+        for (int current = block; ; current++) {
+            List<Product> items = blocks.get(current);
+            int expected = Math.min(blockSize, rowCount - current * blockSize);
+            if (items.size() >= expected) {
+                return;
+            }
+            List<Product> following = blocks.get(current + 1);
+            if (following == null || following.isEmpty()) {
+                dropBlocksFrom(current);
+                return;
+            }
+            items.add(following.remove(0));
+        }
+    }
+
+    private void startLayoutChange() {
+        layout++;
+        loading.clear();
+    }
+
+    private void dropBlocksFrom(int first) {
+        blocks.keySet().removeIf(block -> block >= first);
+    }
+
+    private void evictFarBlocks() {
+        while (blocks.size() > maxBlocks) {
+            int farthest = -1;
+            int farthestDistance = -1;
+            for (int block : blocks.keySet()) {
+                int distance = Math.abs(block - focusBlock);
+                if (distance > farthestDistance) {
+                    farthest = block;
+                    farthestDistance = distance;
+                }
+            }
+            blocks.remove(farthest);
+        }
+    }
+}
@@ -1,24 +1,50 @@
 package com.example.crudapp.controller;
 
+import com.example.crudapp.metrics.Metrics;
+import com.example.crudapp.model.Page;
 import com.example.crudapp.model.Product;
+import com.example.crudapp.service.AsyncProductService;
+import com.example.crudapp.service.ExportFormat;
+import com.example.crudapp.service.ImportResult;
+import com.example.crudapp.service.InstrumentedProductService;
+import com.example.crudapp.service.ProductChangeEvent;
+import com.example.crudapp.service.ProgressListener;
 import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.SearchResult;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.TitledBorder;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.TableColumnModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class MainController {
 
     private final ProductService productService;
+    private final AsyncProductService asyncService;
     private JFrame mainFrame;
     private JTable productTable;
-    private DefaultTableModel tableModel;
+    private ProductTableModel tableModel;
+    private final PagedProductTableModel pagedModel = new PagedProductTableModel();
+    // Модель режима «Все» и поисковый запрос, для которого она создана
+    private LazyProductTableModel lazyModel;
+    private String lazySearch;
     private JLabel pageInfoLabel;
     private JTextField searchField;
     private JButton prevButton, nextButton;
@@ -31,11 +57,38 @@ public class MainController {
     
     private int currentPage = 1;
     private int pageSize = 10;
+    // Режим «Все»: вместо страниц вся выборка прокручивается в ленивой модели
+    private boolean showAll = false;
+    // Токен, по которому загружена текущая страница (null — первая страница)
+    private String currentPageToken = null;
+    private Page<Product> currentPageData = null;
+    // Всего продуктов; между загрузками меняется по событиям сервиса
+    private int productTotal = 0;
+    // Загрузка страницы в фоне; номер поколения отсекает устаревшие ответы
+    private CompletableFuture<?> pendingLoad = null;
+    private int loadGeneration = 0;
     private String currentSearch = "";
+    // Сколько найдено по currentSearch (при неточном подсчёте — нижняя граница)
+    private int searchTotal = 0;
+    private boolean searchTotalExact = true;
+    private Timer searchTimer;
     private DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
 
+    private static final String ALL_ITEMS = "Все";
+    private static final int LAZY_BLOCK_SIZE = 200;
+    private static final int LAZY_MAX_BLOCKS = 10;
+    private static final int SEARCH_DEBOUNCE_MS = 250;
+
     public MainController() {
-        this.productService = new ProductService();
+        this(new AsyncProductService(Metrics.isEnabled()
+                ? new InstrumentedProductService(new ProductService())
+                : new ProductService()));
+    }
+
+    // Конструктор для инъекции сервиса (тесты)
+    public MainController(AsyncProductService asyncService) {
+        this.productService = asyncService.getProductService();
+        this.asyncService = asyncService;
     }
 
     public void showMainWindow() {
@@ -44,12 +97,49 @@ public class MainController {
         mainFrame.setSize(1200, 800); // Увеличил размер для лучшего отображения
         mainFrame.setLocationRelativeTo(null);
 
-        createUI();
-        loadProducts();
+        mainFrame.setJMenuBar(createMenuBar());
+        mainFrame.add(createContent());
         mainFrame.setVisible(true);
     }
 
-    private void createUI() {
+    /**
+     * Собирает содержимое окна, подписывается на изменения сервиса и начинает загрузку.
+     * Окно не создаётся, поэтому работает и без экрана (тесты). Вызывается в EDT.
+     */
+    public JComponent createContent() {
+        JPanel content = createUI();
+        productService.getEventBus().addListener(this::applyChanges, SwingUtilities::invokeLater);
+        loadProducts();
+        return content;
+    }
+
+    private JMenuBar createMenuBar() {
+        JMenuBar menuBar = new JMenuBar();
+        JMenu fileMenu = new JMenu("Файл");
+
+        JMenuItem exportCsvItem = new JMenuItem("Экспорт в CSV...");
+        exportCsvItem.addActionListener(e -> handleExport(ExportFormat.CSV));
+        JMenuItem exportJsonItem = new JMenuItem("Экспорт в NDJSON...");
+        exportJsonItem.addActionListener(e -> handleExport(ExportFormat.NDJSON));
+
+        JMenuItem importItem = new JMenuItem("Импорт из файла...");
+        importItem.addActionListener(e -> handleImport());
+
+        fileMenu.add(importItem);
+        fileMenu.addSeparator();
+        fileMenu.add(exportCsvItem);
+        fileMenu.add(exportJsonItem);
+        menuBar.add(fileMenu);
+
+        JMenu toolsMenu = new JMenu("Сервис");
+        JMenuItem metricsItem = new JMenuItem("Метрики операций...");
+        metricsItem.addActionListener(e -> showMetrics());
+        toolsMenu.add(metricsItem);
+        menuBar.add(toolsMenu);
+        return menuBar;
+    }
+
+    private JPanel createUI() {
         JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
         mainPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
 
@@ -77,7 +167,7 @@ public class MainController {
         mainPanel.add(new JScrollPane(tablePanel), BorderLayout.CENTER);
         mainPanel.add(paginationPanel, BorderLayout.SOUTH);
 
-        mainFrame.add(mainPanel);
+        return mainPanel;
     }
 
     private JPanel createCRUDPanel() {
@@ -133,7 +223,7 @@ public class MainController {
                 handleDeleteProduct();
             }
         });
-        deleteButton.setEnabled(false);а
+        deleteButton.setEnabled(false);
         
         panel.add(createButton);
         panel.add(readButton);
@@ -150,7 +240,28 @@ public class MainController {
 
         searchField = new JTextField(20);
         searchField.setFont(new Font("Arial", Font.PLAIN, 14));
-        searchField.setToolTipText("Введите название для поиска...");
+        searchField.setToolTipText("Слова из названия или описания (можно начало слова)");
+        searchField.addActionListener(e -> handleSearch());
+
+        // Поиск по мере ввода: запрос уходит, когда пользователь сделал паузу
+        searchTimer = new Timer(SEARCH_DEBOUNCE_MS, e -> handleSearchAsYouType());
+        searchTimer.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                searchTimer.restart();
+            }
+        });
 
         JButton searchButton = new JButton("Найти");
         searchButton.setFont(new Font("Arial", Font.BOLD, 12));
@@ -172,32 +283,16 @@ public class MainController {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(new TitledBorder("Список продуктов"));
 
-        String[] columns = {"ID", "Название", "Описание", "Дата создания", "Дата обновления"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-            
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                return String.class;
-            }
-        };
-
+        tableModel = pagedModel;
         productTable = new JTable(tableModel);
+        productTable.setDefaultRenderer(LocalDateTime.class, new DateTimeCellRenderer(formatter));
         productTable.setFillsViewportHeight(true);
         productTable.setRowHeight(30);
         productTable.setFont(new Font("Arial", Font.PLAIN, 12));
         productTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 13));
         productTable.getTableHeader().setBackground(new Color(44, 62, 80));
         productTable.getTableHeader().setForeground(Color.WHITE);
-        
-        productTable.getColumnModel().getColumn(0).setPreferredWidth(250); // ID
-        productTable.getColumnModel().getColumn(1).setPreferredWidth(200); // Название
-        productTable.getColumnModel().getColumn(2).setPreferredWidth(300); // Описание
-        productTable.getColumnModel().getColumn(3).setPreferredWidth(150); // Дата создания
-        productTable.getColumnModel().getColumn(4).setPreferredWidth(150); // Дата обновления
+        setColumnWidths();
 
         productTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting()) {
@@ -206,9 +301,10 @@ public class MainController {
                 deleteButton.setEnabled(hasSelection);
                 
                 if (hasSelection) {
-                    int selectedRow = productTable.getSelectedRow();
-                    String productName = (String) tableModel.getValueAt(selectedRow, 1);
-                    System.out.println("Выбран продукт: " + productName);
+                    Product selected = tableModel.getProductAt(productTable.getSelectedRow());
+                    if (selected != null) {
+                        System.out.println("Выбран продукт: " + selected.getName());
+                    }
                 }
             }
         });
@@ -220,6 +316,23 @@ public class MainController {
         return panel;
     }
 
+    private void setColumnWidths() {
+        TableColumnModel columns = productTable.getColumnModel();
+        columns.getColumn(0).setPreferredWidth(250); // ID
+        columns.getColumn(1).setPreferredWidth(200); // Название
+        columns.getColumn(2).setPreferredWidth(300); // Описание
+        columns.getColumn(3).setPreferredWidth(150); // Дата создания
+        columns.getColumn(4).setPreferredWidth(150); // Дата обновления
+    }
+
+    private void installModel(ProductTableModel model) {
+        if (tableModel != model) {
+            tableModel = model;
+            productTable.setModel(model);
+            setColumnWidths();
+        }
+    }
+
     private JPanel createPaginationPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBorder(new TitledBorder("Навигация"));
@@ -245,7 +358,7 @@ public class MainController {
 
         JPanel sizePanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 15, 5));
         sizePanel.add(new JLabel("Элементов на странице:"));
-        pageSizeComboBox = new JComboBox<>(new String[]{"5", "10", "20", "50"});
+        pageSizeComboBox = new JComboBox<>(new String[]{"5", "10", "20", "50", ALL_ITEMS});
         pageSizeComboBox.setSelectedItem("10");
         pageSizeComboBox.setFont(new Font("Arial", Font.PLAIN, 12));
         pageSizeComboBox.addActionListener(e -> handlePageSizeChange());
@@ -265,7 +378,8 @@ public class MainController {
 
     private void handleReadProducts() {
         System.out.println("Обновление списка продуктов...");
-        currentPage = 1; // Возвращаемся на первую страницу
+        resetPaging(); // Возвращаемся на первую страницу
+        productService.refreshProductCount();
         loadProducts();
         JOptionPane.showMessageDialog(mainFrame, 
             "Список продуктов обновлен!", 
@@ -275,17 +389,14 @@ public class MainController {
 
     private void handleUpdateProduct() {
         int selectedRow = productTable.getSelectedRow();
-        if (selectedRow != -1) {
-            try {
-                String productId = (String) tableModel.getValueAt(selectedRow, 0);
-                Product product = productService.getProductById(java.util.UUID.fromString(productId));
+        Product selected = selectedRow != -1 ? tableModel.getProductAt(selectedRow) : null;
+        if (selected != null) {
+            runInBackground(asyncService.getProductById(selected.getId()), product -> {
                 if (product != null) {
                     System.out.println("Редактирование продукта: " + product.getName());
                     showProductDialog(product);
                 }
-            } catch (Exception e) {
-                showError("Ошибка", "Ошибка получения продукта: " + e.getMessage());
-            }
+            }, "Ошибка получения продукта");
         } else {
             JOptionPane.showMessageDialog(mainFrame, 
                 "Выберите продукт для редактирования!", 
@@ -296,9 +407,10 @@ public class MainController {
 
     private void handleDeleteProduct() {
         int selectedRow = productTable.getSelectedRow();
-        if (selectedRow != -1) {
-            String productId = (String) tableModel.getValueAt(selectedRow, 0);
-            String productName = (String) tableModel.getValueAt(selectedRow, 1);
+        Product selected = selectedRow != -1 ? tableModel.getProductAt(selectedRow) : null;
+        if (selected != null) {
+            UUID productId = selected.getId();
+            String productName = selected.getName();
 
             int response = JOptionPane.showConfirmDialog(mainFrame,
                     "Вы уверены, что хотите удалить продукт:\n" +
@@ -309,19 +421,14 @@ public class MainController {
                     JOptionPane.WARNING_MESSAGE);
 
             if (response == JOptionPane.YES_OPTION) {
-                try {
-                    productService.deleteProduct(java.util.UUID.fromString(productId));
+                runInBackground(asyncService.deleteProduct(productId), ignored -> {
                     System.out.println("Удален продукт: " + productName);
-                    loadProducts();
-                    
+
                     JOptionPane.showMessageDialog(mainFrame, 
                         "Продукт \"" + productName + "\" успешно удален!", 
                         "Успех", 
                         JOptionPane.INFORMATION_MESSAGE);
-                        
-                } catch (SQLException e) {
-                    showError("Ошибка", "Ошибка удаления продукта: " + e.getMessage());
-                }
+                }, "Ошибка удаления продукта");
             }
         } else {
             JOptionPane.showMessageDialog(mainFrame, 
@@ -331,64 +438,349 @@ public class MainController {
         }
     }
 
-
+    /**
+     * Загружает текущую страницу в фоне. Предыдущая незавершённая загрузка отменяется,
+     * а её результат, если он всё же придёт, игнорируется.
+     */
     private void loadProducts() {
-        try {
-            tableModel.setRowCount(0);
+        if (pendingLoad != null) {
+            pendingLoad.cancel(false);
+            pendingLoad = null;
+        }
+        int generation = ++loadGeneration;
+        if (showAll) {
+            loadAllProducts(generation);
+            return;
+        }
+        String token = currentPageToken;
+        String search = currentSearch;
+        int size = pageSize;
 
-            List<Product> products;
-            if (currentSearch.isEmpty()) {
-                products = productService.getProductsWithPagination(currentPage, pageSize);
-                updatePageInfo();
+        setLoading(true);
+        CompletableFuture<PageLoad> load = asyncService.supply(() -> loadPage(token, search, size));
+        pendingLoad = load;
+        load.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != loadGeneration) {
+                return; // пользователь уже запросил другую страницу
+            }
+            pendingLoad = null;
+            setLoading(false);
+            if (error != null) {
+                Throwable cause = AsyncProductService.unwrap(error);
+                showError("Ошибка загрузки данных", "Ошибка загрузки данных: " + cause.getMessage());
+                cause.printStackTrace();
             } else {
-                products = productService.searchProductsByName(currentSearch);
-                updatePageInfoForSearch(products.size());
+                applyPage(result);
             }
+        }));
+    }
 
-            for (Product product : products) {
-                tableModel.addRow(new Object[]{
-                        product.getId().toString(),
-                        product.getName(),
-                        product.getDescription(),
-                        product.getCreatedAt().format(formatter),
-                        product.getUpdatedAt().format(formatter)
-                });
+    /**
+     * Режим «Все»: таблица получает ленивую модель, строки подгружаются блоками при прокрутке.
+     * Для того же запроса модель переиспользуется, чтобы после правки не терять позицию.
+     */
+    private void loadAllProducts(int generation) {
+        String search = currentSearch;
+        if (lazyModel == null || !search.equals(lazySearch)) {
+            lazyModel = new LazyProductTableModel(asyncService, rowSource(search), LAZY_BLOCK_SIZE, LAZY_MAX_BLOCKS);
+            lazyModel.setErrorHandler(error -> showError("Ошибка загрузки данных",
+                    "Ошибка загрузки данных: " + error.getMessage()));
+            lazySearch = search;
+        }
+        installModel(lazyModel);
+
+        setLoading(true);
+        CompletableFuture<Integer> load = lazyModel.refresh();
+        pendingLoad = load;
+        load.whenComplete((count, error) -> SwingUtilities.invokeLater(() -> {
+            if (generation != loadGeneration) {
+                return; // запрошена другая загрузка или режим сменился
+            }
+            pendingLoad = null;
+            setLoading(false);
+            if (error != null) {
+                Throwable cause = AsyncProductService.unwrap(error);
+                showError("Ошибка загрузки данных", "Ошибка загрузки данных: " + cause.getMessage());
+                cause.printStackTrace();
+                return;
             }
-            
+            updateAllInfo();
             updateButton.setEnabled(false);
             deleteButton.setEnabled(false);
+        }));
+    }
+
+    private LazyProductTableModel.RowSource rowSource(String search) {
+        if (search.isEmpty()) {
+            return new LazyProductTableModel.RowSource() {
+                @Override
+                public int count() throws SQLException {
+                    return productService.getTotalProductCount();
+                }
 
-        } catch (SQLException e) {
-            showError("Ошибка загрузки данных", "Ошибка загрузки данных: " + e.getMessage());
-            e.printStackTrace();
+                @Override
+                public List<Product> load(Product anchor, int offset, int limit) throws SQLException {
+                    return productService.getProductsRange(anchor, offset, limit);
+                }
+            };
         }
+        return new LazyProductTableModel.RowSource() {
+            @Override
+            public int count() throws SQLException {
+                return productService.countSearchResults(search);
+            }
+
+            @Override
+            public List<Product> load(Product anchor, int offset, int limit) throws SQLException {
+                return productService.searchProductsRange(search, offset, limit);
+            }
+        };
     }
 
-    private void updatePageInfo() {
-        try {
-            int totalProducts = productService.getTotalProductCount();
-            int totalPages = productService.getTotalPages(pageSize);
+    // Выполняется в фоновом потоке: не трогает Swing и поля контроллера
+    private PageLoad loadPage(String token, String search, int size) throws SQLException {
+        if (token != null) {
+            Page<Product> page = fetchPage(search, token, size);
+            if (!page.getItems().isEmpty()) {
+                // Для следующих страниц поиска остаётся число, найденное на первой
+                int total = search.isEmpty() ? productService.getTotalProductCount() : -1;
+                return new PageLoad(page, false, total, true);
+            }
+            // Страница опустела (например, после удаления) — возвращаемся к началу
+        }
+        boolean reset = token != null;
+        if (search.isEmpty()) {
+            Page<Product> page = productService.getProductsPage(null, size);
+            return new PageLoad(page, reset, productService.getTotalProductCount(), true);
+        }
+        SearchResult result = productService.searchFirstPage(search, size);
+        return new PageLoad(result.getPage(), reset, result.getTotal(), result.isTotalExact());
+    }
 
-            pageInfoLabel.setText(String.format("Страница %d из %d (Всего: %d продуктов)",
-                    currentPage, totalPages, totalProducts));
+    private void applyPage(PageLoad load) {
+        if (load.reset) {
+            resetPaging();
+        }
+        currentPageData = load.page;
+        installModel(pagedModel);
+        pagedModel.setProducts(currentPageData.getItems());
+
+        if (currentSearch.isEmpty()) {
+            productTotal = load.totalCount;
+            updatePageInfo(productTotal);
+        } else {
+            if (load.totalCount >= 0) {
+                searchTotal = load.totalCount;
+                searchTotalExact = load.totalExact;
+            }
+            updatePageInfoForSearch();
+        }
 
-            prevButton.setEnabled(currentPage > 1);
-            nextButton.setEnabled(currentPage < totalPages);
+        updateButton.setEnabled(false);
+        deleteButton.setEnabled(false);
+    }
 
-        } catch (SQLException e) {
-            showError("Ошибка", "Ошибка получения информации о страницах");
+    /**
+     * Применяет изменения, записанные через сервис, к показанным строкам и счётчику:
+     * правка заменяет одну строку, создание и удаление сдвигают строки страницы,
+     * без повторного чтения страницы и COUNT(*). Перечитывается только то, что
+     * на месте не восстановить. Вызывается в EDT.
+     */
+    private void applyChanges(List<ProductChangeEvent> events) {
+        if (events.get(0).getType() == ProductChangeEvent.Type.RELOAD || pendingLoad != null) {
+            // Идущая загрузка могла прочитать данные до этих изменений
+            loadProducts();
+            return;
+        }
+        if (showAll) {
+            applyChangesToAll(events);
+        } else if (currentPageData != null) {
+            applyChangesToPage(events);
         }
     }
 
-    private void updatePageInfoForSearch(int searchCount) {
-        pageInfoLabel.setText(String.format("Результаты поиска: найдено %d элементов", searchCount));
-        prevButton.setEnabled(false);
-        nextButton.setEnabled(false);
+    private void applyChangesToPage(List<ProductChangeEvent> events) {
+        boolean list = currentSearch.isEmpty();
+        boolean shifted = false;
+        for (ProductChangeEvent event : events) {
+            switch (event.getType()) {
+                case UPDATED:
+                    pagedModel.replaceProduct(event.getProduct());
+                    break;
+                case DELETED:
+                    boolean shown = pagedModel.removeProduct(event.getId());
+                    if (list) {
+                        productTotal--;
+                    } else if (shown) {
+                        searchTotal--;
+                    }
+                    shifted |= shown;
+                    break;
+                case CREATED:
+                    // Попадает ли новый продукт в результаты поиска, неизвестно
+                    if (list) {
+                        productTotal++;
+                        if (currentPage == 1) {
+                            pagedModel.insertProduct(0, event.getProduct());
+                            shifted = true;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (shifted && !rebuildPage()) {
+            loadProducts();
+            return;
+        }
+        if (list) {
+            updatePageInfo(productTotal);
+        } else {
+            updatePageInfoForSearch();
+        }
+    }
+
+    /**
+     * Обновляет токены страницы после вставок и удалений на месте; false, если
+     * страницу нужно перечитать.
+     */
+    private boolean rebuildPage() {
+        List<Product> rows = pagedModel.getProducts();
+        if (rows.isEmpty()) {
+            // Страница опустела: loadPage вернётся к началу, если дальше ничего нет
+            return !currentPageData.hasNext() && !currentPageData.hasPrevious();
+        }
+        if (!currentSearch.isEmpty()) {
+            // Токены поиска — смещения, после удаления следующая страница пропустила бы строку
+            return !currentPageData.hasNext();
+        }
+        String nextToken = currentPageData.getNextToken();
+        if (rows.size() > pageSize) {
+            pagedModel.truncate(pageSize);
+            nextToken = productService.pageTokenAfter(rows.get(pageSize - 1));
+        }
+        currentPageData = new Page<>(new ArrayList<>(pagedModel.getProducts()), nextToken,
+                currentPageData.getPreviousToken());
+        return true;
+    }
+
+    private void applyChangesToAll(List<ProductChangeEvent> events) {
+        if (lazyModel == null || tableModel != lazyModel) {
+            return;
+        }
+        for (ProductChangeEvent event : events) {
+            switch (event.getType()) {
+                case UPDATED:
+                    lazyModel.replaceProduct(event.getProduct());
+                    break;
+                case DELETED:
+                    if (!lazyModel.removeProduct(event.getId()) && lazySearch.isEmpty()) {
+                        // Строка ещё не загружена, но из списка она пропала
+                        loadProducts();
+                        return;
+                    }
+                    break;
+                case CREATED:
+                    if (lazySearch.isEmpty()) {
+                        lazyModel.insertProduct(0, event.getProduct());
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        updateAllInfo();
+    }
+
+    private void updateAllInfo() {
+        int count = lazyModel.getRowCount();
+        pageInfoLabel.setText(lazySearch.isEmpty()
+                ? String.format("Все продукты: %d", count)
+                : String.format("Результаты поиска: %d", count));
+    }
+
+    private void setLoading(boolean loading) {
+        Cursor cursor = loading ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor();
+        productTable.setCursor(cursor);
+        if (loading) {
+            pageInfoLabel.setText("Загрузка...");
+            prevButton.setEnabled(false);
+            nextButton.setEnabled(false);
+        }
+    }
+
+    /**
+     * Выполняет future в фоне и передаёт результат в EDT; ошибка показывается пользователю.
+     */
+    private <T> void runInBackground(CompletableFuture<T> future, Consumer<T> onSuccess, String errorMessage) {
+        future.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                Throwable cause = AsyncProductService.unwrap(error);
+                showError("Ошибка", errorMessage + ": " + cause.getMessage());
+                if (!(cause instanceof IllegalArgumentException)) {
+                    cause.printStackTrace();
+                }
+            } else {
+                onSuccess.accept(result);
+            }
+        }));
+    }
+
+    private static final class PageLoad {
+        private final Page<Product> page;
+        private final boolean reset;
+        private final int totalCount;
+        private final boolean totalExact;
+
+        PageLoad(Page<Product> page, boolean reset, int totalCount, boolean totalExact) {
+            this.page = page;
+            this.reset = reset;
+            this.totalCount = totalCount;
+            this.totalExact = totalExact;
+        }
+    }
+
+    private void updatePageInfo(int totalProducts) {
+        int totalPages = (int) Math.ceil((double) totalProducts / pageSize);
+
+        pageInfoLabel.setText(String.format("Страница %d из %d (Всего: %d продуктов)",
+                currentPage, totalPages, totalProducts));
+
+        prevButton.setEnabled(currentPageData.hasPrevious());
+        nextButton.setEnabled(currentPageData.hasNext());
+    }
+
+    private Page<Product> fetchPage(String search, String pageToken, int size) throws SQLException {
+        if (search.isEmpty()) {
+            return productService.getProductsPage(pageToken, size);
+        }
+        return productService.searchProducts(search, size, pageToken);
+    }
+
+    private void updatePageInfoForSearch() {
+        if (searchTotalExact) {
+            int totalPages = Math.max(1, (int) Math.ceil((double) searchTotal / pageSize));
+            pageInfoLabel.setText(String.format("Результаты поиска: страница %d из %d (найдено: %d)",
+                    currentPage, totalPages, searchTotal));
+        } else {
+            pageInfoLabel.setText(String.format("Результаты поиска: страница %d (найдено более %d)",
+                    currentPage, searchTotal));
+        }
+        prevButton.setEnabled(currentPageData.hasPrevious());
+        nextButton.setEnabled(currentPageData.hasNext());
+    }
+
+    private void handleSearchAsYouType() {
+        if (!searchField.getText().trim().equals(currentSearch)) {
+            handleSearch();
+        }
     }
 
     private void handleSearch() {
+        searchTimer.stop();
         currentSearch = searchField.getText().trim();
-        currentPage = 1;
+        resetPaging();
         System.out.println("Поиск: " + currentSearch);
         loadProducts();
     }
@@ -396,64 +788,243 @@ public class MainController {
     private void handleResetSearch() {
         searchField.setText("");
         currentSearch = "";
-        currentPage = 1;
+        resetPaging();
         System.out.println("Сброс поиска");
         loadProducts();
     }
 
+    private void resetPaging() {
+        currentPage = 1;
+        currentPageToken = null;
+    }
+
     private void handlePreviousPage() {
-        if (currentPage > 1) {
+        if (currentPageData != null && currentPageData.hasPrevious()) {
             currentPage--;
+            // Первую страницу всегда берём без курсора, чтобы она включала новые записи
+            currentPageToken = currentPage > 1 ? currentPageData.getPreviousToken() : null;
             loadProducts();
         }
     }
 
     private void handleNextPage() {
-        try {
-            int totalPages = productService.getTotalPages(pageSize);
-            if (currentPage < totalPages) {
-                currentPage++;
-                loadProducts();
-            }
-        } catch (SQLException e) {
-            showError("Ошибка", "Ошибка перехода на следующую страницу");
+        if (currentPageData != null && currentPageData.hasNext()) {
+            currentPage++;
+            currentPageToken = currentPageData.getNextToken();
+            loadProducts();
         }
     }
 
     private void handlePageSizeChange() {
         try {
-            pageSize = Integer.parseInt((String) pageSizeComboBox.getSelectedItem());
-            currentPage = 1;
-            System.out.println("Изменен размер страницы: " + pageSize);
+            String selected = (String) pageSizeComboBox.getSelectedItem();
+            showAll = ALL_ITEMS.equals(selected);
+            if (!showAll) {
+                pageSize = Integer.parseInt(selected);
+            }
+            resetPaging();
+            System.out.println("Изменен размер страницы: " + (showAll ? ALL_ITEMS : pageSize));
             loadProducts();
         } catch (NumberFormatException e) {
             showError("Ошибка", "Некорректное значение размера страницы");
         }
     }
 
+    /**
+     * Выгрузка всего каталога в выбранный файл. Идёт в фоне; ход выгрузки
+     * показывает ProgressMonitor, из которого её можно отменить.
+     */
+    private void handleExport(ExportFormat format) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Экспорт каталога");
+        chooser.setSelectedFile(new File("products." + format.getExtension()));
+        if (chooser.showSaveDialog(mainFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path target = chooser.getSelectedFile().toPath();
+        if (Files.exists(target)) {
+            int response = JOptionPane.showConfirmDialog(mainFrame,
+                    "Файл \"" + target.getFileName() + "\" уже существует. Заменить?",
+                    "Подтверждение", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (response != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+
+        runInBackground(asyncService.getTotalProductCount(), total -> {
+            ProgressMonitor monitor = new ProgressMonitor(mainFrame,
+                    "Экспорт в " + target.getFileName(), "Подготовка...", 0, Math.max(1, total));
+            monitor.setMillisToDecideToPopup(200);
+            AtomicBoolean cancelled = new AtomicBoolean();
+
+            ProgressListener listener = new ProgressListener() {
+                @Override
+                public void onProgress(long rows) {
+                    SwingUtilities.invokeLater(() -> {
+                        monitor.setNote("Выгружено строк: " + rows);
+                        monitor.setProgress((int) Math.min(rows, monitor.getMaximum() - 1));
+                        if (monitor.isCanceled()) {
+                            cancelled.set(true);
+                        }
+                    });
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelled.get();
+                }
+            };
+
+            System.out.println("Экспорт в " + target.toAbsolutePath() + " (" + format + ")");
+            asyncService.exportProducts(target, format, listener).whenComplete((rows, error) ->
+                    SwingUtilities.invokeLater(() -> {
+                        monitor.close();
+                        if (error == null) {
+                            JOptionPane.showMessageDialog(mainFrame,
+                                    "Выгружено продуктов: " + rows + "\n" + target.toAbsolutePath(),
+                                    "Экспорт завершен", JOptionPane.INFORMATION_MESSAGE);
+                            return;
+                        }
+                        Throwable cause = AsyncProductService.unwrap(error);
+                        if (cause instanceof CancellationException) {
+                            System.out.println("Экспорт отменен");
+                        } else {
+                            showError("Ошибка", "Ошибка экспорта: " + cause.getMessage());
+                            cause.printStackTrace();
+                        }
+                    }));
+        }, "Ошибка экспорта");
+    }
+
+    /**
+     * Загрузка каталога из CSV/NDJSON в фоне. Число записей заранее неизвестно,
+     * поэтому вместо процентов показывается счётчик обработанных записей.
+     */
+    private void handleImport() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Импорт каталога");
+        if (chooser.showOpenDialog(mainFrame) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path source = chooser.getSelectedFile().toPath();
+        ExportFormat format = ExportFormat.forFileName(source.getFileName().toString());
+        if (format == null) {
+            showError("Ошибка", "Поддерживаются файлы .csv, .ndjson и .jsonl");
+            return;
+        }
+
+        JDialog progressDialog = new JDialog(mainFrame, "Импорт " + source.getFileName(), false);
+        JLabel progressLabel = new JLabel("Подготовка...");
+        JProgressBar progressBar = new JProgressBar();
+        progressBar.setIndeterminate(true);
+        JButton cancelButton = new JButton("Отменить");
+        AtomicBoolean cancelled = new AtomicBoolean();
+        cancelButton.addActionListener(e -> {
+            cancelled.set(true);
+            cancelButton.setEnabled(false);
+            progressLabel.setText("Отмена после текущей порции...");
+        });
+        JPanel progressPanel = new JPanel(new BorderLayout(10, 10));
+        progressPanel.setBorder(new EmptyBorder(15, 15, 15, 15));
+        progressPanel.add(progressLabel, BorderLayout.NORTH);
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(cancelButton, BorderLayout.SOUTH);
+        progressDialog.add(progressPanel);
+        progressDialog.setSize(400, 150);
+        progressDialog.setLocationRelativeTo(mainFrame);
+        progressDialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+        progressDialog.setVisible(true);
+
+        ProgressListener listener = new ProgressListener() {
+            @Override
+            public void onProgress(long rows) {
+                SwingUtilities.invokeLater(() -> {
+                    if (!cancelled.get()) {
+                        progressLabel.setText("Обработано записей: " + rows);
+                    }
+                });
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled.get();
+            }
+        };
+
+        System.out.println("Импорт из " + source.toAbsolutePath() + " (" + format + ")");
+        asyncService.importProducts(source, format, listener).whenComplete((result, error) ->
+                SwingUtilities.invokeLater(() -> {
+                    progressDialog.dispose();
+                    if (error == null) {
+                        showImportResult(result);
+                        return;
+                    }
+                    Throwable cause = AsyncProductService.unwrap(error);
+                    if (cause instanceof CancellationException) {
+                        JOptionPane.showMessageDialog(mainFrame,
+                                "Импорт остановлен. Повторный импорт того же файла продолжит с места остановки.",
+                                "Импорт", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        showError("Ошибка", "Ошибка импорта: " + cause.getMessage());
+                        cause.printStackTrace();
+                    }
+                }));
+    }
+
+    private void showImportResult(ImportResult result) {
+        StringBuilder message = new StringBuilder();
+        message.append("Добавлено продуктов: ").append(result.getImported());
+        message.append("\nОтклонено строк: ").append(result.getRejected());
+        if (result.getResumedFrom() > 0) {
+            message.append("\nПродолжено с записи ").append(result.getResumedFrom() + 1);
+        }
+        if (result.getErrorReport() != null) {
+            message.append("\n\nОтчёт об ошибках:\n").append(result.getErrorReport().toAbsolutePath());
+        }
+        JOptionPane.showMessageDialog(mainFrame, message.toString(), "Импорт завершен",
+                result.getRejected() > 0 ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Сводка по задержкам операций; та же таблица доступна через JMX (Metrics.dump)
+    private void showMetrics() {
+        JTextArea text = new JTextArea(Metrics.global().dump(), 20, 110);
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JButton resetButton = new JButton("Сбросить");
+        resetButton.addActionListener(e -> {
+            Metrics.global().reset();
+            text.setText(Metrics.global().dump());
+        });
+        JButton refreshButton = new JButton("Обновить");
+        refreshButton.addActionListener(e -> text.setText(Metrics.global().dump()));
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(refreshButton);
+        buttons.add(resetButton);
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.add(new JScrollPane(text), BorderLayout.CENTER);
+        panel.add(buttons, BorderLayout.SOUTH);
+
+        JOptionPane.showMessageDialog(mainFrame, panel, "Метрики операций", JOptionPane.PLAIN_MESSAGE);
+    }
+
     private void showProductDialog(Product product) {
         ProductDialogController dialog = new ProductDialogController(mainFrame, product);
         if (dialog.showDialog()) {
             Product updatedProduct = dialog.getProduct();
-            try {
-                if (product == null) {
-                    productService.createProduct(
-                            updatedProduct.getName(),
-                            updatedProduct.getDescription()
-                    );
-                    System.out.println("Создан новый продукт: " + updatedProduct.getName());
-                } else {
-
-                    updatedProduct.setId(product.getId());
-                    updatedProduct.setCreatedAt(product.getCreatedAt());
-                    productService.updateProduct(updatedProduct);
-                    System.out.println("Обновлен продукт: " + updatedProduct.getName());
-                }
-                loadProducts();
-            } catch (Exception e) {
-                showError("Ошибка", "Ошибка сохранения продукта: " + e.getMessage());
-                e.printStackTrace();
+            CompletableFuture<Void> save;
+            if (product == null) {
+                save = asyncService.createProduct(updatedProduct.getName(), updatedProduct.getDescription());
+            } else {
+                updatedProduct.setId(product.getId());
+                updatedProduct.setCreatedAt(product.getCreatedAt());
+                save = asyncService.updateProduct(updatedProduct);
             }
+            runInBackground(save, ignored -> {
+                System.out.println((product == null ? "Создан новый продукт: " : "Обновлен продукт: ")
+                        + updatedProduct.getName());
+            }, "Ошибка сохранения продукта");
         }
     }
 
@@ -0,0 +1,86 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Модель для постраничного режима: держит только строки текущей страницы.
+ * Отдельные строки можно заменить, вставить и удалить на месте, не перечитывая страницу.
+ */
+public class PagedProductTableModel extends ProductTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Product> products = new ArrayList<>();
+
+    public void setProducts(List<Product> products) {
+        this.products = new ArrayList<>(products);
+        fireTableDataChanged();
+    }
+
+    public List<Product> getProducts() {
+        return Collections.unmodifiableList(products);
+    }
+
+    @Override
+    public int getRowCount() {
+        return products.size();
+    }
+
+    @Override
+    public Product getProductAt(int row) {
+        return row >= 0 && row < products.size() ? products.get(row) : null;
+    }
+
+    public int indexOf(UUID id) {
+        for (int i = 0; i < products.size(); i++) {
+            if (products.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Заменяет строку с тем же id; false, если её нет на странице.
+     */
+    public boolean replaceProduct(Product product) {
+        int row = indexOf(product.getId());
+        if (row < 0) {
+            return false;
+        }
+        products.set(row, product);
+        fireTableRowsUpdated(row, row);
+        return true;
+    }
+
+    public void insertProduct(int row, Product product) {
+        products.add(row, product);
+        fireTableRowsInserted(row, row);
+    }
+
+    public boolean removeProduct(UUID id) {
+        int row = indexOf(id);
+        if (row < 0) {
+            return false;
+        }
+        products.remove(row);
+        fireTableRowsDeleted(row, row);
+        return true;
+    }
+
+    /**
+     * Убирает строки после первых {@code size}.
+     */
+    public void truncate(int size) {
+        int last = products.size() - 1;
+        if (size <= last) {
+            products.subList(size, products.size()).clear();
+            fireTableRowsDeleted(size, last);
+        }
+    }
+}
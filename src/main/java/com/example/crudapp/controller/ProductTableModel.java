@@ -0,0 +1,58 @@
+package com.example.crudapp.controller;
+
+import com.example.crudapp.model.Product;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDateTime;
+
+/**
+ * Модель таблицы продуктов: ячейки отдают значения из Product как есть,
+ * строки для показа формирует рендерер только для видимых ячеек.
+ */
+public abstract class ProductTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String[] COLUMNS = {"ID", "Название", "Описание", "Дата создания", "Дата обновления"};
+
+    /**
+     * Продукт в строке или null, если строка ещё не загружена.
+     */
+    public abstract Product getProductAt(int row);
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return columnIndex >= 3 ? LocalDateTime.class : Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Product product = getProductAt(rowIndex);
+        if (product == null) {
+            return columnIndex == 1 ? "Загрузка..." : null;
+        }
+        switch (columnIndex) {
+            case 0: return product.getId();
+            case 1: return product.getName();
+            case 2: return product.getDescription();
+            case 3: return product.getCreatedAt();
+            case 4: return product.getUpdatedAt();
+            default: return null;
+        }
+    }
+}
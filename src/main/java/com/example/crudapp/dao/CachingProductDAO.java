@@ -0,0 +1,281 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Декоратор ProductDAO с кэшем чтения.
+ *
+ * <p>Продукты кэшируются по id (LRU с ограниченным размером и временем жизни),
+ * страницы списка и поиска — на короткое время. Любая запись через этот DAO
+ * сбрасывает кэш страниц и затронутые продукты. Наружу всегда отдаются копии,
+ * поэтому изменение полученного продукта не портит кэш.</p>
+ *
+ * <p>Прочитанное из базы кладётся в кэш, только если за время чтения не было
+ * сбросов (см. {@link ExpiringLruCache#putIfUnchanged}). Иначе чтение, начатое до
+ * параллельной записи, положило бы старую строку уже после её сброса.</p>
+ *
+ * <p>Настройки по умолчанию берутся из системных свойств
+ * {@code crudapp.cache.maxProducts}, {@code crudapp.cache.productTtlMs},
+ * {@code crudapp.cache.maxPages} и {@code crudapp.cache.pageTtlMs}.</p>
+ */
+public class CachingProductDAO extends ProductDAO {
+
+    private final ProductDAO delegate;
+    private final ExpiringLruCache<UUID, Product> products;
+    private final ExpiringLruCache<String, Page<Product>> pages;
+
+    public CachingProductDAO(ProductDAO delegate) {
+        this(delegate,
+                Integer.getInteger("crudapp.cache.maxProducts", 10_000),
+                Long.getLong("crudapp.cache.productTtlMs", 60_000L),
+                Integer.getInteger("crudapp.cache.maxPages", 200),
+                Long.getLong("crudapp.cache.pageTtlMs", 2_000L));
+    }
+
+    public CachingProductDAO(ProductDAO delegate, int maxProducts, long productTtlMillis,
+                             int maxPages, long pageTtlMillis) {
+        this.delegate = delegate;
+        this.products = new ExpiringLruCache<>(maxProducts, productTtlMillis);
+        this.pages = new ExpiringLruCache<>(maxPages, pageTtlMillis);
+    }
+
+    public CacheStats getProductCacheStats() {
+        return products.getStats();
+    }
+
+    public CacheStats getPageCacheStats() {
+        return pages.getStats();
+    }
+
+    public void invalidateAll() {
+        products.invalidateAll();
+        pages.invalidateAll();
+    }
+
+    @Override
+    protected Connection getConnection() throws SQLException {
+        return delegate.getConnection();
+    }
+
+    @Override
+    protected Connection getReadConnection() throws SQLException {
+        return delegate.getReadConnection();
+    }
+
+    @Override
+    public int getBatchSize() {
+        return delegate.getBatchSize();
+    }
+
+    @Override
+    public void setBatchSize(int batchSize) {
+        delegate.setBatchSize(batchSize);
+    }
+
+    @Override
+    public IdFormat getIdFormat() {
+        return delegate.getIdFormat();
+    }
+
+    @Override
+    public void setIdFormat(IdFormat idFormat) {
+        delegate.setIdFormat(idFormat);
+    }
+
+    @Override
+    public TimestampFormat getTimestampFormat() {
+        return delegate.getTimestampFormat();
+    }
+
+    @Override
+    public void setTimestampFormat(TimestampFormat timestampFormat) {
+        delegate.setTimestampFormat(timestampFormat);
+    }
+
+    // ---- чтение ----
+
+    @Override
+    public Product findById(UUID id) throws SQLException {
+        Product cached = products.get(id);
+        if (cached != null) {
+            return new Product(cached);
+        }
+        long epoch = products.epoch();
+        Product product = delegate.findById(id);
+        if (product != null) {
+            products.putIfUnchanged(id, new Product(product), epoch);
+        }
+        return product;
+    }
+
+    @Override
+    public Page<Product> findPage(String pageToken, int limit) throws SQLException {
+        String key = "list|" + limit + "|" + pageToken;
+        Page<Product> cached = pages.get(key);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        long pagesEpoch = pages.epoch();
+        long productsEpoch = products.epoch();
+        Page<Product> page = delegate.findPage(pageToken, limit);
+        remember(key, page, pagesEpoch, productsEpoch);
+        return page;
+    }
+
+    @Override
+    public Page<Product> search(String query, int limit, String pageToken) throws SQLException {
+        String key = "search|" + limit + "|" + pageToken + "|" + query;
+        Page<Product> cached = pages.get(key);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        long pagesEpoch = pages.epoch();
+        long productsEpoch = products.epoch();
+        Page<Product> page = delegate.search(query, limit, pageToken);
+        remember(key, page, pagesEpoch, productsEpoch);
+        return page;
+    }
+
+    private void remember(String key, Page<Product> page, long pagesEpoch, long productsEpoch) {
+        Page<Product> copy = copyOf(page);
+        pages.putIfUnchanged(key, copy, pagesEpoch);
+        // Продукты со страницы прогревают кэш по id (например, для диалога редактирования)
+        for (Product product : copy.getItems()) {
+            if (!products.putIfUnchanged(product.getId(), product, productsEpoch)) {
+                break;
+            }
+        }
+    }
+
+    private static Page<Product> copyOf(Page<Product> page) {
+        List<Product> items = new ArrayList<>(page.getItems().size());
+        for (Product product : page.getItems()) {
+            items.add(new Product(product));
+        }
+        return new Page<>(items, page.getNextToken(), page.getPreviousToken());
+    }
+
+    @Override
+    public List<Product> findAll() throws SQLException {
+        return delegate.findAll();
+    }
+
+    @Override
+    public long forEach(Consumer<? super Product> action) throws SQLException {
+        return delegate.forEach(action);
+    }
+
+    @Override
+    public List<Product> findWithPagination(int offset, int limit) throws SQLException {
+        return delegate.findWithPagination(offset, limit);
+    }
+
+    @Override
+    public int countSearch(String query) throws SQLException {
+        return delegate.countSearch(query);
+    }
+
+    @Override
+    public int countSearch(String query, int limit) throws SQLException {
+        return delegate.countSearch(query, limit);
+    }
+
+    @Override
+    public List<Product> findByName(String name) throws SQLException {
+        return delegate.findByName(name);
+    }
+
+    @Override
+    public int countAll() throws SQLException {
+        return delegate.countAll();
+    }
+
+    // ---- запись: после любой попытки сбрасываем затронутое ----
+
+    @Override
+    public void save(Product product) throws SQLException {
+        try {
+            delegate.save(product);
+        } finally {
+            pages.invalidateAll();
+        }
+    }
+
+    @Override
+    public void saveAll(Collection<Product> batch) throws SQLException {
+        try {
+            delegate.saveAll(batch);
+        } finally {
+            pages.invalidateAll();
+        }
+    }
+
+    @Override
+    public void update(Product product) throws SQLException {
+        try {
+            delegate.update(product);
+        } finally {
+            products.invalidate(product.getId());
+            pages.invalidateAll();
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<Product> batch) throws SQLException {
+        try {
+            delegate.updateAll(batch);
+        } finally {
+            for (Product product : batch) {
+                products.invalidate(product.getId());
+            }
+            pages.invalidateAll();
+        }
+    }
+
+    @Override
+    public int delete(UUID id) throws SQLException {
+        try {
+            return delegate.delete(id);
+        } finally {
+            products.invalidate(id);
+            pages.invalidateAll();
+        }
+    }
+
+    @Override
+    public int deleteAll(Collection<UUID> ids) throws SQLException {
+        try {
+            return delegate.deleteAll(ids);
+        } finally {
+            for (UUID id : ids) {
+                products.invalidate(id);
+            }
+            pages.invalidateAll();
+        }
+    }
+
+    @Override
+    public int writeAll(Collection<Product> inserts, Collection<Product> updates, Collection<UUID> deletes)
+            throws SQLException {
+        try {
+            return delegate.writeAll(inserts, updates, deletes);
+        } finally {
+            for (Product product : updates) {
+                products.invalidate(product.getId());
+            }
+            for (UUID id : deletes) {
+                products.invalidate(id);
+            }
+            pages.invalidateAll();
+        }
+    }
+}
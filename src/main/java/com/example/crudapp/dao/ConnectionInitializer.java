@@ -0,0 +1,13 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Настройка только что открытого физического соединения (PRAGMA и т.п.).
+ * Вызывается пулом один раз на соединение, а не при каждой выдаче.
+ */
+public interface ConnectionInitializer {
+
+    void initialize(Connection connection) throws SQLException;
+}
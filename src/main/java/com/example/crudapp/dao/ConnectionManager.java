@@ -0,0 +1,92 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Один писатель и несколько читателей над одной базой.
+ *
+ * <p>SQLite в режиме WAL допускает одну пишущую транзакцию и сколько угодно
+ * читающих, причём читатели видят последний подтверждённый снимок и писателя не
+ * ждут. Поэтому все записи идут через единственное соединение: пул из одного
+ * соединения выстраивает писателей в очередь внутри процесса, и они не
+ * соревнуются за блокировку файла и не получают SQLITE_BUSY. Запросы получают
+ * соединения из отдельного пула читателей ({@code PRAGMA query_only}), по
+ * умолчанию по одному на ядро.</p>
+ */
+public class ConnectionManager implements AutoCloseable {
+
+    /**
+     * Системное свойство с числом соединений для чтения.
+     */
+    public static final String READERS_PROPERTY = "crudapp.pool.readers";
+
+    // Писатель может ждать всю пакетную транзакцию (импорт) перед ним в очереди
+    public static final long WRITER_ACQUIRE_TIMEOUT_MILLIS = 60_000;
+
+    private final ConnectionPool writer;
+    private final ConnectionPool readers;
+
+    /**
+     * Менеджер с профилем хранения и числом читателей из настроек.
+     */
+    public ConnectionManager(String url) {
+        this(url, Integer.getInteger(READERS_PROPERTY, defaultReaders()), StorageProfile.configured());
+    }
+
+    public ConnectionManager(String url, int readerCount, ConnectionInitializer initializer) {
+        // Писатель не закрывается по простою: он нужен всегда и держит кэш выражений записи
+        this.writer = new ConnectionPool(url, 1, 0, WRITER_ACQUIRE_TIMEOUT_MILLIS, initializer);
+        this.readers = new ConnectionPool(url, readerCount, ConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS,
+                ConnectionPool.DEFAULT_ACQUIRE_TIMEOUT_MILLIS, readOnly(initializer));
+    }
+
+    public static int defaultReaders() {
+        return Math.max(2, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static ConnectionInitializer readOnly(ConnectionInitializer initializer) {
+        return connection -> {
+            if (initializer != null) {
+                initializer.initialize(connection);
+            }
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+        };
+    }
+
+    /**
+     * Единственное соединение для записи; следующий писатель ждёт, пока его вернут.
+     */
+    public Connection getWriteConnection() throws SQLException {
+        return writer.getConnection();
+    }
+
+    /**
+     * Соединение только для чтения: любая запись через него завершится ошибкой.
+     */
+    public Connection getReadConnection() throws SQLException {
+        return readers.getConnection();
+    }
+
+    public ConnectionPool getWriterPool() {
+        return writer;
+    }
+
+    public ConnectionPool getReaderPool() {
+        return readers;
+    }
+
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        writer.setSlowQueryLog(slowQueryLog);
+        readers.setSlowQueryLog(slowQueryLog);
+    }
+
+    @Override
+    public void close() {
+        readers.close();
+        writer.close();
+    }
+}
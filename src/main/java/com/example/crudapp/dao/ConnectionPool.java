@@ -0,0 +1,413 @@
+package com.example.crudapp.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ограниченный пул соединений SQLite.
+ *
+ * <p>{@link #getConnection()} выдаёт обёртку над физическим соединением, у которой
+ * {@code close()} возвращает соединение в пул, поэтому DAO может по-прежнему
+ * использовать try-with-resources. Простаивающие дольше {@code idleTimeoutMillis}
+ * соединения закрываются фоновым потоком, но не меньше {@code minIdle} штук.</p>
+ *
+ * <p>У каждого физического соединения есть свой {@link StatementCache}: повторный
+ * {@code prepareStatement(sql)} с тем же текстом не разбирает SQL заново.</p>
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_SIZE = 4;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+    public static final long DEFAULT_ACQUIRE_TIMEOUT_MILLIS = 10_000;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+
+    private final String url;
+    private final int maxSize;
+    private final int minIdle;
+    private final long idleTimeoutMillis;
+    private final long acquireTimeoutMillis;
+    private final ConnectionInitializer initializer;
+    private volatile int statementCacheSize = DEFAULT_STATEMENT_CACHE_SIZE;
+    private volatile SlowQueryLog slowQueryLog;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private int total;
+    private int active;
+    private boolean closed;
+
+    private final AtomicLong leaseCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    private final ScheduledExecutorService evictor;
+
+    /**
+     * Пул с профилем хранения из настроек (см. {@link StorageProfile#configured()}).
+     */
+    public ConnectionPool(String url) {
+        this(url, DEFAULT_MAX_SIZE, DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_ACQUIRE_TIMEOUT_MILLIS,
+                StorageProfile.configured());
+    }
+
+    public ConnectionPool(String url, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis) {
+        this(url, maxSize, idleTimeoutMillis, acquireTimeoutMillis, StorageProfile.configured());
+    }
+
+    public ConnectionPool(String url, int maxSize, long idleTimeoutMillis, long acquireTimeoutMillis,
+                          ConnectionInitializer initializer) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Размер пула должен быть положительным");
+        }
+        this.url = url;
+        this.maxSize = maxSize;
+        this.minIdle = 1;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.initializer = initializer;
+
+        if (idleTimeoutMillis > 0) {
+            evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "sqlite-pool-evictor");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(idleTimeoutMillis / 2, 10);
+            evictor.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            evictor = null;
+        }
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Размер кэша выражений для вновь открываемых соединений; 0 отключает кэш.
+     */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    /**
+     * Журнал медленных запросов для выражений, создаваемых после вызова; null отключает.
+     */
+    public void setSlowQueryLog(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
+
+    /**
+     * Выдаёт соединение из пула, ожидая не дольше {@code acquireTimeoutMillis}.
+     * Вызов {@code close()} у полученного соединения возвращает его в пул.
+     */
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        PooledConnection pooled = null;
+        boolean mustOpen = false;
+
+        lock.lock();
+        try {
+            while (pooled == null && !mustOpen) {
+                if (closed) {
+                    throw new SQLException("Пул соединений закрыт");
+                }
+                if (!idle.isEmpty()) {
+                    pooled = idle.pollFirst();
+                } else if (total < maxSize) {
+                    total++;
+                    mustOpen = true;
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeoutCount.incrementAndGet();
+                        throw new SQLException("Не удалось получить соединение из пула за "
+                                + acquireTimeoutMillis + " мс (размер пула " + maxSize + ")");
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Ожидание соединения прервано", e);
+                    }
+                }
+            }
+            active++;
+        } finally {
+            lock.unlock();
+        }
+
+        if (mustOpen) {
+            try {
+                pooled = openPhysical();
+            } catch (SQLException | RuntimeException e) {
+                lock.lock();
+                try {
+                    total--;
+                    active--;
+                    available.signal();
+                } finally {
+                    lock.unlock();
+                }
+                throw e;
+            }
+        }
+
+        recordWait(System.nanoTime() - start);
+        return pooled.lease();
+    }
+
+    private PooledConnection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url);
+        try {
+            if (initializer != null) {
+                initializer.initialize(physical);
+            }
+        } catch (SQLException e) {
+            physical.close();
+            throw e;
+        }
+        createdCount.incrementAndGet();
+        return new PooledConnection(physical);
+    }
+
+    private void recordWait(long waitNanos) {
+        leaseCount.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        long max;
+        while (waitNanos > (max = maxWaitNanos.get())) {
+            if (maxWaitNanos.compareAndSet(max, waitNanos)) {
+                break;
+            }
+        }
+    }
+
+    void release(PooledConnection pooled) {
+        boolean healthy = pooled.reset();
+
+        lock.lock();
+        try {
+            active--;
+            if (closed || !healthy) {
+                total--;
+                pooled.closePhysical();
+            } else {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.addFirst(pooled);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрывает соединения, простаивающие дольше {@code idleTimeoutMillis},
+     * оставляя в пуле не меньше {@code minIdle} свободных соединений.
+     */
+    public void evictIdleConnections() {
+        if (idleTimeoutMillis <= 0) {
+            return;
+        }
+        List<PooledConnection> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            // Самые давно вернувшиеся соединения лежат в хвосте очереди
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedAt >= idleTimeoutMillis) {
+                    it.remove();
+                    total--;
+                    expired.add(pooled);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pooled : expired) {
+            pooled.closePhysical();
+            evictedCount.incrementAndGet();
+        }
+    }
+
+    public PoolStats getStats() {
+        lock.lock();
+        try {
+            return new PoolStats(active, idle.size(), maxSize, leaseCount.get(), totalWaitNanos.get(),
+                    maxWaitNanos.get(), createdCount.get(), evictedCount.get(), timeoutCount.get(),
+                    statementHits.get(), statementMisses.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрывает все свободные соединения; выданные будут закрыты при возврате.
+     */
+    @Override
+    public void close() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+        for (PooledConnection pooled : toClose) {
+            pooled.closePhysical();
+        }
+    }
+
+    /**
+     * Физическое соединение, живущее в пуле между выдачами.
+     */
+    final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private long lastReturnedAt;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new StatementCache(physical, statementCacheSize, statementHits, statementMisses);
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+
+        /**
+         * Возвращает соединение в исходное состояние перед повторной выдачей.
+         * Незавершённая транзакция откатывается.
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            statementCache.closeAll();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Обработчик одной выдачи: после {@code close()} обёртка становится недействительной,
+     * а физическое соединение уходит обратно в пул.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + url + (returned ? ", returned" : "") + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Соединение уже возвращено в пул");
+            }
+            Object result;
+            if ("prepareStatement".equals(name) && args.length == 1) {
+                result = pooled.statementCache.prepare((String) args[0]);
+            } else {
+                try {
+                    result = method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            SlowQueryLog log = slowQueryLog;
+            if (log == null) {
+                return result;
+            }
+            if (result instanceof PreparedStatement) {
+                return log.wrap((PreparedStatement) result, (String) args[0], pooled.physical);
+            }
+            if (result instanceof Statement) {
+                return log.wrap((Statement) result, pooled.physical);
+            }
+            return result;
+        }
+    }
+}
@@ -1,57 +1,144 @@
 package com.example.crudapp.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
 
 public class DatabaseConnection {
     private static final String URL = "jdbc:sqlite:crud_app.db";
-    private static Connection connection = null;
+    private static ConnectionManager manager = null;
+    private static WalCheckpointer checkpointer = null;
+    private static SlowQueryLog slowQueryLog = null;
 
     private DatabaseConnection() {}
 
-    public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(URL);
-            connection.createStatement().execute("PRAGMA foreign_keys = ON");
+    /**
+     * Соединения основной базы: один писатель и пул читателей (см. {@link ConnectionManager}).
+     * Соединения настраиваются профилем {@link StorageProfile#configured()}, а WAL
+     * периодически сбрасывает {@link WalCheckpointer}. Если задан
+     * {@link SlowQueryLog#THRESHOLD_PROPERTY}, запросы дольше порога пишутся в журнал
+     * медленных запросов.
+     */
+    public static synchronized ConnectionManager getManager() {
+        if (manager == null) {
+            StorageProfile profile = StorageProfile.configured();
+            int readers = Integer.getInteger(ConnectionManager.READERS_PROPERTY, ConnectionManager.defaultReaders());
+            System.out.println("Профиль хранения: " + profile.name().toLowerCase() + ", читателей: " + readers);
+            manager = new ConnectionManager(URL, readers, profile);
+            checkpointer = new WalCheckpointer(URL);
+            try {
+                slowQueryLog = SlowQueryLog.fromSystemProperties();
+                manager.setSlowQueryLog(slowQueryLog);
+            } catch (IOException | IllegalArgumentException e) {
+                System.out.println("Журнал медленных запросов отключён: " + e.getMessage());
+            }
         }
-        return connection;
+        return manager;
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
+    /**
+     * Пул записи основной базы (одно соединение): миграции, обслуживание и запись.
+     */
+    public static ConnectionPool getPool() {
+        return getManager().getWriterPool();
+    }
+
+    public static synchronized WalCheckpointer getCheckpointer() {
+        getManager();
+        return checkpointer;
+    }
+
+    /**
+     * Возвращает соединение для записи. Закрытие соединения возвращает его в пул,
+     * поэтому вызывающий код обязан закрывать его (try-with-resources).
+     */
+    public static Connection getConnection() throws SQLException {
+        return getManager().getWriteConnection();
+    }
+
+    /**
+     * Возвращает соединение только для чтения; закрывать так же обязательно.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return getManager().getReadConnection();
+    }
+
+    public static synchronized void closeConnection() {
+        if (checkpointer != null) {
+            checkpointer.close();
+            checkpointer = null;
+        }
+        if (manager != null) {
+            manager.close();
+            manager = null;
+        }
+        if (slowQueryLog != null) {
+            slowQueryLog.close();
+            slowQueryLog = null;
         }
     }
 
     public static void initializeDatabase() {
-        String createTableSQL = "CREATE TABLE IF NOT EXISTS products (" +
-                "id TEXT PRIMARY KEY, " +
-                "name VARCHAR(50) NOT NULL, " +
-                "description TEXT, " +
-                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
-                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
-                ")";
-
-        String createUpdateTrigger = "CREATE TRIGGER IF NOT EXISTS update_product_timestamp " +
-                "AFTER UPDATE ON products " +
-                "BEGIN " +
-                "UPDATE products SET updated_at = CURRENT_TIMESTAMP WHERE id = NEW.id; " +
-                "END;";
-
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-
-            stmt.execute(createTableSQL);
-            stmt.execute(createUpdateTrigger);
+        initializeDatabase(getPool());
+    }
+
+    /**
+     * Приводит схему базы к актуальной версии (см. {@link SchemaMigrations})
+     * и печатает, сколько заняла каждая применённая миграция. Если задан
+     * {@link IdFormat#PROPERTY}, переводит id в этот формат, если задан
+     * {@link TimestampFormat#PROPERTY} — время.
+     */
+    public static void initializeDatabase(ConnectionPool pool) {
+        SchemaMigrator migrator = new SchemaMigrator(SchemaMigrations.all());
 
+        try (Connection conn = pool.getConnection()) {
+            long start = System.nanoTime();
+            List<MigrationResult> applied = migrator.migrate(conn);
+            if (!applied.isEmpty()) {
+                System.out.println("Миграции схемы (" + (System.nanoTime() - start) / 1_000_000 + " мс):");
+                for (MigrationResult result : applied) {
+                    System.out.println("  " + result);
+                }
+            }
+            IdFormat idFormat = IdFormat.configured();
+            if (idFormat != null) {
+                convertIds(conn, idFormat);
+            }
+            TimestampFormat timestampFormat = TimestampFormat.configured();
+            if (timestampFormat != null) {
+                convertTimestamps(conn, timestampFormat);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private static void convertIds(Connection conn, IdFormat idFormat) throws SQLException {
+        if (StorageSettings.readIdFormat(conn) == idFormat) {
+            return;
+        }
+        Map<String, Long> before = StorageSettings.spaceUsage(conn);
+        long start = System.nanoTime();
+        int converted = StorageSettings.convertIds(conn, idFormat);
+        System.out.println("Формат id: " + idFormat.getSettingValue() + ", переведено строк: " + converted +
+                " (" + (System.nanoTime() - start) / 1_000_000 + " мс)");
+        Map<String, Long> after = StorageSettings.spaceUsage(conn);
+        for (Map.Entry<String, Long> entry : after.entrySet()) {
+            Long previous = before.get(entry.getKey());
+            System.out.printf("  %-32s %,12d -> %,12d байт%n",
+                    entry.getKey(), previous != null ? previous : 0L, entry.getValue());
+        }
+    }
+
+    private static void convertTimestamps(Connection conn, TimestampFormat timestampFormat) throws SQLException {
+        if (StorageSettings.readTimestampFormat(conn) == timestampFormat) {
+            return;
+        }
+        long start = System.nanoTime();
+        int converted = StorageSettings.convertTimestamps(conn, timestampFormat);
+        System.out.println("Формат времени: " + timestampFormat.getSettingValue() + ", переведено строк: " +
+                converted + " (" + (System.nanoTime() - start) / 1_000_000 + " мс)");
+    }
+}
@@ -4,9 +4,54 @@ import java.sql.Connection;
 import java.sql.SQLException;
 
 public class DatabaseProductDAO extends ProductDAO {
+    private final ConnectionPool writePool;
+    private final ConnectionPool readPool;
+    private volatile boolean formatsResolved;
+
+    /**
+     * DAO основной базы: запись через писателя, чтение через читателей
+     * {@link DatabaseConnection#getManager()}.
+     */
+    public DatabaseProductDAO() {
+        this((ConnectionPool) null);
+    }
+
+    // Отдельный пул, например для временной базы в тестах; чтение и запись идут через него
+    public DatabaseProductDAO(ConnectionPool pool) {
+        this.writePool = pool;
+        this.readPool = pool;
+    }
+
+    public DatabaseProductDAO(ConnectionManager manager) {
+        this.writePool = manager.getWriterPool();
+        this.readPool = manager.getReaderPool();
+    }
 
     @Override
     protected Connection getConnection() throws SQLException {
-        return DatabaseConnection.getConnection();
+        return resolveFormats(writePool != null ? writePool.getConnection() : DatabaseConnection.getConnection());
+    }
+
+    @Override
+    protected Connection getReadConnection() throws SQLException {
+        return resolveFormats(readPool != null ? readPool.getConnection() : DatabaseConnection.getReadConnection());
+    }
+
+    /**
+     * При первом обращении читает форматы id и времени из самой базы: они задаются при
+     * инициализации (см. {@link DatabaseConnection#initializeDatabase(ConnectionPool)}).
+     */
+    private Connection resolveFormats(Connection conn) throws SQLException {
+        if (!formatsResolved) {
+            try {
+                setIdFormat(StorageSettings.readIdFormat(conn));
+                setTimestampFormat(StorageSettings.readTimestampFormat(conn));
+            } catch (SQLException | RuntimeException e) {
+                conn.close();
+                throw e;
+            }
+            formatsResolved = true;
+        }
+        return conn;
     }
-}
\ No newline at end of file
+}
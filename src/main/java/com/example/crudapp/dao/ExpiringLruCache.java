@@ -0,0 +1,96 @@
+package com.example.crudapp.dao;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Потокобезопасный LRU-кэш с ограниченным числом записей и временем жизни записи.
+ *
+ * <p>Каждый сброс увеличивает номер эпохи. Кто читает значение из источника,
+ * запоминает эпоху до чтения и кладёт результат через {@link #putIfUnchanged}:
+ * если за время чтения что-то сбросили, прочитанное могло устареть и не кэшируется.</p>
+ */
+public class ExpiringLruCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long epoch;
+
+    public ExpiringLruCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value;
+    }
+
+    public synchronized long epoch() {
+        return epoch;
+    }
+
+    /**
+     * Кладёт значение, только если с эпохи {@code expectedEpoch} ничего не сбрасывалось.
+     */
+    public synchronized boolean putIfUnchanged(K key, V value, long expectedEpoch) {
+        if (epoch != expectedEpoch) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    public synchronized void put(K key, V value) {
+        if (maxSize <= 0) {
+            return;
+        }
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        epoch++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateAll() {
+        epoch++;
+        entries.clear();
+    }
+
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), maxSize);
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.crudapp.dao;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Перевод пользовательской строки поиска в выражение FTS5 MATCH.
+ *
+ * <p>Строка делится на слова; каждое слово берётся в кавычки (операторы FTS5
+ * в нём не действуют) и ищется как префикс. Все слова должны найтись.</p>
+ */
+public final class FtsQuery {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private FtsQuery() {}
+
+    /**
+     * Слова запроса в нижнем регистре, в том порядке, в котором введены.
+     */
+    public static List<String> tokens(String query) {
+        if (query == null) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Проверка в памяти, найдёт ли MATCH по {@code queryTokens} строку с такими текстами:
+     * каждое слово запроса — начало какого-нибудь слова текста. Диакритика, как и
+     * в токенизаторе индекса, не учитывается.
+     */
+    public static boolean matches(List<String> queryTokens, String... texts) {
+        List<String> words = new ArrayList<>();
+        for (String text : texts) {
+            if (text != null) {
+                for (String word : tokens(text)) {
+                    words.add(fold(word));
+                }
+            }
+        }
+        for (String token : queryTokens) {
+            String prefix = fold(token);
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String fold(String word) {
+        return COMBINING_MARKS.matcher(Normalizer.normalize(word, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    /**
+     * @return выражение для MATCH или null, если в запросе нет ни одного слова
+     */
+    public static String toMatchExpression(String query) {
+        List<String> tokens = tokens(query);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        for (String token : tokens) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(token).append("\"*");
+        }
+        return match.toString();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.crudapp.dao;
+
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Формат хранения {@code products.id}: строка из 36 символов или 16 байт BLOB.
+ *
+ * <p>Порядок не меняется: байты UUID сравниваются так же, как его запись строчными
+ * шестнадцатеричными цифрами, поэтому сортировка и ключи страниц по (created_at, id)
+ * совпадают в обоих форматах.</p>
+ */
+public enum IdFormat {
+
+    TEXT("text") {
+        @Override
+        public void bind(PreparedStatement pstmt, int index, UUID id) throws SQLException {
+            pstmt.setString(index, id.toString());
+        }
+
+        @Override
+        public UUID read(ResultSet rs, String column) throws SQLException {
+            return UUID.fromString(rs.getString(column));
+        }
+
+        @Override
+        public UUID read(ResultSet rs, int index) throws SQLException {
+            return UUID.fromString(rs.getString(index));
+        }
+
+        @Override
+        String fromOtherSql(String column) {
+            String hex = "lower(hex(" + column + "))";
+            return "substr(" + hex + ", 1, 8) || '-' || substr(" + hex + ", 9, 4) || '-' || " +
+                    "substr(" + hex + ", 13, 4) || '-' || substr(" + hex + ", 17, 4) || '-' || " +
+                    "substr(" + hex + ", 21, 12)";
+        }
+    },
+
+    BLOB("blob") {
+        @Override
+        public void bind(PreparedStatement pstmt, int index, UUID id) throws SQLException {
+            pstmt.setBytes(index, toBytes(id));
+        }
+
+        @Override
+        public UUID read(ResultSet rs, String column) throws SQLException {
+            return fromBytes(rs.getBytes(column));
+        }
+
+        @Override
+        public UUID read(ResultSet rs, int index) throws SQLException {
+            return fromBytes(rs.getBytes(index));
+        }
+
+        @Override
+        String fromOtherSql(String column) {
+            return "unhex(replace(" + column + ", '-', ''))";
+        }
+    };
+
+    /**
+     * Системное свойство с желаемым форматом ({@code text} или {@code blob}).
+     * Если оно не задано, база остаётся в том формате, в котором создана.
+     */
+    public static final String PROPERTY = "crudapp.storage.idFormat";
+
+    private final String settingValue;
+
+    IdFormat(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    public abstract void bind(PreparedStatement pstmt, int index, UUID id) throws SQLException;
+
+    public abstract UUID read(ResultSet rs, String column) throws SQLException;
+
+    public abstract UUID read(ResultSet rs, int index) throws SQLException;
+
+    /**
+     * SQL-выражение, переводящее значение {@code column} из другого формата в этот.
+     */
+    abstract String fromOtherSql(String column);
+
+    /**
+     * Значение {@code typeof()} в SQLite для id в этом формате.
+     */
+    String sqliteType() {
+        return settingValue;
+    }
+
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * @throws IllegalArgumentException если формат неизвестен
+     */
+    public static IdFormat parse(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (IdFormat format : values()) {
+            if (format.settingValue.equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный формат id: " + value);
+    }
+
+    /**
+     * Формат из {@link #PROPERTY} или null, если свойство не задано.
+     */
+    public static IdFormat configured() {
+        String value = System.getProperty(PROPERTY);
+        return value == null || value.trim().isEmpty() ? null : parse(value);
+    }
+
+    /**
+     * Разбирает id, прочитанный без учёта формата (например, через getObject).
+     */
+    public static UUID fromValue(Object value) {
+        return value instanceof byte[] ? fromBytes((byte[]) value) : UUID.fromString(value.toString());
+    }
+
+    public static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    public static UUID fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != 16) {
+            throw new IllegalArgumentException("Некорректный id: ожидалось 16 байт");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.metrics.Metrics;
+import com.example.crudapp.metrics.OperationMetrics;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Декоратор ProductDAO, замеряющий каждый вызов (см. {@link Metrics}).
+ * Операции называются {@code <prefix>.<метод>}; префикс по умолчанию {@code dao}.
+ */
+public class InstrumentedProductDAO extends ProductDAO {
+
+    private final ProductDAO delegate;
+
+    private final OperationMetrics save;
+    private final OperationMetrics saveAll;
+    private final OperationMetrics findAll;
+    private final OperationMetrics forEach;
+    private final OperationMetrics findWithPagination;
+    private final OperationMetrics findPage;
+    private final OperationMetrics search;
+    private final OperationMetrics countSearch;
+    private final OperationMetrics findByName;
+    private final OperationMetrics findById;
+    private final OperationMetrics update;
+    private final OperationMetrics updateAll;
+    private final OperationMetrics delete;
+    private final OperationMetrics deleteAll;
+    private final OperationMetrics writeAll;
+    private final OperationMetrics countAll;
+
+    public InstrumentedProductDAO(ProductDAO delegate) {
+        this(delegate, Metrics.global(), "dao");
+    }
+
+    public InstrumentedProductDAO(ProductDAO delegate, Metrics metrics, String prefix) {
+        this.delegate = delegate;
+        this.save = metrics.operation(prefix + ".save");
+        this.saveAll = metrics.operation(prefix + ".saveAll");
+        this.findAll = metrics.operation(prefix + ".findAll");
+        this.forEach = metrics.operation(prefix + ".forEach");
+        this.findWithPagination = metrics.operation(prefix + ".findWithPagination");
+        this.findPage = metrics.operation(prefix + ".findPage");
+        this.search = metrics.operation(prefix + ".search");
+        this.countSearch = metrics.operation(prefix + ".countSearch");
+        this.findByName = metrics.operation(prefix + ".findByName");
+        this.findById = metrics.operation(prefix + ".findById");
+        this.update = metrics.operation(prefix + ".update");
+        this.updateAll = metrics.operation(prefix + ".updateAll");
+        this.delete = metrics.operation(prefix + ".delete");
+        this.deleteAll = metrics.operation(prefix + ".deleteAll");
+        this.writeAll = metrics.operation(prefix + ".writeAll");
+        this.countAll = metrics.operation(prefix + ".countAll");
+    }
+
+    @Override
+    protected Connection getConnection() throws SQLException {
+        return delegate.getConnection();
+    }
+
+    @Override
+    protected Connection getReadConnection() throws SQLException {
+        return delegate.getReadConnection();
+    }
+
+    @Override
+    public int getBatchSize() {
+        return delegate.getBatchSize();
+    }
+
+    @Override
+    public void setBatchSize(int batchSize) {
+        delegate.setBatchSize(batchSize);
+    }
+
+    @Override
+    public IdFormat getIdFormat() {
+        return delegate.getIdFormat();
+    }
+
+    @Override
+    public void setIdFormat(IdFormat idFormat) {
+        delegate.setIdFormat(idFormat);
+    }
+
+    @Override
+    public TimestampFormat getTimestampFormat() {
+        return delegate.getTimestampFormat();
+    }
+
+    @Override
+    public void setTimestampFormat(TimestampFormat timestampFormat) {
+        delegate.setTimestampFormat(timestampFormat);
+    }
+
+    @Override
+    public void save(Product product) throws SQLException {
+        save.run(() -> delegate.save(product), 1);
+    }
+
+    @Override
+    public void saveAll(Collection<Product> batch) throws SQLException {
+        saveAll.run(() -> delegate.saveAll(batch), batch.size());
+    }
+
+    @Override
+    public List<Product> findAll() throws SQLException {
+        return findAll.call(delegate::findAll);
+    }
+
+    @Override
+    public long forEach(Consumer<? super Product> action) throws SQLException {
+        return forEach.call(() -> delegate.forEach(action), rows -> rows);
+    }
+
+    @Override
+    public List<Product> findWithPagination(int offset, int limit) throws SQLException {
+        return findWithPagination.call(() -> delegate.findWithPagination(offset, limit));
+    }
+
+    @Override
+    public Page<Product> findPage(String pageToken, int limit) throws SQLException {
+        return findPage.call(() -> delegate.findPage(pageToken, limit));
+    }
+
+    @Override
+    public Page<Product> search(String query, int limit, String pageToken) throws SQLException {
+        return search.call(() -> delegate.search(query, limit, pageToken));
+    }
+
+    @Override
+    public int countSearch(String query) throws SQLException {
+        return countSearch.call(() -> delegate.countSearch(query), count -> 1);
+    }
+
+    @Override
+    public int countSearch(String query, int limit) throws SQLException {
+        return countSearch.call(() -> delegate.countSearch(query, limit), count -> 1);
+    }
+
+    @Override
+    public List<Product> findByName(String name) throws SQLException {
+        return findByName.call(() -> delegate.findByName(name));
+    }
+
+    @Override
+    public Product findById(UUID id) throws SQLException {
+        return findById.call(() -> delegate.findById(id));
+    }
+
+    @Override
+    public void update(Product product) throws SQLException {
+        update.run(() -> delegate.update(product), 1);
+    }
+
+    @Override
+    public void updateAll(Collection<Product> batch) throws SQLException {
+        updateAll.run(() -> delegate.updateAll(batch), batch.size());
+    }
+
+    @Override
+    public int delete(UUID id) throws SQLException {
+        return delete.call(() -> delegate.delete(id), deleted -> deleted);
+    }
+
+    @Override
+    public int deleteAll(Collection<UUID> ids) throws SQLException {
+        return deleteAll.call(() -> delegate.deleteAll(ids), deleted -> deleted);
+    }
+
+    @Override
+    public int writeAll(Collection<Product> inserts, Collection<Product> updates, Collection<UUID> deletes)
+            throws SQLException {
+        return writeAll.call(() -> delegate.writeAll(inserts, updates, deletes),
+                deleted -> inserts.size() + updates.size() + deletes.size());
+    }
+
+    @Override
+    public int countAll() throws SQLException {
+        return countAll.call(delegate::countAll, count -> 1);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Один шаг изменения схемы. Шаги применяются по возрастанию версии,
+ * каждый в своей транзакции, и больше не повторяются.
+ */
+public interface Migration {
+
+    int getVersion();
+
+    String getDescription();
+
+    void apply(Connection conn) throws SQLException;
+
+    /**
+     * Миграция из набора SQL-выражений, выполняемых по порядку.
+     */
+    static Migration of(int version, String description, String... statements) {
+        return new Migration() {
+            @Override
+            public int getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public void apply(Connection conn) throws SQLException {
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : statements) {
+                        stmt.execute(sql);
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.crudapp.dao;
+
+/**
+ * Запись отчёта о применённой при запуске миграции.
+ */
+public class MigrationResult {
+    private final int version;
+    private final String description;
+    private final long durationMillis;
+
+    public MigrationResult(int version, String description, long durationMillis) {
+        this.version = version;
+        this.description = description;
+        this.durationMillis = durationMillis;
+    }
+
+    public int getVersion() { return version; }
+    public String getDescription() { return description; }
+    public long getDurationMillis() { return durationMillis; }
+
+    @Override
+    public String toString() {
+        return String.format("v%d %s: %d мс", version, description, durationMillis);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Позиция в списке продуктов, упорядоченном по (created_at, id) по убыванию.
+ *
+ * <p>Курсор кодируется в непрозрачный токен, который UI и сервис передают
+ * обратно без разбора. Направление {@code AFTER} означает «строки после ключа»
+ * (следующая страница), {@code BEFORE} — «строки перед ключом» (предыдущая).</p>
+ */
+public final class PageCursor {
+
+    public enum Direction { AFTER, BEFORE }
+
+    private static final String VERSION = "k1";
+
+    private final Direction direction;
+    private final long createdAtMillis;
+    private final UUID id;
+
+    private PageCursor(Direction direction, long createdAtMillis, UUID id) {
+        this.direction = direction;
+        this.createdAtMillis = createdAtMillis;
+        this.id = id;
+    }
+
+    public static PageCursor after(Product product) {
+        return new PageCursor(Direction.AFTER, toMillis(product), product.getId());
+    }
+
+    public static PageCursor before(Product product) {
+        return new PageCursor(Direction.BEFORE, toMillis(product), product.getId());
+    }
+
+    // Так же, как ProductDAO записывает время (см. TimestampFormat), чтобы ключ совпадал с сохранённым значением
+    private static long toMillis(Product product) {
+        return Timestamp.valueOf(product.getCreatedAt()).getTime();
+    }
+
+    public Direction getDirection() { return direction; }
+    public UUID getId() { return id; }
+
+    public Timestamp getCreatedAt() {
+        return new Timestamp(createdAtMillis);
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+
+    public String encode() {
+        String raw = VERSION + ":" + direction.name().charAt(0) + ":" + createdAtMillis + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если токен повреждён или создан не этим классом
+     */
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":");
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Некорректный токен страницы");
+            }
+            Direction direction;
+            switch (parts[1]) {
+                case "A":
+                    direction = Direction.AFTER;
+                    break;
+                case "B":
+                    direction = Direction.BEFORE;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Некорректный токен страницы");
+            }
+            return new PageCursor(direction, Long.parseLong(parts[2]), UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный токен страницы", e);
+        }
+    }
+}
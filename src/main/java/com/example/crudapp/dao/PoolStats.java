@@ -0,0 +1,67 @@
+package com.example.crudapp.dao;
+
+/**
+ * Снимок метрик пула соединений на момент вызова {@link ConnectionPool#getStats()}.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int maxSize;
+    private final long leaseCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long createdCount;
+    private final long evictedCount;
+    private final long timeoutCount;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    public PoolStats(int active, int idle, int maxSize, long leaseCount, long totalWaitNanos,
+                     long maxWaitNanos, long createdCount, long evictedCount, long timeoutCount,
+                     long statementCacheHits, long statementCacheMisses) {
+        this.active = active;
+        this.idle = idle;
+        this.maxSize = maxSize;
+        this.leaseCount = leaseCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.createdCount = createdCount;
+        this.evictedCount = evictedCount;
+        this.timeoutCount = timeoutCount;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getMaxSize() { return maxSize; }
+    public long getLeaseCount() { return leaseCount; }
+    public long getTotalWaitNanos() { return totalWaitNanos; }
+    public long getMaxWaitNanos() { return maxWaitNanos; }
+    public long getCreatedCount() { return createdCount; }
+    public long getEvictedCount() { return evictedCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getStatementCacheHits() { return statementCacheHits; }
+    public long getStatementCacheMisses() { return statementCacheMisses; }
+
+    public double getAverageWaitMillis() {
+        return leaseCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / leaseCount;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", maxSize=" + maxSize +
+                ", leases=" + leaseCount +
+                ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis()) +
+                ", maxWaitMs=" + String.format("%.3f", maxWaitNanos / 1_000_000.0) +
+                ", created=" + createdCount +
+                ", evicted=" + evictedCount +
+                ", timeouts=" + timeoutCount +
+                ", stmtHits=" + statementCacheHits +
+                ", stmtMisses=" + statementCacheMisses +
+                '}';
+    }
+}
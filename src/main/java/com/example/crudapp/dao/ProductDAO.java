@@ -1,29 +1,102 @@
 package com.example.crudapp.dao;
 
+import com.example.crudapp.model.Page;
 import com.example.crudapp.model.Product;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public class ProductDAO {
 
+    // Фиксированный набор SQL: одинаковый текст позволяет пулу переиспользовать
+    // подготовленные выражения (см. StatementCache)
+    static final String INSERT_SQL =
+            "INSERT INTO products (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    static final String SELECT_ALL_SQL = "SELECT * FROM products ORDER BY created_at DESC";
+    // Тот же порядок, что и у постраничной выборки по ключу, чтобы OFFSET и курсоры не расходились
+    static final String SELECT_PAGE_SQL = "SELECT * FROM products ORDER BY created_at DESC, id DESC LIMIT ? OFFSET ?";
+    static final String SELECT_FIRST_PAGE_SQL =
+            "SELECT * FROM products ORDER BY created_at DESC, id DESC LIMIT ?";
+    static final String SELECT_PAGE_AFTER_SQL =
+            "SELECT * FROM products WHERE (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC LIMIT ?";
+    static final String SELECT_PAGE_BEFORE_SQL =
+            "SELECT * FROM products WHERE (created_at, id) > (?, ?) ORDER BY created_at ASC, id ASC LIMIT ?";
+    // Название весит больше описания; при равном ранге — сначала новые
+    static final String SEARCH_SQL = "SELECT p.* FROM products_fts f " +
+            "JOIN products p ON p.seq = f.rowid " +
+            "WHERE products_fts MATCH ? " +
+            "ORDER BY bm25(products_fts, 10.0, 1.0), p.created_at DESC, p.seq DESC " +
+            "LIMIT ? OFFSET ?";
+    static final String SEARCH_COUNT_SQL = "SELECT COUNT(*) AS count FROM products_fts WHERE products_fts MATCH ?";
+    static final String SEARCH_COUNT_LIMITED_SQL =
+            "SELECT COUNT(*) AS count FROM (SELECT 1 FROM products_fts WHERE products_fts MATCH ? LIMIT ?)";
+    static final String SELECT_BY_NAME_SQL = "SELECT * FROM products WHERE name LIKE ? ORDER BY created_at DESC";
+    static final String SELECT_BY_ID_SQL = "SELECT * FROM products WHERE id = ?";
+    static final String UPDATE_SQL = "UPDATE products SET name = ?, description = ?, updated_at = ? WHERE id = ?";
+    static final String DELETE_SQL = "DELETE FROM products WHERE id = ?";
+    static final String COUNT_SQL = "SELECT COUNT(*) as count FROM products";
+    // Порядок хранения: чтение идёт подряд по таблице, без обращений к индексу
+    static final String STREAM_ALL_SQL = "SELECT * FROM products ORDER BY seq";
+
+    public static final int STREAM_FETCH_SIZE = 1000;
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile IdFormat idFormat = IdFormat.TEXT;
+    private volatile TimestampFormat timestampFormat = TimestampFormat.TIMESTAMP;
+
     protected Connection getConnection() throws SQLException {
         return DatabaseConnection.getConnection();
     }
 
-    public void save(Product product) throws SQLException {
-        String sql = "INSERT INTO products (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    /**
+     * Соединение для запросов, которые ничего не пишут. По умолчанию то же, что
+     * {@link #getConnection()}; при раздельных соединениях чтение не стоит в очереди
+     * за писателем (см. {@link ConnectionManager}).
+     */
+    protected Connection getReadConnection() throws SQLException {
+        return getConnection();
+    }
+
+    public IdFormat getIdFormat() {
+        return idFormat;
+    }
+
+    /**
+     * Формат, в котором id передаются в базу и читаются из неё. Должен совпадать
+     * с форматом базы (см. {@link StorageSettings#readIdFormat}).
+     */
+    public void setIdFormat(IdFormat idFormat) {
+        this.idFormat = idFormat;
+    }
+
+    public TimestampFormat getTimestampFormat() {
+        return timestampFormat;
+    }
 
+    /**
+     * Формат created_at и updated_at. Должен совпадать с форматом базы
+     * (см. {@link StorageSettings#readTimestampFormat}).
+     */
+    public void setTimestampFormat(TimestampFormat timestampFormat) {
+        this.timestampFormat = timestampFormat;
+    }
+
+    public void save(Product product) throws SQLException {
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
 
-            pstmt.setString(1, product.getId().toString());
+            idFormat.bind(pstmt, 1, product.getId());
             pstmt.setString(2, product.getName());
             pstmt.setString(3, product.getDescription());
-            pstmt.setTimestamp(4, Timestamp.valueOf(product.getCreatedAt()));
-            pstmt.setTimestamp(5, Timestamp.valueOf(product.getUpdatedAt()));
+            timestampFormat.bind(pstmt, 4, product.getCreatedAt());
+            timestampFormat.bind(pstmt, 5, product.getUpdatedAt());
 
             pstmt.executeUpdate();
         }
@@ -31,33 +104,55 @@ public class ProductDAO {
 
     public List<Product> findAll() throws SQLException {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products ORDER BY created_at DESC";
-
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_ALL_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
 
+            ProductMapper mapper = new ProductMapper(rs, idFormat, timestampFormat);
             while (rs.next()) {
-                products.add(mapResultSetToProduct(rs));
+                products.add(mapper.map(rs));
             }
         }
 
         return products;
     }
 
+    /**
+     * Передаёт все строки таблицы в {@code action} по одной, не собирая их в список.
+     * Пока идёт обход, соединение держит транзакцию чтения.
+     *
+     * @return число переданных строк
+     */
+    public long forEach(Consumer<? super Product> action) throws SQLException {
+        long count = 0;
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(STREAM_ALL_SQL,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(STREAM_FETCH_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ProductMapper mapper = new ProductMapper(rs, idFormat, timestampFormat);
+                while (rs.next()) {
+                    action.accept(mapper.map(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
     public List<Product> findWithPagination(int offset, int limit) throws SQLException {
         List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products ORDER BY created_at DESC LIMIT ? OFFSET ?";
-
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_PAGE_SQL)) {
 
             pstmt.setInt(1, limit);
             pstmt.setInt(2, offset);
 
             try (ResultSet rs = pstmt.executeQuery()) {
+                ProductMapper mapper = new ProductMapper(rs, idFormat, timestampFormat);
                 while (rs.next()) {
-                    products.add(mapResultSetToProduct(rs));
+                    products.add(mapper.map(rs));
                 }
             }
         }
@@ -65,18 +160,160 @@ public class ProductDAO {
         return products;
     }
 
-    public List<Product> findByName(String name) throws SQLException {
-        List<Product> products = new ArrayList<>();
-        String sql = "SELECT * FROM products WHERE name LIKE ? ORDER BY created_at DESC";
+    /**
+     * Постраничная выборка по ключу (created_at, id) без OFFSET: стоимость страницы
+     * не зависит от её номера. {@code pageToken == null} означает первую страницу.
+     */
+    public Page<Product> findPage(String pageToken, int limit) throws SQLException {
+        PageCursor cursor = pageToken != null ? PageCursor.decode(pageToken) : null;
+        List<Product> products = new ArrayList<>(limit + 1);
+        String sql;
+        if (cursor == null) {
+            sql = SELECT_FIRST_PAGE_SQL;
+        } else if (cursor.getDirection() == PageCursor.Direction.AFTER) {
+            sql = SELECT_PAGE_AFTER_SQL;
+        } else {
+            sql = SELECT_PAGE_BEFORE_SQL;
+        }
 
-        try (Connection conn = getConnection();
+        try (Connection conn = getReadConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            int index = 1;
+            if (cursor != null) {
+                timestampFormat.bindMillis(pstmt, index++, cursor.getCreatedAtMillis());
+                idFormat.bind(pstmt, index++, cursor.getId());
+            }
+            // Одна лишняя строка показывает, есть ли страница дальше
+            pstmt.setInt(index, limit + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ProductMapper mapper = new ProductMapper(rs, idFormat, timestampFormat);
+                while (rs.next()) {
+                    products.add(mapper.map(rs));
+                }
+            }
+        }
+
+        boolean more = products.size() > limit;
+        if (more) {
+            products.remove(products.size() - 1);
+        }
+
+        boolean hasNext;
+        boolean hasPrevious;
+        if (cursor == null) {
+            hasNext = more;
+            hasPrevious = false;
+        } else if (cursor.getDirection() == PageCursor.Direction.AFTER) {
+            hasNext = more;
+            hasPrevious = true;
+        } else {
+            Collections.reverse(products);
+            hasNext = true;
+            hasPrevious = more;
+        }
+
+        if (products.isEmpty()) {
+            return new Page<>(products, null, null);
+        }
+        String nextToken = hasNext ? PageCursor.after(products.get(products.size() - 1)).encode() : null;
+        String previousToken = hasPrevious ? PageCursor.before(products.get(0)).encode() : null;
+        return new Page<>(products, nextToken, previousToken);
+    }
+
+    /**
+     * Полнотекстовый поиск по названию и описанию (см. {@link FtsQuery}) с ранжированием.
+     *
+     * @param pageToken токен из предыдущей страницы того же запроса или null
+     */
+    public Page<Product> search(String query, int limit, String pageToken) throws SQLException {
+        String match = FtsQuery.toMatchExpression(query);
+        if (match == null) {
+            return new Page<>(new ArrayList<>(), null, null);
+        }
+        int offset = pageToken != null ? SearchCursor.decode(pageToken, query).getOffset() : 0;
+        List<Product> products = new ArrayList<>(limit + 1);
+
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_SQL)) {
+
+            pstmt.setString(1, match);
+            pstmt.setInt(2, limit + 1);
+            pstmt.setInt(3, offset);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                ProductMapper mapper = new ProductMapper(rs, idFormat, timestampFormat);
+                while (rs.next()) {
+                    products.add(mapper.map(rs));
+                }
+            }
+        }
+
+        boolean hasNext = products.size() > limit;
+        if (hasNext) {
+            products.remove(products.size() - 1);
+        }
+        String nextToken = hasNext ? SearchCursor.at(query, offset + limit).encode() : null;
+        String previousToken = offset > 0 ? SearchCursor.at(query, Math.max(0, offset - limit)).encode() : null;
+        return new Page<>(products, nextToken, previousToken);
+    }
+
+    /**
+     * Число строк, найденных {@link #search(String, int, String)} по тому же запросу.
+     */
+    public int countSearch(String query) throws SQLException {
+        String match = FtsQuery.toMatchExpression(query);
+        if (match == null) {
+            return 0;
+        }
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_COUNT_SQL)) {
+
+            pstmt.setString(1, match);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("count");
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Как {@link #countSearch(String)}, но считает не дальше {@code limit} строк:
+     * для частых слов на большом каталоге полный подсчёт слишком дорог.
+     */
+    public int countSearch(String query, int limit) throws SQLException {
+        String match = FtsQuery.toMatchExpression(query);
+        if (match == null) {
+            return 0;
+        }
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_COUNT_LIMITED_SQL)) {
+
+            pstmt.setString(1, match);
+            pstmt.setInt(2, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt("count");
+                }
+            }
+        }
+        return 0;
+    }
+
+    public List<Product> findByName(String name) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_NAME_SQL)) {
+
             pstmt.setString(1, "%" + name + "%");
 
             try (ResultSet rs = pstmt.executeQuery()) {
+                ProductMapper mapper = new ProductMapper(rs, idFormat, timestampFormat);
                 while (rs.next()) {
-                    products.add(mapResultSetToProduct(rs));
+                    products.add(mapper.map(rs));
                 }
             }
         }
@@ -85,12 +322,10 @@ public class ProductDAO {
     }
 
     public Product findById(UUID id) throws SQLException {
-        String sql = "SELECT * FROM products WHERE id = ?";
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_ID_SQL)) {
 
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, id.toString());
+            idFormat.bind(pstmt, 1, id);
 
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
@@ -102,38 +337,186 @@ public class ProductDAO {
         return null;
     }
 
+    /**
+     * После записи в {@code product} ставится записанное в базу updated_at.
+     */
     public void update(Product product) throws SQLException {
-        String sql = "UPDATE products SET name = ?, description = ?, updated_at = ? WHERE id = ?";
-
+        long now = System.currentTimeMillis();
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_SQL)) {
 
-            pstmt.setString(1, product.getName());
-            pstmt.setString(2, product.getDescription());
-            pstmt.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
-            pstmt.setString(4, product.getId().toString());
+            bindUpdate(pstmt, product, now);
 
             pstmt.executeUpdate();
         }
+        stampUpdated(Collections.singletonList(product), now);
     }
 
-    public void delete(UUID id) throws SQLException {
-        String sql = "DELETE FROM products WHERE id = ?";
-
+    /**
+     * @return 1, если строка была удалена, 0 — если такой строки не было
+     */
+    public int delete(UUID id) throws SQLException {
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(DELETE_SQL)) {
 
-            pstmt.setString(1, id.toString());
-            pstmt.executeUpdate();
+            idFormat.bind(pstmt, 1, id);
+            return pstmt.executeUpdate();
         }
     }
 
-    public int countAll() throws SQLException {
-        String sql = "SELECT COUNT(*) as count FROM products";
+    public int getBatchSize() {
+        return batchSize;
+    }
 
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    /**
+     * Количество строк, отправляемых в одном executeBatch внутри пакетной транзакции.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Размер пакета должен быть положительным");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Вставляет все продукты одной транзакцией, отправляя их пакетами по {@link #getBatchSize()}.
+     * При ошибке транзакция откатывается целиком.
+     */
+    public void saveAll(Collection<Product> products) throws SQLException {
+        executeBatch(INSERT_SQL, products, this::bindInsert);
+    }
+
+    /**
+     * Как {@link #update}, одной транзакцией; updated_at продуктам ставится после фиксации.
+     */
+    public void updateAll(Collection<Product> products) throws SQLException {
+        long now = System.currentTimeMillis();
+        executeBatch(UPDATE_SQL, products, (pstmt, product) -> bindUpdate(pstmt, product, now));
+        stampUpdated(products, now);
+    }
+
+    /**
+     * @return количество фактически удалённых строк
+     */
+    public int deleteAll(Collection<UUID> ids) throws SQLException {
+        return executeBatch(DELETE_SQL, ids, (pstmt, id) -> idFormat.bind(pstmt, 1, id));
+    }
+
+    /**
+     * Удаления, вставки и изменения одной транзакцией, в этом порядке: одна фиксация
+     * (и один fsync) на всю группу. При ошибке откатывается вся группа. Изменённым
+     * продуктам после фиксации ставится записанное updated_at.
+     *
+     * @return количество фактически удалённых строк
+     */
+    public int writeAll(Collection<Product> inserts, Collection<Product> updates, Collection<UUID> deletes)
+            throws SQLException {
+        if (inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty()) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+        int deleted = inTransaction(conn -> {
+            int removed = addBatches(conn, DELETE_SQL, deletes, (pstmt, id) -> idFormat.bind(pstmt, 1, id));
+            addBatches(conn, INSERT_SQL, inserts, this::bindInsert);
+            addBatches(conn, UPDATE_SQL, updates, (pstmt, product) -> bindUpdate(pstmt, product, now));
+            return removed;
+        });
+        stampUpdated(updates, now);
+        return deleted;
+    }
+
+    private void bindInsert(PreparedStatement pstmt, Product product) throws SQLException {
+        idFormat.bind(pstmt, 1, product.getId());
+        pstmt.setString(2, product.getName());
+        pstmt.setString(3, product.getDescription());
+        timestampFormat.bind(pstmt, 4, product.getCreatedAt());
+        timestampFormat.bind(pstmt, 5, product.getUpdatedAt());
+    }
+
+    private void bindUpdate(PreparedStatement pstmt, Product product, long now) throws SQLException {
+        pstmt.setString(1, product.getName());
+        pstmt.setString(2, product.getDescription());
+        timestampFormat.bindMillis(pstmt, 3, now);
+        idFormat.bind(pstmt, 4, product.getId());
+    }
+
+    // То же значение, что ProductMapper прочитает из базы (миллисекунды местного времени)
+    private static void stampUpdated(Collection<Product> products, long now) {
+        LocalDateTime updatedAt = new Timestamp(now).toLocalDateTime();
+        for (Product product : products) {
+            product.setUpdatedAt(updatedAt);
+        }
+    }
+
+    private <T> int executeBatch(String sql, Collection<T> items, BatchBinder<T> binder) throws SQLException {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        return inTransaction(conn -> addBatches(conn, sql, items, binder));
+    }
+
+    private int inTransaction(TransactionBody body) throws SQLException {
+        try (Connection conn = getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                int affected = body.run(conn);
+                conn.commit();
+                return affected;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private <T> int addBatches(Connection conn, String sql, Collection<T> items, BatchBinder<T> binder)
+            throws SQLException {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        int affected = 0;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int pending = 0;
+            for (T item : items) {
+                binder.bind(pstmt, item);
+                pstmt.addBatch();
+                if (++pending == batchSize) {
+                    affected += sum(pstmt.executeBatch());
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                affected += sum(pstmt.executeBatch());
+            }
+        }
+        return affected;
+    }
+
+    private static int sum(int[] counts) {
+        int total = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                total += count;
+            }
+        }
+        return total;
+    }
+
+    private interface BatchBinder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+    private interface TransactionBody {
+        int run(Connection conn) throws SQLException;
+    }
+
+    public int countAll() throws SQLException {
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(COUNT_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
 
             if (rs.next()) {
                 return rs.getInt("count");
@@ -143,13 +526,11 @@ public class ProductDAO {
         return 0;
     }
 
+    /**
+     * Текущая строка как продукт. Для многих строк одного ResultSet дешевле
+     * один {@link ProductMapper}: номера столбцов ищутся один раз.
+     */
     protected Product mapResultSetToProduct(ResultSet rs) throws SQLException {
-        Product product = new Product();
-        product.setId(UUID.fromString(rs.getString("id")));
-        product.setName(rs.getString("name"));
-        product.setDescription(rs.getString("description"));
-        product.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
-        product.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
-        return product;
+        return new ProductMapper(rs, idFormat, timestampFormat).map(rs);
     }
 }
\ No newline at end of file
@@ -0,0 +1,147 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Product;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+
+/**
+ * Построчное чтение продуктов из одного ResultSet.
+ *
+ * <p>Номера столбцов ищутся один раз при создании, продукт собирается полным
+ * конструктором (без {@code UUID.randomUUID()} и {@code LocalDateTime.now()}), а
+ * время читается числом, без {@link Timestamp} и его календарных вычислений.</p>
+ *
+ * <p>{@code setTimestamp} драйвера хранит время как миллисекунды эпохи (INTEGER),
+ * и они переводятся в местное время так же, как это делает {@code Timestamp}.
+ * Старые строки, которые обновлял удалённый триггер, содержат текст
+ * {@code yyyy-MM-dd HH:mm:ss}: для текста SQLite возвращает числовой префикс (год),
+ * поэтому маленькое число означает, что значение надо прочитать строкой. В базе
+ * формата {@link TimestampFormat#EPOCH_MILLIS} таких строк нет, и проверка не нужна.</p>
+ */
+public final class ProductMapper {
+
+    // Меньше — не миллисекунды эпохи, а год из текста или юлианский день (около 2,4 млн)
+    private static final long MIN_EPOCH_MILLIS = 10_000_000L;
+
+    private final IdFormat idFormat;
+    private final boolean epochMillis;
+    private final int idIndex;
+    private final int nameIndex;
+    private final int descriptionIndex;
+    private final int createdAtIndex;
+    private final int updatedAtIndex;
+    private final ZoneRules zoneRules;
+    private final ZoneOffset fixedOffset;
+
+    public ProductMapper(ResultSet rs, IdFormat idFormat) throws SQLException {
+        this(rs, idFormat, TimestampFormat.TIMESTAMP);
+    }
+
+    public ProductMapper(ResultSet rs, IdFormat idFormat, TimestampFormat timestampFormat) throws SQLException {
+        this.idFormat = idFormat;
+        this.epochMillis = timestampFormat == TimestampFormat.EPOCH_MILLIS;
+        this.idIndex = rs.findColumn("id");
+        this.nameIndex = rs.findColumn("name");
+        this.descriptionIndex = rs.findColumn("description");
+        this.createdAtIndex = rs.findColumn("created_at");
+        this.updatedAtIndex = rs.findColumn("updated_at");
+        this.zoneRules = ZoneId.systemDefault().getRules();
+        this.fixedOffset = zoneRules.isFixedOffset() ? zoneRules.getOffset(Instant.EPOCH) : null;
+    }
+
+    public Product map(ResultSet rs) throws SQLException {
+        return new Product(
+                idFormat.read(rs, idIndex),
+                rs.getString(nameIndex),
+                rs.getString(descriptionIndex),
+                readTime(rs, createdAtIndex),
+                readTime(rs, updatedAtIndex));
+    }
+
+    private LocalDateTime readTime(ResultSet rs, int index) throws SQLException {
+        long millis = rs.getLong(index);
+        if (epochMillis) {
+            return millis == 0 && rs.wasNull() ? null : fromEpochMillis(millis);
+        }
+        if (millis >= MIN_EPOCH_MILLIS || millis <= -MIN_EPOCH_MILLIS) {
+            return fromEpochMillis(millis);
+        }
+        String text = rs.getString(index);
+        if (text == null) {
+            return null;
+        }
+        LocalDateTime parsed = parseText(text);
+        if (parsed != null) {
+            return parsed;
+        }
+        Timestamp timestamp = rs.getTimestamp(index);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    LocalDateTime fromEpochMillis(long millis) {
+        ZoneOffset offset = fixedOffset != null ? fixedOffset : zoneRules.getOffset(Instant.ofEpochMilli(millis));
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, offset);
+    }
+
+    /**
+     * {@code yyyy-MM-dd HH:mm:ss[.f…]} (или с {@code T}) без форматтеров; null, если не подходит.
+     */
+    static LocalDateTime parseText(String text) {
+        int length = text.length();
+        if (length < 19 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || (text.charAt(10) != ' ' && text.charAt(10) != 'T')
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        int hour = digits(text, 11, 13);
+        int minute = digits(text, 14, 16);
+        int second = digits(text, 17, 19);
+        int nanos = 0;
+        if (length > 19) {
+            if (text.charAt(19) != '.' || length == 20 || length > 29) {
+                return null;
+            }
+            int fraction = digits(text, 20, length);
+            if (fraction < 0) {
+                return null;
+            }
+            nanos = fraction;
+            for (int i = length; i < 29; i++) {
+                nanos *= 10;
+            }
+        }
+        if ((year | month | day | hour | minute | second) < 0) {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second, nanos);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    // -1, если в диапазоне не только цифры
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
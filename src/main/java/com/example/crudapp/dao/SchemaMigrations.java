@@ -0,0 +1,152 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Миграции схемы приложения. Новые шаги добавляются в конец списка
+ * со следующим номером версии; применённые шаги не меняются.
+ */
+public final class SchemaMigrations {
+
+    private SchemaMigrations() {}
+
+    public static List<Migration> all() {
+        return Arrays.asList(
+                // Исходная схема; на старых базах без schema_version ничего не меняет
+                Migration.of(1, "Таблица products",
+                        "CREATE TABLE IF NOT EXISTS products (" +
+                                "id TEXT PRIMARY KEY, " +
+                                "name VARCHAR(50) NOT NULL, " +
+                                "description TEXT, " +
+                                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                                ")",
+                        "CREATE TRIGGER IF NOT EXISTS update_product_timestamp " +
+                                "AFTER UPDATE ON products " +
+                                "BEGIN " +
+                                "UPDATE products SET updated_at = CURRENT_TIMESTAMP WHERE id = NEW.id; " +
+                                "END;"),
+
+                // Сортировка списка и ключ ProductDAO.findPage: обход индекса вместо сортировки таблицы.
+                // Индекс не покрывающий: остальные столбцы SELECT * читаются из таблицы по rowid
+                Migration.of(2, "Индекс products(created_at, id)",
+                        "CREATE INDEX IF NOT EXISTS idx_products_created_at_id ON products (created_at, id)"),
+
+
+                new DropTimestampTrigger(),
+
+                // Полнотекстовый индекс по названию и описанию. Внешнее содержимое: текст
+                // хранится только в products, индекс синхронизируют триггеры по rowid
+                Migration.of(4, "Полнотекстовый индекс products_fts (FTS5)",
+                        "CREATE VIRTUAL TABLE IF NOT EXISTS products_fts USING fts5(" +
+                                "name, description, content='products', content_rowid='rowid', " +
+                                "tokenize='unicode61 remove_diacritics 2')",
+                        "CREATE TRIGGER IF NOT EXISTS products_fts_insert AFTER INSERT ON products BEGIN " +
+                                "INSERT INTO products_fts (rowid, name, description) " +
+                                "VALUES (NEW.rowid, NEW.name, NEW.description); " +
+                                "END;",
+                        "CREATE TRIGGER IF NOT EXISTS products_fts_delete AFTER DELETE ON products BEGIN " +
+                                "INSERT INTO products_fts (products_fts, rowid, name, description) " +
+                                "VALUES ('delete', OLD.rowid, OLD.name, OLD.description); " +
+                                "END;",
+                        "CREATE TRIGGER IF NOT EXISTS products_fts_update " +
+                                "AFTER UPDATE OF name, description ON products " +
+                                "WHEN OLD.name IS NOT NEW.name OR OLD.description IS NOT NEW.description BEGIN " +
+                                "INSERT INTO products_fts (products_fts, rowid, name, description) " +
+                                "VALUES ('delete', OLD.rowid, OLD.name, OLD.description); " +
+                                "INSERT INTO products_fts (rowid, name, description) " +
+                                "VALUES (NEW.rowid, NEW.name, NEW.description); " +
+                                "END;",
+                        "INSERT INTO products_fts (products_fts) VALUES ('rebuild')"),
+
+                // Параметры хранения (см. StorageSettings); существующие базы хранят id строками
+                Migration.of(5, "Таблица schema_settings",
+                        "CREATE TABLE IF NOT EXISTS schema_settings (" +
+                                "key TEXT PRIMARY KEY, " +
+                                "value TEXT NOT NULL" +
+                                ")",
+                        "INSERT OR IGNORE INTO schema_settings (key, value) VALUES ('id_format', 'text')"),
+
+                // Формат времени (см. TimestampFormat); существующие базы остаются в прежнем
+                Migration.of(6, "Формат времени в schema_settings",
+                        "INSERT OR IGNORE INTO schema_settings (key, value) VALUES ('timestamp_format', 'timestamp')"),
+
+                // Без INTEGER PRIMARY KEY rowid строк не постоянен: VACUUM может перенумеровать
+                // их, и products_fts (v4) перестанет совпадать с таблицей. Таблица пересоздаётся
+                // со столбцом seq — псевдонимом rowid с прежними значениями, индекс ключуется по нему
+                Migration.of(7, "Столбец products.seq (INTEGER PRIMARY KEY) для products_fts",
+                        "DROP TABLE IF EXISTS products_fts",
+                        "CREATE TABLE products_new (" +
+                                "seq INTEGER PRIMARY KEY, " +
+                                "id TEXT NOT NULL UNIQUE, " +
+                                "name VARCHAR(50) NOT NULL, " +
+                                "description TEXT, " +
+                                "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP" +
+                                ")",
+                        "INSERT INTO products_new (seq, id, name, description, created_at, updated_at) " +
+                                "SELECT rowid, id, name, description, created_at, updated_at FROM products",
+                        // Вместе с таблицей удаляются её индексы и триггеры products_fts_*
+                        "DROP TABLE products",
+                        "ALTER TABLE products_new RENAME TO products",
+                        "CREATE INDEX idx_products_created_at_id ON products (created_at, id)",
+                        "CREATE VIRTUAL TABLE products_fts USING fts5(" +
+                                "name, description, content='products', content_rowid='seq', " +
+                                "tokenize='unicode61 remove_diacritics 2')",
+                        "CREATE TRIGGER products_fts_insert AFTER INSERT ON products BEGIN " +
+                                "INSERT INTO products_fts (rowid, name, description) " +
+                                "VALUES (NEW.seq, NEW.name, NEW.description); " +
+                                "END;",
+                        "CREATE TRIGGER products_fts_delete AFTER DELETE ON products BEGIN " +
+                                "INSERT INTO products_fts (products_fts, rowid, name, description) " +
+                                "VALUES ('delete', OLD.seq, OLD.name, OLD.description); " +
+                                "END;",
+                        "CREATE TRIGGER products_fts_update " +
+                                "AFTER UPDATE OF name, description ON products " +
+                                "WHEN OLD.name IS NOT NEW.name OR OLD.description IS NOT NEW.description BEGIN " +
+                                "INSERT INTO products_fts (products_fts, rowid, name, description) " +
+                                "VALUES ('delete', OLD.seq, OLD.name, OLD.description); " +
+                                "INSERT INTO products_fts (rowid, name, description) " +
+                                "VALUES (NEW.seq, NEW.name, NEW.description); " +
+                                "END;",
+                        "INSERT INTO products_fts (products_fts) VALUES ('rebuild')")
+        );
+    }
+
+    /**
+     * Триггер update_product_timestamp после каждого UPDATE выполнял второй UPDATE той же
+     * строки, хотя ProductDAO.update/updateAll и так записывают updated_at. Теперь
+     * updated_at ведёт только DAO, и каждое изменение записывает строку один раз.
+     */
+    static final class DropTimestampTrigger implements Migration {
+        static final String TRIGGER_NAME = "update_product_timestamp";
+
+        @Override
+        public int getVersion() {
+            return 3;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Удаление триггера " + TRIGGER_NAME;
+        }
+
+        @Override
+        public void apply(Connection conn) throws SQLException {
+            try (Statement stmt = conn.createStatement()) {
+                try (ResultSet rs = stmt.executeQuery("SELECT sql FROM sqlite_master " +
+                        "WHERE type = 'trigger' AND name = '" + TRIGGER_NAME + "'")) {
+                    if (rs.next()) {
+                        System.out.println("Удаляется триггер: " + rs.getString(1));
+                    }
+                }
+                stmt.execute("DROP TRIGGER IF EXISTS " + TRIGGER_NAME);
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Применяет недостающие миграции и записывает их версии в таблицу {@code schema_version}.
+ */
+public class SchemaMigrator {
+
+    private static final String CREATE_VERSION_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INTEGER PRIMARY KEY, " +
+            "description TEXT NOT NULL, " +
+            "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+            "duration_ms INTEGER NOT NULL" +
+            ")";
+    private static final String CURRENT_VERSION_SQL = "SELECT COALESCE(MAX(version), 0) FROM schema_version";
+    private static final String RECORD_VERSION_SQL =
+            "INSERT INTO schema_version (version, description, duration_ms) VALUES (?, ?, ?)";
+
+    private final List<Migration> migrations;
+
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort(Comparator.comparingInt(Migration::getVersion));
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getVersion() == sorted.get(i - 1).getVersion()) {
+                throw new IllegalArgumentException("Повторяющаяся версия миграции: " + sorted.get(i).getVersion());
+            }
+        }
+        this.migrations = Collections.unmodifiableList(sorted);
+    }
+
+    public int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE_SQL);
+            try (ResultSet rs = stmt.executeQuery(CURRENT_VERSION_SQL)) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Применяет все миграции новее текущей версии схемы.
+     *
+     * @return отчёт о применённых миграциях с длительностью каждой (пустой, если схема актуальна)
+     * @throws SQLException если миграция не удалась; её изменения откатываются, последующие не применяются
+     */
+    public List<MigrationResult> migrate(Connection conn) throws SQLException {
+        int current = currentVersion(conn);
+        List<MigrationResult> applied = new ArrayList<>();
+        boolean autoCommit = conn.getAutoCommit();
+
+        try {
+            for (Migration migration : migrations) {
+                if (migration.getVersion() <= current) {
+                    continue;
+                }
+                long start = System.nanoTime();
+                conn.setAutoCommit(false);
+                try {
+                    migration.apply(conn);
+                    long durationMillis = (System.nanoTime() - start) / 1_000_000;
+                    try (PreparedStatement pstmt = conn.prepareStatement(RECORD_VERSION_SQL)) {
+                        pstmt.setInt(1, migration.getVersion());
+                        pstmt.setString(2, migration.getDescription());
+                        pstmt.setLong(3, durationMillis);
+                        pstmt.executeUpdate();
+                    }
+                    conn.commit();
+                    applied.add(new MigrationResult(migration.getVersion(), migration.getDescription(), durationMillis));
+                } catch (SQLException | RuntimeException e) {
+                    conn.rollback();
+                    throw new SQLException("Миграция v" + migration.getVersion() + " (" +
+                            migration.getDescription() + ") не применена: " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+
+        return applied;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.crudapp.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Позиция в ранжированных результатах полнотекстового поиска.
+ *
+ * <p>Ранг вычисляется при каждом запросе, поэтому продолжение задаётся смещением.
+ * Токен привязан к тексту запроса: токен от другого запроса отклоняется.</p>
+ */
+public final class SearchCursor {
+
+    private static final String VERSION = "s1";
+
+    private final int offset;
+    private final int queryHash;
+
+    private SearchCursor(int offset, int queryHash) {
+        this.offset = offset;
+        this.queryHash = queryHash;
+    }
+
+    public static SearchCursor at(String query, int offset) {
+        return new SearchCursor(offset, query.hashCode());
+    }
+
+    public int getOffset() { return offset; }
+
+    public String encode() {
+        String raw = VERSION + ":" + offset + ":" + Integer.toHexString(queryHash);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException если токен повреждён или выдан для другого запроса
+     */
+    public static SearchCursor decode(String token, String query) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный токен поиска", e);
+        }
+        if (parts.length != 3 || !VERSION.equals(parts[0])
+                || !Integer.toHexString(query.hashCode()).equals(parts[2])) {
+            throw new IllegalArgumentException("Некорректный токен поиска");
+        }
+        try {
+            int offset = Integer.parseInt(parts[1]);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Некорректный токен поиска");
+            }
+            return new SearchCursor(offset, query.hashCode());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректный токен поиска", e);
+        }
+    }
+}
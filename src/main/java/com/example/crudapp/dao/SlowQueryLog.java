@@ -0,0 +1,425 @@
+package com.example.crudapp.dao;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.regex.Pattern;
+
+/**
+ * Журнал медленных запросов.
+ *
+ * <p>Пул оборачивает каждое выражение (см. {@link ConnectionPool#setSlowQueryLog}),
+ * обёртка запоминает параметры и замеряет время выполнения вместе с чтением строк
+ * ({@code ResultSet.next()}), но без времени обработки строк вызывающим кодом.
+ * Запрос дольше порога записывается с SQL, параметрами, временем и числом строк;
+ * при первом превышении для каждого вида запроса к записи добавляется
+ * {@code EXPLAIN QUERY PLAN} с теми же параметрами.</p>
+ *
+ * <p>Журнал пишется в файлы {@code <имя>.0.<расширение>}, {@code <имя>.1...} по кругу:
+ * при достижении {@code maxBytes} текущий файл становится {@code .1} и т.д.</p>
+ *
+ * <p>По умолчанию журнал выключен и включается порогом {@value #THRESHOLD_PROPERTY}:
+ * обёртки — рефлексивные {@link Proxy}, и каждый вызов выражения и ResultSet, включая
+ * геттеры при разборе строк, идёт через {@code Method.invoke}. Чтение страницы из 100
+ * строк с журналом заметно медленнее (см. {@code InstrumentationBenchmark}), поэтому
+ * журнал — средство диагностики, а не постоянный режим.</p>
+ */
+public class SlowQueryLog implements AutoCloseable {
+
+    /**
+     * Что скрывать в параметрах: строки (их длина остаётся) или все значения.
+     */
+    public enum Redaction { NONE, STRINGS, ALL }
+
+    public static final String THRESHOLD_PROPERTY = "crudapp.slowQuery.thresholdMs";
+    public static final String FILE_PROPERTY = "crudapp.slowQuery.file";
+    public static final String REDACT_PROPERTY = "crudapp.slowQuery.redact";
+    public static final String MAX_BYTES_PROPERTY = "crudapp.slowQuery.maxBytes";
+    public static final String FILES_PROPERTY = "crudapp.slowQuery.files";
+
+    // Отрицательный порог — журнал выключен
+    public static final long DEFAULT_THRESHOLD_MILLIS = -1;
+    public static final String DEFAULT_FILE = "logs/slow-queries.log";
+    public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+    public static final int DEFAULT_FILES = 5;
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    private final long thresholdNanos;
+    private final Redaction redaction;
+    private final FileHandler handler;
+    private final Set<String> explainedShapes = ConcurrentHashMap.newKeySet();
+    private final AtomicLong slowCount = new AtomicLong();
+
+    public SlowQueryLog(Path file, long thresholdMillis, Redaction redaction, int maxBytes, int files)
+            throws IOException {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.redaction = redaction;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.handler = new FileHandler(pattern(file), maxBytes, Math.max(files, 1), true);
+        handler.setEncoding("UTF-8");
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage();
+            }
+        });
+    }
+
+    /**
+     * Журнал с настройками из системных свойств ({@value #THRESHOLD_PROPERTY} и др.)
+     * или null, если порог не задан или отрицательный.
+     */
+    public static SlowQueryLog fromSystemProperties() throws IOException {
+        long threshold = Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS);
+        if (threshold < 0) {
+            return null;
+        }
+        Redaction redaction = Redaction.valueOf(
+                System.getProperty(REDACT_PROPERTY, "strings").trim().toUpperCase(Locale.ROOT));
+        return new SlowQueryLog(Paths.get(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)), threshold, redaction,
+                Integer.getInteger(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES),
+                Integer.getInteger(FILES_PROPERTY, DEFAULT_FILES));
+    }
+
+    // slow-queries.log -> slow-queries.%g.log; % в самом пути экранируется
+    private static String pattern(Path file) {
+        String path = file.toString().replace("%", "%%");
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot <= 0) {
+            return path + ".%g";
+        }
+        int cut = path.length() - (name.length() - dot);
+        return path.substring(0, cut) + ".%g" + path.substring(cut);
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    public long getSlowQueryCount() {
+        return slowCount.get();
+    }
+
+    // ---- обёртки выражений ----
+
+    PreparedStatement wrap(PreparedStatement statement, String sql, Connection physical) {
+        return (PreparedStatement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new StatementHandler(statement, sql, physical));
+    }
+
+    Statement wrap(Statement statement, Connection physical) {
+        return (Statement) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                new Class<?>[]{Statement.class}, new StatementHandler(statement, null, physical));
+    }
+
+    /**
+     * Одно выражение: параметры текущего выполнения и накопленное время.
+     */
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+        private final String preparedSql;
+        private final Connection physical;
+        private final Map<Integer, Object> parameters = new HashMap<>();
+        private String sql;
+        private long nanos;
+        private long rows;
+        private int batchSize;
+        private boolean running;
+
+        StatementHandler(Statement statement, String preparedSql, Connection physical) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+            this.physical = physical;
+            this.sql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "clearParameters":
+                    parameters.clear();
+                    break;
+                case "addBatch":
+                    batchSize++;
+                    break;
+                case "close":
+                    finish();
+                    break;
+                case "setNull":
+                    // Второй аргумент — тип SQL (Types.TIMESTAMP = 93), а не значение
+                    parameters.put((Integer) args[0], null);
+                    break;
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        parameters.put((Integer) args[0], args[1]);
+                    }
+                    break;
+            }
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            if ("getResultSet".equals(name)) {
+                ResultSet rs = (ResultSet) call(method, args);
+                return rs != null ? wrapResultSet(rs) : null;
+            }
+            return call(method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish();
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                sql = (String) args[0];
+            } else {
+                sql = preparedSql;
+            }
+            running = true;
+            rows = -1;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+            if (result instanceof ResultSet) {
+                rows = 0;
+                return wrapResultSet((ResultSet) result);
+            }
+            if (result instanceof int[]) {
+                rows = 0;
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof Integer || result instanceof Long) {
+                rows = ((Number) result).longValue();
+            }
+            // execute() с результатом: строки будут прочитаны через getResultSet
+            if (!(result instanceof Boolean && (Boolean) result)) {
+                finish();
+            }
+            return result;
+        }
+
+        private ResultSet wrapResultSet(ResultSet rs) {
+            if (rows < 0) {
+                rows = 0;
+            }
+            return (ResultSet) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next": {
+                                long start = System.nanoTime();
+                                boolean hasRow;
+                                try {
+                                    hasRow = (Boolean) invokeOn(rs, method, args);
+                                } finally {
+                                    nanos += System.nanoTime() - start;
+                                }
+                                if (hasRow) {
+                                    rows++;
+                                } else {
+                                    finish();
+                                }
+                                return hasRow;
+                            }
+                            case "close":
+                                finish();
+                                return invokeOn(rs, method, args);
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return invokeOn(rs, method, args);
+                        }
+                    });
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            return invokeOn(statement, method, args);
+        }
+
+        // Завершение выполнения: закрыт ResultSet, прочитана последняя строка или закрыто выражение
+        private void finish() {
+            if (!running) {
+                return;
+            }
+            running = false;
+            long elapsed = nanos;
+            nanos = 0;
+            int batch = batchSize;
+            batchSize = 0;
+            if (elapsed >= thresholdNanos && sql != null) {
+                record(sql, new HashMap<>(parameters), elapsed, rows, batch, physical);
+            }
+        }
+    }
+
+    private static Object invokeOn(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ---- запись ----
+
+    void record(String sql, Map<Integer, Object> parameters, long nanos, long rows, int batch,
+                Connection physical) {
+        slowCount.incrementAndGet();
+        StringBuilder entry = new StringBuilder();
+        entry.append(LocalDateTime.now().format(TIME))
+                .append(String.format(Locale.ROOT, "  %.1f мс", nanos / 1e6))
+                .append(", строк: ").append(rows >= 0 ? String.valueOf(rows) : "—");
+        if (batch > 0) {
+            entry.append(", пакет: ").append(batch);
+        }
+        entry.append(", поток: ").append(Thread.currentThread().getName()).append('\n');
+        entry.append("  SQL: ").append(displaySql(sql)).append('\n');
+        if (!parameters.isEmpty()) {
+            entry.append("  Параметры: ").append(formatParameters(parameters));
+            if (batch > 1) {
+                entry.append(" (последняя строка пакета)");
+            }
+            entry.append('\n');
+        }
+        if (explainedShapes.add(shapeOf(sql)) && isExplainable(sql)) {
+            entry.append("  План (первое превышение для этого запроса):\n");
+            try {
+                for (String line : explain(physical, sql, parameters)) {
+                    entry.append("    ").append(line).append('\n');
+                }
+            } catch (SQLException e) {
+                entry.append("    не удалось получить план: ").append(e.getMessage()).append('\n');
+            }
+        }
+        handler.publish(new LogRecord(Level.WARNING, entry.toString()));
+        handler.flush();
+    }
+
+    private String displaySql(String sql) {
+        String oneLine = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return redaction == Redaction.NONE ? oneLine : STRING_LITERAL.matcher(oneLine).replaceAll("'?'");
+    }
+
+    // Вид запроса: без литералов и лишних пробелов, чтобы план снимался один раз на вид
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        return NUMBER_LITERAL.matcher(shape).replaceAll("?").toUpperCase(Locale.ROOT);
+    }
+
+    private static boolean isExplainable(String sql) {
+        String head = sql.trim().toUpperCase(Locale.ROOT);
+        return head.startsWith("SELECT") || head.startsWith("WITH") || head.startsWith("INSERT")
+                || head.startsWith("UPDATE") || head.startsWith("DELETE") || head.startsWith("REPLACE");
+    }
+
+    String formatParameters(Map<Integer, Object> parameters) {
+        List<Integer> indexes = new ArrayList<>(parameters.keySet());
+        indexes.sort(null);
+        List<String> values = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            values.add(formatValue(parameters.get(index)));
+        }
+        return values.toString();
+    }
+
+    private String formatValue(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (redaction == Redaction.ALL) {
+            return "?";
+        }
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            return redaction == Redaction.STRINGS ? "?(BLOB, " + bytes.length + " байт)" : "x'" + hex(bytes) + "'";
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            return redaction == Redaction.STRINGS
+                    ? "?(текст, " + text.length() + " симв.)"
+                    : "'" + text.replace("'", "''") + "'";
+        }
+        return String.valueOf(value);
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * План запроса деревом: каждая строка EXPLAIN QUERY PLAN с отступом по вложенности.
+     */
+    static List<String> explain(Connection physical, String sql, Map<Integer, Object> parameters)
+            throws SQLException {
+        Map<Integer, Integer> depth = new HashMap<>();
+        List<String> lines = new ArrayList<>();
+        try (PreparedStatement pstmt = physical.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                pstmt.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    int level = depth.getOrDefault(rs.getInt("parent"), -1) + 1;
+                    depth.put(id, level);
+                    char[] indent = new char[level * 2];
+                    Arrays.fill(indent, ' ');
+                    lines.add(new String(indent) + rs.getString("detail"));
+                }
+            }
+        }
+        return lines;
+    }
+
+    @Override
+    public void close() {
+        handler.close();
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Набор PRAGMA для нового соединения. Все профили включают журнал WAL: читатели
+ * не ждут писателя, а писатель не ждёт завершения чтений. Профили различаются тем,
+ * чем платят за скорость записи.
+ *
+ * <ul>
+ *     <li>{@link #DURABLE} — {@code synchronous=FULL}: подтверждённая транзакция
+ *     переживает и падение приложения, и отключение питания; без mmap.</li>
+ *     <li>{@link #BALANCED} — {@code synchronous=NORMAL}: fsync только при контрольной
+ *     точке WAL. Падение приложения ничего не теряет, отключение питания может
+ *     откатить последние транзакции, но не повредить базу.</li>
+ *     <li>{@link #THROUGHPUT} — {@code synchronous=OFF}: fsync не выполняется вовсе;
+ *     при сбое ОС или питания база может быть повреждена. Для загрузки данных,
+ *     которые можно повторить.</li>
+ * </ul>
+ */
+public enum StorageProfile implements ConnectionInitializer {
+
+    DURABLE("FULL", 0, 16 * 1024, "DEFAULT", 5_000, 1000),
+    BALANCED("NORMAL", 256L * 1024 * 1024, 32 * 1024, "MEMORY", 5_000, 1000),
+    THROUGHPUT("OFF", 1024L * 1024 * 1024, 64 * 1024, "MEMORY", 10_000, 10_000);
+
+    /**
+     * Системное свойство с именем профиля; по умолчанию {@link #BALANCED}.
+     */
+    public static final String PROPERTY = "crudapp.storage.profile";
+
+    // После контрольной точки WAL-файл обрезается до этого размера, а не остаётся максимальным
+    private static final long JOURNAL_SIZE_LIMIT = 64L * 1024 * 1024;
+
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSizeKib;
+    private final String tempStore;
+    private final int busyTimeoutMillis;
+    private final int walAutocheckpointPages;
+
+    StorageProfile(String synchronous, long mmapSize, int cacheSizeKib, String tempStore,
+                   int busyTimeoutMillis, int walAutocheckpointPages) {
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSizeKib = cacheSizeKib;
+        this.tempStore = tempStore;
+        this.busyTimeoutMillis = busyTimeoutMillis;
+        this.walAutocheckpointPages = walAutocheckpointPages;
+    }
+
+    @Override
+    public void initialize(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA foreign_keys = ON");
+            // busy_timeout первым: смена режима журнала сама может упереться в блокировку
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = WAL")) {
+                rs.next();
+            }
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            try (ResultSet rs = stmt.executeQuery("PRAGMA mmap_size = " + mmapSize)) {
+                rs.next();
+            }
+            // Отрицательное значение — размер в КиБ, а не в страницах
+            stmt.execute("PRAGMA cache_size = -" + cacheSizeKib);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+            try (ResultSet rs = stmt.executeQuery("PRAGMA wal_autocheckpoint = " + walAutocheckpointPages)) {
+                rs.next();
+            }
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_size_limit = " + JOURNAL_SIZE_LIMIT)) {
+                rs.next();
+            }
+        }
+    }
+
+    public String getSynchronous() { return synchronous; }
+    public long getMmapSize() { return mmapSize; }
+    public int getCacheSizeKib() { return cacheSizeKib; }
+    public String getTempStore() { return tempStore; }
+    public int getBusyTimeoutMillis() { return busyTimeoutMillis; }
+    public int getWalAutocheckpointPages() { return walAutocheckpointPages; }
+
+    /**
+     * @throws IllegalArgumentException если профиль неизвестен
+     */
+    public static StorageProfile parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Неизвестный профиль хранения: " + name
+                    + " (durable, balanced или throughput)");
+        }
+    }
+
+    /**
+     * Профиль из {@link #PROPERTY} или {@link #BALANCED}, если свойство не задано.
+     */
+    public static StorageProfile configured() {
+        String value = System.getProperty(PROPERTY);
+        return value == null || value.trim().isEmpty() ? BALANCED : parse(value);
+    }
+}
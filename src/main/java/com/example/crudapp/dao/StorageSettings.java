@@ -0,0 +1,200 @@
+package com.example.crudapp.dao;
+
+import com.example.crudapp.model.Product;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Параметры хранения, записанные в самой базе (таблица {@code schema_settings}),
+ * перевод id между форматами {@link IdFormat} и времени в {@link TimestampFormat}.
+ */
+public final class StorageSettings {
+
+    public static final String ID_FORMAT_KEY = "id_format";
+    public static final String TIMESTAMP_FORMAT_KEY = "timestamp_format";
+
+    // Строк за один проход перевода времени: прочитанное держится в памяти до записи
+    private static final int TIMESTAMP_CHUNK = 10_000;
+
+    private static final String SELECT_SQL = "SELECT value FROM schema_settings WHERE key = ?";
+    private static final String UPSERT_SQL = "INSERT OR REPLACE INTO schema_settings (key, value) VALUES (?, ?)";
+    private static final String SPACE_USAGE_SQL =
+            "SELECT name, SUM(pgsize) AS bytes FROM dbstat GROUP BY name ORDER BY bytes DESC";
+
+    private StorageSettings() {}
+
+    /**
+     * @return значение или null, если параметр не записан или таблицы ещё нет
+     */
+    public static String get(Connection conn, String key) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'schema_settings'");
+             ResultSet rs = pstmt.executeQuery()) {
+            if (!rs.next()) {
+                return null;
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SELECT_SQL)) {
+            pstmt.setString(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    public static void put(Connection conn, String key, String value) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(UPSERT_SQL)) {
+            pstmt.setString(1, key);
+            pstmt.setString(2, value);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Формат id в этой базе; базы без записи о формате хранят id строками.
+     */
+    public static IdFormat readIdFormat(Connection conn) throws SQLException {
+        String value = get(conn, ID_FORMAT_KEY);
+        return value != null ? IdFormat.parse(value) : IdFormat.TEXT;
+    }
+
+    /**
+     * Переводит все id таблицы products в формат {@code target} одной транзакцией
+     * и перестраивает её индексы. seq строк не меняется, поэтому полнотекстовый
+     * индекс остаётся согласованным. VACUUM не выполняется: освободившиеся
+     * страницы займут следующие вставки.
+     *
+     * @return число переведённых строк (0, если база уже в этом формате)
+     */
+    public static int convertIds(Connection conn, IdFormat target) throws SQLException {
+        if (readIdFormat(conn) == target) {
+            return 0;
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            int converted = stmt.executeUpdate("UPDATE products SET id = " + target.fromOtherSql("id") +
+                    " WHERE typeof(id) <> '" + target.sqliteType() + "'");
+            stmt.execute("REINDEX products");
+            put(conn, ID_FORMAT_KEY, target.getSettingValue());
+            conn.commit();
+            return converted;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Формат времени в этой базе; базы без записи о формате — {@link TimestampFormat#TIMESTAMP}.
+     */
+    public static TimestampFormat readTimestampFormat(Connection conn) throws SQLException {
+        String value = get(conn, TIMESTAMP_FORMAT_KEY);
+        return value != null ? TimestampFormat.parse(value) : TimestampFormat.TIMESTAMP;
+    }
+
+    /**
+     * Переводит created_at и updated_at в формат {@code target} одной транзакцией.
+     *
+     * <p>Для {@link TimestampFormat#EPOCH_MILLIS} каждое нецелое значение читается так
+     * же, как его читало приложение (текст — местное время), и записывается
+     * миллисекундами эпохи; строки обходятся по seq частями по {@value #TIMESTAMP_CHUNK}.
+     * seq не меняются, полнотекстовый индекс не затрагивается, индексы таблицы
+     * после перевода перестраиваются. Объявленный тип столбцов
+     * (TIMESTAMP, числовое сродство) остаётся: целые значения SQLite так и хранит,
+     * а смена типа потребовала бы пересоздать таблицу. Обратный перевод в
+     * {@link TimestampFormat#TIMESTAMP} только меняет запись о формате: прежний путь
+     * чтения понимает и числа.</p>
+     *
+     * @return число переведённых строк (0, если база уже в этом формате)
+     */
+    public static int convertTimestamps(Connection conn, TimestampFormat target) throws SQLException {
+        if (readTimestampFormat(conn) == target) {
+            return 0;
+        }
+        IdFormat idFormat = readIdFormat(conn);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            int converted = 0;
+            if (target == TimestampFormat.EPOCH_MILLIS) {
+                converted = convertToEpochMillis(conn, idFormat);
+                if (converted > 0) {
+                    // Индекс по created_at после построчной замены ключей наполовину пуст
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("REINDEX products");
+                    }
+                }
+            }
+            put(conn, TIMESTAMP_FORMAT_KEY, target.getSettingValue());
+            conn.commit();
+            return converted;
+        } catch (SQLException | RuntimeException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static int convertToEpochMillis(Connection conn, IdFormat idFormat) throws SQLException {
+        int converted = 0;
+        long lastSeq = Long.MIN_VALUE;
+        long[] seqs = new long[TIMESTAMP_CHUNK];
+        Product[] products = new Product[TIMESTAMP_CHUNK];
+        try (PreparedStatement select = conn.prepareStatement(
+                "SELECT * FROM products WHERE seq > ? " +
+                        "AND (typeof(created_at) NOT IN ('integer', 'null') " +
+                        "OR typeof(updated_at) NOT IN ('integer', 'null')) " +
+                        "ORDER BY seq LIMIT " + TIMESTAMP_CHUNK);
+             PreparedStatement update = conn.prepareStatement(
+                     "UPDATE products SET created_at = ?, updated_at = ? WHERE seq = ?")) {
+            while (true) {
+                int count = 0;
+                select.setLong(1, lastSeq);
+                try (ResultSet rs = select.executeQuery()) {
+                    ProductMapper mapper = new ProductMapper(rs, idFormat, TimestampFormat.TIMESTAMP);
+                    while (rs.next()) {
+                        seqs[count] = rs.getLong("seq");
+                        products[count] = mapper.map(rs);
+                        count++;
+                    }
+                }
+                if (count == 0) {
+                    return converted;
+                }
+                for (int i = 0; i < count; i++) {
+                    TimestampFormat.EPOCH_MILLIS.bind(update, 1, products[i].getCreatedAt());
+                    TimestampFormat.EPOCH_MILLIS.bind(update, 2, products[i].getUpdatedAt());
+                    update.setLong(3, seqs[i]);
+                    update.addBatch();
+                }
+                update.executeBatch();
+                converted += count;
+                lastSeq = seqs[count - 1];
+            }
+        }
+    }
+
+    /**
+     * Сколько байт занимает каждая таблица и индекс (по страницам, без свободных).
+     */
+    public static Map<String, Long> spaceUsage(Connection conn) throws SQLException {
+        Map<String, Long> usage = new LinkedHashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(SPACE_USAGE_SQL)) {
+            while (rs.next()) {
+                usage.put(rs.getString("name"), rs.getLong("bytes"));
+            }
+        }
+        return usage;
+    }
+}
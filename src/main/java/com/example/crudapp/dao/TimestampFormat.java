@@ -0,0 +1,112 @@
+package com.example.crudapp.dao;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * Формат хранения {@code created_at} и {@code updated_at}.
+ *
+ * <p>{@code TIMESTAMP} — прежний: значения передаются через {@link Timestamp}, а строки,
+ * записанные удалённым триггером или DEFAULT CURRENT_TIMESTAMP, остаются текстом
+ * {@code yyyy-MM-dd HH:mm:ss}, поэтому при чтении каждое значение проверяется и
+ * при необходимости разбирается как строка. В смешанном столбце SQLite сравнивает
+ * любое число меньше любого текста, так что порядок сортировки и ключи страниц
+ * между такими строками неверны.</p>
+ *
+ * <p>{@code EPOCH_MILLIS} — все значения INTEGER, миллисекунды эпохи (в том же
+ * смысле, что {@link Timestamp#getTime()} для местного времени): запись передаёт
+ * long, чтение — один {@code getLong} без разбора строк. Перевод базы —
+ * {@link StorageSettings#convertTimestamps}.</p>
+ */
+public enum TimestampFormat {
+
+    TIMESTAMP("timestamp") {
+        @Override
+        public void bind(PreparedStatement pstmt, int index, LocalDateTime time) throws SQLException {
+            if (time == null) {
+                pstmt.setNull(index, Types.TIMESTAMP);
+            } else {
+                pstmt.setTimestamp(index, Timestamp.valueOf(time));
+            }
+        }
+
+        @Override
+        public void bindMillis(PreparedStatement pstmt, int index, long millis) throws SQLException {
+            pstmt.setTimestamp(index, new Timestamp(millis));
+        }
+    },
+
+    EPOCH_MILLIS("epoch_millis") {
+        @Override
+        public void bind(PreparedStatement pstmt, int index, LocalDateTime time) throws SQLException {
+            if (time == null) {
+                pstmt.setNull(index, Types.INTEGER);
+            } else {
+                pstmt.setLong(index, toEpochMillis(time));
+            }
+        }
+
+        @Override
+        public void bindMillis(PreparedStatement pstmt, int index, long millis) throws SQLException {
+            pstmt.setLong(index, millis);
+        }
+    };
+
+    /**
+     * Системное свойство с желаемым форматом ({@code timestamp} или {@code epoch_millis}).
+     * Если оно не задано, база остаётся в том формате, в котором создана.
+     */
+    public static final String PROPERTY = "crudapp.storage.timestampFormat";
+
+    private final String settingValue;
+
+    TimestampFormat(String settingValue) {
+        this.settingValue = settingValue;
+    }
+
+    public abstract void bind(PreparedStatement pstmt, int index, LocalDateTime time) throws SQLException;
+
+    /**
+     * Передаёт время, уже переведённое в миллисекунды эпохи (ключ страницы, «сейчас»).
+     */
+    public abstract void bindMillis(PreparedStatement pstmt, int index, long millis) throws SQLException;
+
+    public String getSettingValue() {
+        return settingValue;
+    }
+
+    /**
+     * Местное время в миллисекунды эпохи по текущему часовому поясу JVM, как
+     * {@code Timestamp.valueOf(time).getTime()}, но без промежуточного объекта.
+     */
+    public static long toEpochMillis(LocalDateTime time) {
+        long seconds = time.toEpochSecond(ZoneId.systemDefault().getRules().getOffset(time));
+        return seconds * 1000L + time.getNano() / 1_000_000;
+    }
+
+    /**
+     * @throws IllegalArgumentException если формат неизвестен
+     */
+    public static TimestampFormat parse(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (TimestampFormat format : values()) {
+            if (format.settingValue.equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестный формат времени: " + value);
+    }
+
+    /**
+     * Формат из {@link #PROPERTY} или null, если свойство не задано.
+     */
+    public static TimestampFormat configured() {
+        String value = System.getProperty(PROPERTY);
+        return value == null || value.trim().isEmpty() ? null : parse(value);
+    }
+}
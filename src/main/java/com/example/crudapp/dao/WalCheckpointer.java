@@ -0,0 +1,136 @@
+package com.example.crudapp.dao;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Периодическая контрольная точка WAL в фоновом потоке.
+ *
+ * <p>Автоматическая контрольная точка SQLite выполняется в потоке, завершившем
+ * транзакцию, и только в режиме PASSIVE: пока открыто хотя бы одно чтение, она не
+ * может дойти до конца WAL, и при непрерывной записи файл растёт без ограничений.
+ * Здесь каждые {@code intervalMillis} выполняется PASSIVE, а если в WAL осталось
+ * больше {@code truncateThresholdPages} страниц — TRUNCATE, которая обнуляет WAL-файл.</p>
+ *
+ * <p>Пока TRUNCATE ждёт читателей, она держит блокировку записи, и новые писатели
+ * стоят. Поэтому она запускается, только если PASSIVE перенесла весь WAL (читателей
+ * старых снимков нет), и на собственном соединении с коротким busy_timeout
+ * ({@value #TRUNCATE_BUSY_TIMEOUT_MILLIS} мс), а не на соединении писателя: долгое
+ * чтение (экспорт, {@code ProductDAO.forEach}) откладывает её до следующей проверки
+ * вместо того, чтобы останавливать запись на секунды.</p>
+ */
+public class WalCheckpointer implements AutoCloseable {
+
+    public static final long DEFAULT_INTERVAL_MILLIS = 30_000;
+    public static final int DEFAULT_TRUNCATE_THRESHOLD_PAGES = 10_000;
+    public static final int TRUNCATE_BUSY_TIMEOUT_MILLIS = 100;
+
+    private final ConnectionPool pool;
+    private final int truncateThresholdPages;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong checkpointCount = new AtomicLong();
+    private final AtomicLong truncateCount = new AtomicLong();
+    private final AtomicLong busyCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private volatile int lastLogPages;
+
+    public WalCheckpointer(String url) {
+        this(url, DEFAULT_INTERVAL_MILLIS, DEFAULT_TRUNCATE_THRESHOLD_PAGES);
+    }
+
+    /**
+     * @param url база, для которой открывается отдельное соединение контрольных точек
+     * @param intervalMillis период проверки; 0 — без фонового потока, только {@link #checkpoint()}
+     */
+    public WalCheckpointer(String url, long intervalMillis, int truncateThresholdPages) {
+        // Одно соединение, закрывается по простою: между проверками оно не нужно
+        this.pool = new ConnectionPool(url, 1, Math.max(intervalMillis / 2, 1_000),
+                ConnectionPool.DEFAULT_ACQUIRE_TIMEOUT_MILLIS, connection -> {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute("PRAGMA busy_timeout = " + TRUNCATE_BUSY_TIMEOUT_MILLIS);
+                    }
+                });
+        this.truncateThresholdPages = truncateThresholdPages;
+        if (intervalMillis > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "sqlite-wal-checkpoint");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::runScheduled, intervalMillis, intervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    private void runScheduled() {
+        try {
+            checkpoint();
+        } catch (SQLException e) {
+            failureCount.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Выполняет контрольную точку сейчас.
+     *
+     * @return размер WAL в страницах после неё
+     */
+    public int checkpoint() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            int[] passive = run(conn, "PASSIVE");
+            int logPages = passive[0];
+            if (logPages > truncateThresholdPages) {
+                if (passive[1] < logPages) {
+                    // Читатель держит старый снимок: TRUNCATE ждала бы его, не пуская писателей
+                    busyCount.incrementAndGet();
+                } else {
+                    logPages = run(conn, "TRUNCATE")[0];
+                    truncateCount.incrementAndGet();
+                }
+            }
+            checkpointCount.incrementAndGet();
+            lastLogPages = logPages;
+            return logPages;
+        }
+    }
+
+    // wal_checkpoint возвращает (busy, страниц в WAL, из них перенесено в базу).
+    // WAL начинается заново, только когда перенесено всё и нет читателей старых снимков
+    private int[] run(Connection conn, String mode) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+            if (!rs.next()) {
+                return new int[]{0, 0};
+            }
+            if (rs.getInt(1) != 0) {
+                busyCount.incrementAndGet();
+            }
+            // -1: база не в режиме WAL
+            return new int[]{Math.max(rs.getInt(2), 0), Math.max(rs.getInt(3), 0)};
+        }
+    }
+
+    public long getCheckpointCount() { return checkpointCount.get(); }
+    public long getTruncateCount() { return truncateCount.get(); }
+    public long getBusyCount() { return busyCount.get(); }
+    public long getFailureCount() { return failureCount.get(); }
+    public int getLastLogPages() { return lastLogPages; }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        pool.close();
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.crudapp.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Реестр метрик операций. Имя операции — {@code слой.метод}, например {@code dao.findById}.
+ * После {@link #registerJmx()} каждая операция видна в JMX отдельным MXBean,
+ * а сам реестр — как {@code com.example.crudapp:type=Metrics} с командами dump и reset.
+ */
+public final class Metrics implements MetricsMXBean {
+
+    /**
+     * {@code -Dcrudapp.metrics.enabled=false} отключает обёртки с замерами.
+     */
+    public static final String ENABLED_PROPERTY = "crudapp.metrics.enabled";
+
+    private static final String DOMAIN = "com.example.crudapp";
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final ConcurrentMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private MBeanServer jmxServer;
+
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    public OperationMetrics operation(String name) {
+        OperationMetrics existing = operations.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (this) {
+            OperationMetrics metrics = operations.computeIfAbsent(name, OperationMetrics::new);
+            if (jmxServer != null) {
+                register(metrics);
+            }
+            return metrics;
+        }
+    }
+
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> list = new ArrayList<>(operations.values());
+        list.sort(Comparator.comparing(OperationMetrics::getName));
+        return list;
+    }
+
+    @Override
+    public int getOperationCount() {
+        return operations.size();
+    }
+
+    /**
+     * Регистрирует реестр и все операции, в том числе будущие, в платформенном MBeanServer.
+     */
+    public synchronized void registerJmx() throws JMException {
+        if (jmxServer != null) {
+            return;
+        }
+        jmxServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            jmxServer.registerMBean(this, new ObjectName(DOMAIN + ":type=Metrics"));
+        } catch (InstanceAlreadyExistsException e) {
+            // Уже зарегистрирован другим экземпляром в этой JVM (например, в тестах)
+        }
+        for (OperationMetrics metrics : operations.values()) {
+            register(metrics);
+        }
+    }
+
+    public synchronized void unregisterJmx() throws JMException {
+        if (jmxServer == null) {
+            return;
+        }
+        List<ObjectName> names = new ArrayList<>();
+        names.add(new ObjectName(DOMAIN + ":type=Metrics"));
+        for (OperationMetrics metrics : operations.values()) {
+            names.add(objectName(metrics.getName()));
+        }
+        for (ObjectName name : names) {
+            try {
+                jmxServer.unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                // не был зарегистрирован
+            }
+        }
+        jmxServer = null;
+    }
+
+    private void register(OperationMetrics metrics) {
+        try {
+            jmxServer.registerMBean(metrics, objectName(metrics.getName()));
+        } catch (InstanceAlreadyExistsException e) {
+            // Такая операция уже есть в JMX от другого реестра
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+    static ObjectName objectName(String operation) throws JMException {
+        int dot = operation.indexOf('.');
+        String layer = dot > 0 ? operation.substring(0, dot) : "other";
+        String method = dot > 0 ? operation.substring(dot + 1) : operation;
+        return new ObjectName(DOMAIN + ":type=Operation,layer=" + ObjectName.quote(layer)
+                + ",name=" + ObjectName.quote(method));
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-32s %9s %6s %10s %9s %10s %10s %10s %10s%n",
+                "Операция", "Вызовов", "Ошибок", "Строк", "В сек", "Среднее", "p50", "p99", "Макс"));
+        for (OperationMetrics metrics : getOperations()) {
+            if (metrics.getCount() == 0) {
+                continue;
+            }
+            sb.append(String.format("%-32s %9d %6d %10d %9.1f %10s %10s %10s %10s%n",
+                    metrics.getName(), metrics.getCount(), metrics.getErrors(), metrics.getRows(),
+                    metrics.getThroughputPerSecond(), formatMicros(metrics.getMeanMicros()),
+                    formatMicros(metrics.getP50Micros()), formatMicros(metrics.getP99Micros()),
+                    formatMicros(metrics.getMaxMicros())));
+        }
+        return sb.toString();
+    }
+
+    private static String formatMicros(double micros) {
+        if (micros >= 1000) {
+            return String.format("%.1f мс", micros / 1000);
+        }
+        return String.format("%.0f мкс", micros);
+    }
+
+    @Override
+    public void reset() {
+        for (OperationMetrics metrics : operations.values()) {
+            metrics.reset();
+        }
+    }
+}
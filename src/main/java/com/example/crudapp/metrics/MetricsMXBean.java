@@ -0,0 +1,16 @@
+package com.example.crudapp.metrics;
+
+/**
+ * Управление метриками через JMX ({@code com.example.crudapp:type=Metrics}).
+ */
+public interface MetricsMXBean {
+
+    int getOperationCount();
+
+    /**
+     * Сводная таблица по всем операциям, та же, что печатает {@link Metrics#dump()}.
+     */
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,35 @@
+package com.example.crudapp.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Событие JFR на каждую операцию DAO или сервиса. Записывается, только когда идёт
+ * запись JFR с включённым событием; время операции передаётся полем
+ * {@code latency}, поэтому событие мгновенное и создаётся уже после вызова.
+ */
+@Name("com.example.crudapp.Operation")
+@Label("Операция с продуктами")
+@Description("Вызов ProductDAO или ProductService")
+@Category("CRUD App")
+@StackTrace(false)
+class OperationEvent extends Event {
+
+    @Label("Операция")
+    String operation;
+
+    @Label("Задержка")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Строк")
+    long rows;
+
+    @Label("Ошибка")
+    boolean failed;
+}
@@ -0,0 +1,162 @@
+package com.example.crudapp.metrics;
+
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Счётчики одной операции: гистограмма задержек, число вызовов, ошибок и строк.
+ *
+ * <p>Замер стоит два вызова {@link System#nanoTime()} и несколько атомарных
+ * увеличений; событие JFR создаётся только во время записи JFR.</p>
+ */
+public final class OperationMetrics implements OperationMetricsMXBean {
+
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public interface Action<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private volatile long since = System.nanoTime();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Выполняет вызов с замером; число строк берётся из результата (список, страница, продукт).
+     */
+    public <T, E extends Exception> T call(Call<T, E> call) throws E {
+        return call(call, OperationMetrics::rowsOf);
+    }
+
+    public <T, E extends Exception> T call(Call<T, E> call, ToLongFunction<? super T> rowCount) throws E {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.call();
+        } catch (Throwable e) {
+            record(System.nanoTime() - start, 0, true);
+            throw e;
+        }
+        record(System.nanoTime() - start, rowCount.applyAsLong(result), false);
+        return result;
+    }
+
+    public <E extends Exception> void run(Action<E> action, long rowCount) throws E {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (Throwable e) {
+            record(System.nanoTime() - start, 0, true);
+            throw e;
+        }
+        record(System.nanoTime() - start, rowCount, false);
+    }
+
+    public void record(long nanos, long rowCount, boolean failed) {
+        histogram.record(nanos);
+        count.increment();
+        totalNanos.add(nanos);
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+        if (failed) {
+            errors.increment();
+        }
+
+        OperationEvent event = new OperationEvent();
+        if (event.isEnabled()) {
+            event.operation = name;
+            event.latency = nanos;
+            event.rows = rowCount;
+            event.failed = failed;
+            event.commit();
+        }
+    }
+
+    static long rowsOf(Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Page) {
+            return ((Page<?>) result).getItems().size();
+        }
+        return result instanceof Product ? 1 : 0;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    /**
+     * Средняя частота вызовов с момента создания или последнего {@link #reset()}.
+     */
+    @Override
+    public double getThroughputPerSecond() {
+        double seconds = (System.nanoTime() - since) / 1e9;
+        return seconds > 0 ? count.sum() / seconds : 0;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long calls = count.sum();
+        return calls > 0 ? totalNanos.sum() / 1e3 / calls : 0;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return histogram.getPercentile(0.50) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return histogram.getPercentile(0.99) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return histogram.getMax() / 1e3;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public void reset() {
+        histogram.reset();
+        count.reset();
+        errors.reset();
+        rows.reset();
+        totalNanos.reset();
+        since = System.nanoTime();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.crudapp.metrics;
+
+/**
+ * Атрибуты одной операции в JMX ({@code com.example.crudapp:type=Operation,layer=...,name=...}).
+ * Времена в микросекундах.
+ */
+public interface OperationMetricsMXBean {
+
+    String getName();
+
+    long getCount();
+
+    long getErrors();
+
+    long getRows();
+
+    double getThroughputPerSecond();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getMaxMicros();
+}
@@ -0,0 +1,41 @@
+package com.example.crudapp.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Страница результатов с непрозрачными токенами соседних страниц.
+ * Токен равен null, если в этом направлении страниц нет.
+ */
+public class Page<T> {
+    private final List<T> items;
+    private final String nextToken;
+    private final String previousToken;
+
+    public Page(List<T> items, String nextToken, String previousToken) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextToken = nextToken;
+        this.previousToken = previousToken;
+    }
+
+    public List<T> getItems() { return items; }
+    public String getNextToken() { return nextToken; }
+    public String getPreviousToken() { return previousToken; }
+
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+
+    public boolean hasPrevious() {
+        return previousToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Page{" +
+                "items=" + items.size() +
+                ", hasNext=" + hasNext() +
+                ", hasPrevious=" + hasPrevious() +
+                '}';
+    }
+}
@@ -22,6 +22,24 @@ public class Product {
         this.description = description;
     }
 
+    // Все поля сразу, без генерации id и обращения к часам (чтение из базы, загрузка)
+    public Product(UUID id, String name, String description, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Копия без генерации id и обращения к часам
+    public Product(Product other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.description = other.description;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
 
@@ -0,0 +1,257 @@
+package com.example.crudapp.server;
+
+import com.example.crudapp.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Нагрузочный клиент для {@link ProductHttpServer}: несколько потоков в течение
+ * заданного времени отправляют запросы вперемешку и печатают число запросов в
+ * секунду и задержки по каждому виду запроса.
+ *
+ * <pre>
+ * java -cp target/Prakt2-1.0.0-jar-with-dependencies.jar \
+ *     com.example.crudapp.server.LoadTestClient [--url http://localhost:8080] [--threads 8]
+ *     [--seconds 30] [--warmup 5] [--mix item:60,list:25,search:10,create:5] [--etag]
+ * </pre>
+ *
+ * <p>Перед замером клиент читает первую страницу списка и берёт из неё id для
+ * {@code item}. С {@code --etag} клиент запоминает ETag каждого адреса и
+ * отправляет If-None-Match, как кэширующий клиент; ответы 304 считаются отдельно.</p>
+ */
+public final class LoadTestClient {
+
+    private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f-]{36})\"");
+    private static final String[] WORDS = {"ноутбук", "смартфон", "монитор", "клавиатура", "наушники", "камера"};
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final boolean useETags;
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    private final Map<String, Operation> operations = new LinkedHashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private volatile boolean measuring;
+
+    // Вид запроса, его доля в смеси и результаты
+    private static final class Operation {
+        final String name;
+        final int weight;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong notModified = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        Operation(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+    }
+
+    private LoadTestClient(String baseUrl, boolean useETags, Map<String, Integer> mix) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.useETags = useETags;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            operations.put(entry.getKey(), new Operation(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:" + ProductHttpServer.DEFAULT_PORT;
+        int threads = 8;
+        int seconds = 30;
+        int warmup = 5;
+        boolean useETags = false;
+        String mix = "item:60,list:25,search:10,create:5";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url": url = args[++i]; break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Integer.parseInt(args[++i]); break;
+                case "--warmup": warmup = Integer.parseInt(args[++i]); break;
+                case "--mix": mix = args[++i]; break;
+                case "--etag": useETags = true; break;
+                default:
+                    System.err.println("Неизвестный параметр: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        LoadTestClient test = new LoadTestClient(url, useETags, parseMix(mix));
+        test.loadIds();
+        System.out.printf("%s: %d потоков, прогрев %d с, замер %d с, смесь %s%s%n",
+                url, threads, warmup, seconds, mix, useETags ? ", с If-None-Match" : "");
+        test.run(threads, warmup, seconds);
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            String name = pair[0].trim();
+            if (!name.equals("item") && !name.equals("list") && !name.equals("search") && !name.equals("create")) {
+                throw new IllegalArgumentException("Неизвестный вид запроса: " + name);
+            }
+            weights.put(name, pair.length > 1 ? Integer.parseInt(pair[1].trim()) : 1);
+        }
+        return weights;
+    }
+
+    private void loadIds() throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/products?pageSize=" + ProductHttpServer.MAX_PAGE_SIZE))
+                        .GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET /products: " + response.statusCode() + " " + response.body());
+        }
+        Matcher matcher = ID.matcher(response.body());
+        while (matcher.find()) {
+            ids.add(matcher.group(1));
+        }
+        if (ids.isEmpty() && operations.containsKey("item")) {
+            throw new IOException("Каталог пуст: запросам item нечего читать");
+        }
+    }
+
+    private void run(int threads, int warmupSeconds, int seconds) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(seconds);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> work(end), "load-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(warmupEnd - System.nanoTime())));
+        measuring = true;
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        report((System.nanoTime() - start) / 1e9);
+    }
+
+    private void work(long end) {
+        Operation[] weighted = weightedOperations();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < end) {
+            Operation operation = weighted[random.nextInt(weighted.length)];
+            HttpRequest request = requestFor(operation.name, random);
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = send(request);
+                long elapsed = System.nanoTime() - start;
+                int status = response.statusCode();
+                if (useETags && status < 300) {
+                    response.headers().firstValue("ETag")
+                            .ifPresent(etag -> etags.put(request.uri().toString(), etag));
+                }
+                if (!measuring) {
+                    continue;
+                }
+                operation.latency.record(elapsed);
+                if (status == 304) {
+                    operation.notModified.incrementAndGet();
+                } else if (status >= 400) {
+                    operation.errors.incrementAndGet();
+                }
+            } catch (IOException e) {
+                if (measuring) {
+                    operation.errors.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Сервер JDK закрывает соединение после 304, и следующий запрос по нему из пула
+    // получает обрыв. GET безопасно повторить один раз по новому соединению, как
+    // делают браузеры и curl; время повтора входит в задержку запроса
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            if (!request.method().equals("GET")) {
+                throw e;
+            }
+            return client.send(request, HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    private Operation[] weightedOperations() {
+        List<Operation> weighted = new ArrayList<>();
+        for (Operation operation : operations.values()) {
+            for (int i = 0; i < operation.weight; i++) {
+                weighted.add(operation);
+            }
+        }
+        return weighted.toArray(new Operation[0]);
+    }
+
+    private HttpRequest requestFor(String operation, ThreadLocalRandom random) {
+        String uri;
+        switch (operation) {
+            case "item":
+                uri = baseUrl + "/products/" + ids.get(random.nextInt(ids.size()));
+                break;
+            case "list":
+                uri = baseUrl + "/products?pageSize=50";
+                break;
+            case "search":
+                uri = baseUrl + "/products/search?limit=20&q="
+                        + URLEncoder.encode(WORDS[random.nextInt(WORDS.length)], StandardCharsets.UTF_8);
+                break;
+            default:
+                String body = "{\"name\":\"Нагрузка " + random.nextInt(1_000_000) + "\",\"description\":\"load test\"}";
+                return HttpRequest.newBuilder(URI.create(baseUrl + "/products"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                        .build();
+        }
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(uri)).GET();
+        String etag = useETags ? etags.get(uri) : null;
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return builder.build();
+    }
+
+    private void report(double seconds) {
+        long total = 0;
+        System.out.printf("%n%-8s %10s %10s %9s %9s %9s %8s %8s%n",
+                "запрос", "всего", "в секунду", "p50, мс", "p99, мс", "max, мс", "304", "ошибки");
+        for (Operation operation : operations.values()) {
+            long count = operation.latency.getCount();
+            total += count;
+            System.out.printf("%-8s %10d %10.0f %9.2f %9.2f %9.2f %8d %8d%n",
+                    operation.name, count, count / seconds,
+                    operation.latency.getPercentile(0.50) / 1e6,
+                    operation.latency.getPercentile(0.99) / 1e6,
+                    operation.latency.getMax() / 1e6,
+                    operation.notModified.get(), operation.errors.get());
+        }
+        System.out.printf("Итого: %d запросов за %.1f с, %.0f запросов/с%n", total, seconds, total / seconds);
+    }
+}
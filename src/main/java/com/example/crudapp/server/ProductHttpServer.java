@@ -0,0 +1,485 @@
+package com.example.crudapp.server;
+
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ExportFormat;
+import com.example.crudapp.service.ProductJson;
+import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.SearchResult;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JSON API каталога поверх {@link ProductService} на встроенном в JDK
+ * {@code com.sun.net.httpserver}, без окна и без сторонних библиотек.
+ *
+ * <pre>
+ * GET    /products?pageSize=&amp;pageToken=     страница списка (ключ — токен из nextToken/previousToken)
+ * GET    /products/search?q=&amp;limit=&amp;cursor=  ранжированный поиск; на первой странице — total
+ * GET    /products/export?format=ndjson|csv   весь каталог потоком, строка за строкой
+ * GET    /products/{id}                       один продукт
+ * POST   /products                            {"name": ..., "description": ...} -&gt; 201
+ * PUT    /products/{id}                       то же тело -&gt; 200
+ * DELETE /products/{id}                       -&gt; 204
+ * </pre>
+ *
+ * <p>Страницы и продукты отдаются с ETag (хэш тела); при совпадении с If-None-Match
+ * ответ — 304 без тела. Выгрузка не буферизуется и ETag не получает: строки идут
+ * в ответ по мере чтения из базы (chunked).</p>
+ *
+ * <p>Запросы обрабатывает ограниченный пул ({@value #THREADS_PROPERTY},
+ * {@value #QUEUE_PROPERTY}); когда очередь заполнена, запрос выполняет поток приёма
+ * соединений, и новые соединения ждут. При {@value #VIRTUAL_THREADS_PROPERTY}=true
+ * на JVM с виртуальными потоками каждый запрос получает свой виртуальный поток.
+ * В обоих случаях одновременных обращений к базе не больше, чем соединений в пулах.</p>
+ */
+public class ProductHttpServer implements AutoCloseable {
+
+    public static final String PORT_PROPERTY = "crudapp.server.port";
+    public static final String THREADS_PROPERTY = "crudapp.server.threads";
+    public static final String QUEUE_PROPERTY = "crudapp.server.queue";
+    public static final String VIRTUAL_THREADS_PROPERTY = "crudapp.server.virtualThreads";
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_QUEUE = 1000;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    static {
+        // Заголовки и тело уходят разными пакетами; без TCP_NODELAY второй ждёт
+        // подтверждения первого (алгоритм Нейгла и отложенный ACK, около 40 мс на ответ).
+        // Свойство читается один раз при первом создании сервера
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ProductService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ProductHttpServer(ProductService service, InetSocketAddress address, ExecutorService executor)
+            throws IOException {
+        this.service = service;
+        this.executor = executor;
+        this.server = HttpServer.create(address, 0);
+        server.createContext("/products", this::handle);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Сервер на порту {@value #PORT_PROPERTY} с потоками по системным свойствам.
+     */
+    public static ProductHttpServer fromSystemProperties(ProductService service) throws IOException {
+        int port = Integer.getInteger(PORT_PROPERTY, DEFAULT_PORT);
+        return new ProductHttpServer(service, new InetSocketAddress(port), newExecutor());
+    }
+
+    /**
+     * Виртуальные потоки, если они включены и есть в этой JVM, иначе ограниченный пул.
+     */
+    public static ExecutorService newExecutor() {
+        if (Boolean.getBoolean(VIRTUAL_THREADS_PROPERTY)) {
+            try {
+                // Сборка под Java 11: метод появился в Java 21
+                Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                System.out.println("HTTP: виртуальный поток на запрос");
+                return (ExecutorService) factory.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                System.out.println("HTTP: виртуальные потоки недоступны в этой JVM, используется пул");
+            }
+        }
+        int threads = Integer.getInteger(THREADS_PROPERTY, defaultThreads());
+        int queue = Integer.getInteger(QUEUE_PROPERTY, DEFAULT_QUEUE);
+        System.out.println("HTTP: потоков " + threads + ", очередь " + queue);
+        return newBoundedPool(threads, queue);
+    }
+
+    public static ExecutorService newBoundedPool(int threads, int queue) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue),
+                task -> {
+                    Thread thread = new Thread(task, "crudapp-http-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    static int defaultThreads() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Перестаёт принимать соединения, даёт начатым запросам до секунды и останавливает потоки.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- маршруты ----
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            route(exchange);
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // Очередь отложенной записи заполнена
+            sendError(exchange, 503, e.getMessage());
+        } catch (SQLException | RuntimeException e) {
+            e.printStackTrace();
+            sendError(exchange, 500, "Внутренняя ошибка сервера");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException, SQLException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (!path.equals("/products") && !path.startsWith("/products/")) {
+            sendError(exchange, 404, "Нет такого ресурса");
+            return;
+        }
+        String rest = path.length() > "/products".length() ? path.substring("/products/".length()) : "";
+
+        if (rest.isEmpty()) {
+            if ("GET".equals(method)) {
+                listProducts(exchange);
+            } else if ("POST".equals(method)) {
+                createProduct(exchange);
+            } else {
+                methodNotAllowed(exchange, "GET, POST");
+            }
+        } else if ("search".equals(rest)) {
+            if ("GET".equals(method)) {
+                searchProducts(exchange);
+            } else {
+                methodNotAllowed(exchange, "GET");
+            }
+        } else if ("export".equals(rest)) {
+            if ("GET".equals(method)) {
+                exportProducts(exchange);
+            } else {
+                methodNotAllowed(exchange, "GET");
+            }
+        } else if (rest.indexOf('/') < 0) {
+            UUID id = parseId(rest);
+            if (id == null) {
+                sendError(exchange, 404, "Нет такого ресурса");
+            } else if ("GET".equals(method)) {
+                getProduct(exchange, id);
+            } else if ("PUT".equals(method)) {
+                updateProduct(exchange, id);
+            } else if ("DELETE".equals(method)) {
+                deleteProduct(exchange, id);
+            } else {
+                methodNotAllowed(exchange, "GET, PUT, DELETE");
+            }
+        } else {
+            sendError(exchange, 404, "Нет такого ресурса");
+        }
+    }
+
+    private void listProducts(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = queryOf(exchange.getRequestURI());
+        int pageSize = intParameter(query, "pageSize", DEFAULT_PAGE_SIZE);
+        Page<Product> page = service.getProductsPage(query.get("pageToken"), pageSize);
+        StringBuilder body = new StringBuilder(256 + page.getItems().size() * 160);
+        writePage(body, page, null);
+        sendJson(exchange, 200, body, true);
+    }
+
+    private void searchProducts(HttpExchange exchange) throws IOException, SQLException {
+        Map<String, String> query = queryOf(exchange.getRequestURI());
+        String q = query.get("q");
+        if (q == null) {
+            throw new IllegalArgumentException("Не задан параметр q");
+        }
+        int limit = intParameter(query, "limit", DEFAULT_PAGE_SIZE);
+        String cursor = query.get("cursor");
+        StringBuilder body = new StringBuilder(256 + limit * 160);
+        if (cursor == null) {
+            SearchResult result = service.searchFirstPage(q, limit);
+            writePage(body, result.getPage(), result);
+        } else {
+            writePage(body, service.searchProducts(q, limit, cursor), null);
+        }
+        sendJson(exchange, 200, body, true);
+    }
+
+    private void exportProducts(HttpExchange exchange) throws IOException, SQLException {
+        String format = queryOf(exchange.getRequestURI()).getOrDefault("format", "ndjson");
+        ExportFormat exportFormat;
+        String contentType;
+        if ("ndjson".equalsIgnoreCase(format)) {
+            exportFormat = ExportFormat.NDJSON;
+            contentType = "application/x-ndjson; charset=utf-8";
+        } else if ("csv".equalsIgnoreCase(format)) {
+            exportFormat = ExportFormat.CSV;
+            contentType = "text/csv; charset=utf-8";
+        } else {
+            throw new IllegalArgumentException("Неизвестный формат выгрузки: " + format);
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        // Длина 0 — ответ частями: заголовки уходят сразу, строки — по мере чтения
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), STREAM_BUFFER_SIZE)) {
+            service.exportProducts(writer, exportFormat, null);
+        } catch (IOException | SQLException | RuntimeException e) {
+            // Заголовки уже отправлены: клиент увидит оборванный ответ
+            System.out.println("HTTP: выгрузка прервана: " + e.getMessage());
+        }
+    }
+
+    private void getProduct(HttpExchange exchange, UUID id) throws IOException, SQLException {
+        Product product = service.getProductById(id);
+        if (product == null) {
+            sendError(exchange, 404, "Продукт не найден");
+            return;
+        }
+        StringBuilder body = new StringBuilder(192);
+        ProductJson.write(body, product);
+        sendJson(exchange, 200, body, true);
+    }
+
+    private void createProduct(HttpExchange exchange) throws IOException, SQLException {
+        Product request = ProductJson.readNameAndDescription(readBody(exchange));
+        Product created = service.createProduct(request.getName(), request.getDescription());
+        exchange.getResponseHeaders().set("Location", "/products/" + created.getId());
+        StringBuilder body = new StringBuilder(192);
+        ProductJson.write(body, created);
+        sendJson(exchange, 201, body, false);
+    }
+
+    private void updateProduct(HttpExchange exchange, UUID id) throws IOException, SQLException {
+        Product request = ProductJson.readNameAndDescription(readBody(exchange));
+        Product existing = service.getProductById(id);
+        if (existing == null) {
+            sendError(exchange, 404, "Продукт не найден");
+            return;
+        }
+        // Копия: объект из кэша DAO не меняется, пока изменение не прошло проверку
+        Product product = new Product(existing);
+        product.setName(request.getName());
+        product.setDescription(request.getDescription());
+        service.updateProduct(product);
+        Product updated = service.getProductById(id);
+        StringBuilder body = new StringBuilder(192);
+        ProductJson.write(body, updated != null ? updated : product);
+        sendJson(exchange, 200, body, false);
+    }
+
+    private void deleteProduct(HttpExchange exchange, UUID id) throws IOException, SQLException {
+        if (!service.deleteProduct(id)) {
+            sendError(exchange, 404, "Продукт не найден");
+            return;
+        }
+        sendEmpty(exchange, 204);
+    }
+
+    // ---- JSON и HTTP ----
+
+    private static void writePage(StringBuilder out, Page<Product> page, SearchResult total) throws IOException {
+        out.append("{\"items\":[");
+        List<Product> items = page.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            ProductJson.write(out, items.get(i));
+        }
+        out.append("],\"nextToken\":");
+        ProductJson.quote(out, page.getNextToken());
+        out.append(",\"previousToken\":");
+        ProductJson.quote(out, page.getPreviousToken());
+        if (total != null) {
+            out.append(",\"total\":").append(total.getTotal())
+                    .append(",\"totalExact\":").append(total.isTotalExact());
+        }
+        out.append('}');
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, CharSequence json, boolean withETag)
+            throws IOException {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("Content-Type", JSON);
+        if (withETag) {
+            String etag = etagOf(bytes);
+            headers.set("ETag", etag);
+            // Кэш клиента может хранить ответ, но обязан сверить его с сервером
+            headers.set("Cache-Control", "no-cache");
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                sendEmpty(exchange, 304);
+                return;
+            }
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Ответ без тела. Поток ответа закрывается явно: если обмен закрыть только через
+    // exchange.close(), сервер JDK 17 сбрасывает соединение вместо keep-alive.
+    // Для 304 он сбрасывает его в любом случае, клиенту придётся переподключиться
+    private static void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.getResponseBody().close();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder body = new StringBuilder(64);
+        body.append("{\"error\":");
+        ProductJson.quote(body, message);
+        body.append('}');
+        sendJson(exchange, status, body, false);
+    }
+
+    private static void methodNotAllowed(HttpExchange exchange, String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        sendError(exchange, 405, "Метод не поддерживается");
+    }
+
+    static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder etag = new StringBuilder(34).append('"');
+            for (int i = 0; i < 16; i++) {
+                etag.append(Character.forDigit((digest[i] >> 4) & 0xF, 16))
+                        .append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return etag.append('"').toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // If-None-Match: список меток через запятую или "*"; слабые метки сравниваются как сильные
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Слишком большое тело запроса");
+                }
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> queryOf(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            parameters.putIfAbsent(URLDecoder.decode(key, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть числом");
+        }
+        if (parsed < 1 || parsed > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Параметр " + name + " должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return parsed;
+    }
+
+    private static UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Асинхронный фасад над ProductService: обращения к SQLite выполняются
+ * на отдельном исполнителе, а не в потоке, который их вызвал (например, EDT).
+ *
+ * <p>На JDK 21+ используются виртуальные потоки, иначе — ограниченный пул
+ * демон-потоков. Исключения SQL завершают future исключительно; join() и зависимые
+ * стадии оборачивают их в CompletionException, см. {@link #unwrap(Throwable)}.</p>
+ */
+public class AsyncProductService implements AutoCloseable {
+
+    public interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    public interface SqlAction {
+        void run() throws SQLException;
+    }
+
+    private final ProductService productService;
+    private final ExecutorService executor;
+
+    public AsyncProductService(ProductService productService) {
+        this(productService, createDefaultExecutor());
+    }
+
+    public AsyncProductService(ProductService productService, ExecutorService executor) {
+        this.productService = productService;
+        this.executor = executor;
+    }
+
+    public ProductService getProductService() {
+        return productService;
+    }
+
+    /**
+     * Исполнитель для обращений к базе: виртуальные потоки, если их поддерживает JVM,
+     * иначе фиксированный пул по числу соединений в пуле.
+     */
+    public static ExecutorService createDefaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = r -> {
+                Thread t = new Thread(r, "product-db-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            return Executors.newFixedThreadPool(4, threadFactory);
+        }
+    }
+
+    /**
+     * Выполняет вызов на исполнителе. Если future отменён до начала выполнения,
+     * к базе обращения не будет.
+     */
+    public <T> CompletableFuture<T> supply(SqlCall<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(call.call());
+            } catch (SQLException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    public CompletableFuture<Void> run(SqlAction action) {
+        return supply(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public CompletableFuture<Page<Product>> getProductsPage(String pageToken, int pageSize) {
+        return supply(() -> productService.getProductsPage(pageToken, pageSize));
+    }
+
+    public CompletableFuture<Page<Product>> searchProducts(String query, int limit, String cursor) {
+        return supply(() -> productService.searchProducts(query, limit, cursor));
+    }
+
+    public CompletableFuture<SearchResult> searchFirstPage(String query, int limit) {
+        return supply(() -> productService.searchFirstPage(query, limit));
+    }
+
+    public CompletableFuture<Product> getProductById(UUID id) {
+        return supply(() -> productService.getProductById(id));
+    }
+
+    public CompletableFuture<Integer> getTotalProductCount() {
+        return supply(productService::getTotalProductCount);
+    }
+
+    public CompletableFuture<Void> createProduct(String name, String description) {
+        return run(() -> productService.createProduct(name, description));
+    }
+
+    public CompletableFuture<Void> updateProduct(Product product) {
+        return run(() -> productService.updateProduct(product));
+    }
+
+    public CompletableFuture<Void> deleteProduct(UUID id) {
+        return run(() -> productService.deleteProduct(id));
+    }
+
+    public CompletableFuture<Long> exportProducts(Path target, ExportFormat format,
+                                                 ProgressListener listener) {
+        return supply(() -> {
+            try {
+                return productService.exportProducts(target, format, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    public CompletableFuture<ImportResult> importProducts(Path source, ExportFormat format,
+                                                         ProgressListener listener) {
+        return supply(() -> {
+            try {
+                return productService.importProducts(source, format, listener);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Достаёт исходную причину из CompletionException/ExecutionException
+     * (и UncheckedIOException, которым обёрнуты ошибки ввода-вывода).
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException
+                || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.crudapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Итог пакетной операции: сколько строк записано и какие строки отклонены проверкой.
+ */
+public class BatchResult {
+    private final int processed;
+    private final List<RowFailure> failures;
+
+    public BatchResult(int processed, List<RowFailure> failures) {
+        this.processed = processed;
+        this.failures = Collections.unmodifiableList(new ArrayList<>(failures));
+    }
+
+    public int getProcessed() { return processed; }
+    public List<RowFailure> getFailures() { return failures; }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Отклонённая строка пакета: её позиция во входном списке и причина.
+     */
+    public static class RowFailure {
+        private final int index;
+        private final String message;
+
+        public RowFailure(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        public int getIndex() { return index; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "Строка " + index + ": " + message;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" +
+                "processed=" + processed +
+                ", failures=" + failures.size() +
+                '}';
+    }
+}
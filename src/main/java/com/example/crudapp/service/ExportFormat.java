@@ -0,0 +1,98 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.model.Product;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Формат файла каталога для выгрузки и загрузки: CSV (RFC 4180) или NDJSON
+ * (объект JSON в строке).
+ */
+public enum ExportFormat {
+
+    CSV("csv") {
+        @Override
+        void writeHeader(Appendable out) throws IOException {
+            out.append("id,name,description,created_at,updated_at\r\n");
+        }
+
+        @Override
+        void writeRow(Appendable out, Product product) throws IOException {
+            out.append(product.getId().toString()).append(',');
+            csvField(out, product.getName());
+            out.append(',');
+            csvField(out, product.getDescription());
+            out.append(',');
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(product.getCreatedAt(), out);
+            out.append(',');
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(product.getUpdatedAt(), out);
+            out.append("\r\n");
+        }
+    },
+
+    NDJSON("ndjson") {
+        @Override
+        void writeHeader(Appendable out) {
+        }
+
+        @Override
+        void writeRow(Appendable out, Product product) throws IOException {
+            ProductJson.write(out, product);
+            out.append('\n');
+        }
+    };
+
+    private final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    abstract void writeHeader(Appendable out) throws IOException;
+
+    abstract void writeRow(Appendable out, Product product) throws IOException;
+
+    // Поле CSV: кавычки только там, где они нужны; кавычка внутри поля удваивается
+    static void csvField(Appendable out, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.append(value);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    /**
+     * Формат по расширению файла (.csv, .ndjson, .jsonl) или null, если расширение незнакомо.
+     */
+    public static ExportFormat forFileName(String fileName) {
+        String lower = fileName.toLowerCase();
+        if (lower.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) {
+            return NDJSON;
+        }
+        return null;
+    }
+}
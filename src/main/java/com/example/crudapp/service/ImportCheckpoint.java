@@ -0,0 +1,75 @@
+package com.example.crudapp.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Контрольная точка загрузки: сколько записей файла уже зафиксировано в базе.
+ * Хранится рядом с файлом и привязана к его размеру и времени изменения.
+ */
+class ImportCheckpoint {
+    private final Path file;
+    private final String fingerprint;
+    long records;
+    long imported;
+    long rejected;
+
+    private ImportCheckpoint(Path file, String fingerprint) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * @throws IOException если контрольная точка осталась от другой версии файла
+     */
+    static ImportCheckpoint load(Path file, String fingerprint) throws IOException {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(file, fingerprint);
+        if (!Files.exists(file)) {
+            return checkpoint;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        if (!fingerprint.equals(properties.getProperty("source"))) {
+            throw new IOException("Файл изменился после прерванной загрузки; удалите " + file
+                    + ", чтобы загрузить его с начала");
+        }
+        try {
+            checkpoint.records = Long.parseLong(properties.getProperty("records", "0"));
+            checkpoint.imported = Long.parseLong(properties.getProperty("imported", "0"));
+            checkpoint.rejected = Long.parseLong(properties.getProperty("rejected", "0"));
+        } catch (NumberFormatException e) {
+            throw new IOException("Повреждена контрольная точка " + file, e);
+        }
+        return checkpoint;
+    }
+
+    // Запись через временный файл: после сбоя остаётся прежняя или новая точка, но не обрезанная
+    void save() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("source", fingerprint);
+        properties.setProperty("records", Long.toString(records));
+        properties.setProperty("imported", Long.toString(imported));
+        properties.setProperty("rejected", Long.toString(rejected));
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
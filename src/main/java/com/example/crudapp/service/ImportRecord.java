@@ -0,0 +1,21 @@
+package com.example.crudapp.service;
+
+/**
+ * Одна запись входного файла до проверки: значения полей как строки.
+ */
+class ImportRecord {
+    final long number;
+    final long line;
+    String id;
+    String name;
+    String description;
+    String createdAt;
+    String updatedAt;
+    // Ошибка разбора записи; такая запись сразу уходит в отчёт
+    String error;
+
+    ImportRecord(long number, long line) {
+        this.number = number;
+        this.line = line;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.crudapp.service;
+
+import java.nio.file.Path;
+
+/**
+ * Итог загрузки файла. Отклонённые строки перечислены не здесь, а в отчёте
+ * об ошибках: при миллионах строк список в памяти был бы слишком велик.
+ */
+public class ImportResult {
+    private final long imported;
+    private final long rejected;
+    private final long resumedFrom;
+    private final long durationMillis;
+    private final Path errorReport;
+
+    public ImportResult(long imported, long rejected, long resumedFrom, long durationMillis, Path errorReport) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.resumedFrom = resumedFrom;
+        this.durationMillis = durationMillis;
+        this.errorReport = errorReport;
+    }
+
+    public long getImported() { return imported; }
+    public long getRejected() { return rejected; }
+
+    /**
+     * Сколько записей было обработано до продолжения по контрольной точке (0 — загрузка с начала).
+     */
+    public long getResumedFrom() { return resumedFrom; }
+    public long getDurationMillis() { return durationMillis; }
+
+    /**
+     * Файл с отклонёнными строками или null, если их не было.
+     */
+    public Path getErrorReport() { return errorReport; }
+
+    public double getRowsPerSecond() {
+        return durationMillis > 0 ? (imported + rejected) * 1000.0 / durationMillis : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "imported=" + imported +
+                ", rejected=" + rejected +
+                ", resumedFrom=" + resumedFrom +
+                ", durationMillis=" + durationMillis +
+                '}';
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.metrics.Metrics;
+import com.example.crudapp.metrics.OperationMetrics;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Декоратор ProductService, замеряющий каждую операцию (см. {@link Metrics}).
+ * В отличие от {@code dao.*}, операции {@code service.*} включают кэш, проверку
+ * данных и обработку результатов, то есть время, которое видит интерфейс.
+ */
+public class InstrumentedProductService extends ProductService {
+
+    private final ProductService delegate;
+
+    private final OperationMetrics createProduct;
+    private final OperationMetrics getAllProducts;
+    private final OperationMetrics getProductsWithPagination;
+    private final OperationMetrics getProductsPage;
+    private final OperationMetrics searchProducts;
+    private final OperationMetrics searchFirstPage;
+    private final OperationMetrics getProductsRange;
+    private final OperationMetrics searchProductsRange;
+    private final OperationMetrics countSearchResults;
+    private final OperationMetrics searchProductsByName;
+    private final OperationMetrics getProductById;
+    private final OperationMetrics updateProduct;
+    private final OperationMetrics deleteProduct;
+    private final OperationMetrics createProducts;
+    private final OperationMetrics updateProducts;
+    private final OperationMetrics deleteProducts;
+    private final OperationMetrics exportProducts;
+    private final OperationMetrics importProducts;
+    private final OperationMetrics getTotalProductCount;
+
+    public InstrumentedProductService(ProductService delegate) {
+        this(delegate, Metrics.global());
+    }
+
+    public InstrumentedProductService(ProductService delegate, Metrics metrics) {
+        super(delegate.getProductDAO());
+        this.delegate = delegate;
+        this.createProduct = metrics.operation("service.createProduct");
+        this.getAllProducts = metrics.operation("service.getAllProducts");
+        this.getProductsWithPagination = metrics.operation("service.getProductsWithPagination");
+        this.getProductsPage = metrics.operation("service.getProductsPage");
+        this.searchProducts = metrics.operation("service.searchProducts");
+        this.searchFirstPage = metrics.operation("service.searchFirstPage");
+        this.getProductsRange = metrics.operation("service.getProductsRange");
+        this.searchProductsRange = metrics.operation("service.searchProductsRange");
+        this.countSearchResults = metrics.operation("service.countSearchResults");
+        this.searchProductsByName = metrics.operation("service.searchProductsByName");
+        this.getProductById = metrics.operation("service.getProductById");
+        this.updateProduct = metrics.operation("service.updateProduct");
+        this.deleteProduct = metrics.operation("service.deleteProduct");
+        this.createProducts = metrics.operation("service.createProducts");
+        this.updateProducts = metrics.operation("service.updateProducts");
+        this.deleteProducts = metrics.operation("service.deleteProducts");
+        this.exportProducts = metrics.operation("service.exportProducts");
+        this.importProducts = metrics.operation("service.importProducts");
+        this.getTotalProductCount = metrics.operation("service.getTotalProductCount");
+    }
+
+    @Override
+    public Product createProduct(String name, String description) throws IllegalArgumentException, SQLException {
+        return createProduct.call(() -> delegate.createProduct(name, description), product -> 1);
+    }
+
+    // Отложенная запись принадлежит сервису-делегату; замеряется ожидание в createProduct и т.п.
+    @Override
+    public WriteBehindQueue getWriteBehind() {
+        return delegate.getWriteBehind();
+    }
+
+    @Override
+    public void setWriteBehind(WriteBehindQueue writeBehind) {
+        delegate.setWriteBehind(writeBehind);
+    }
+
+    @Override
+    public ProductEventBus getEventBus() {
+        return delegate.getEventBus();
+    }
+
+    @Override
+    public CompletableFuture<Void> submitCreate(String name, String description) throws IllegalArgumentException {
+        return delegate.submitCreate(name, description);
+    }
+
+    @Override
+    public CompletableFuture<Void> submitUpdate(Product product) throws IllegalArgumentException {
+        return delegate.submitUpdate(product);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> submitDelete(UUID id) {
+        return delegate.submitDelete(id);
+    }
+
+    @Override
+    public List<Product> getAllProducts() throws SQLException {
+        return getAllProducts.call(delegate::getAllProducts);
+    }
+
+    @Override
+    public List<Product> getProductsWithPagination(int page, int pageSize) throws SQLException {
+        return getProductsWithPagination.call(() -> delegate.getProductsWithPagination(page, pageSize));
+    }
+
+    @Override
+    public Page<Product> getProductsPage(String pageToken, int pageSize) throws SQLException {
+        return getProductsPage.call(() -> delegate.getProductsPage(pageToken, pageSize));
+    }
+
+    @Override
+    public String pageTokenAfter(Product product) {
+        return delegate.pageTokenAfter(product);
+    }
+
+    @Override
+    public Page<Product> searchProducts(String query, int limit, String cursor) throws SQLException {
+        return searchProducts.call(() -> delegate.searchProducts(query, limit, cursor));
+    }
+
+    @Override
+    public SearchResult searchFirstPage(String query, int limit) throws SQLException {
+        return searchFirstPage.call(() -> delegate.searchFirstPage(query, limit),
+                result -> result.getPage().getItems().size());
+    }
+
+    @Override
+    public List<Product> getProductsRange(Product anchor, int offset, int limit) throws SQLException {
+        return getProductsRange.call(() -> delegate.getProductsRange(anchor, offset, limit));
+    }
+
+    @Override
+    public List<Product> searchProductsRange(String query, int offset, int limit) throws SQLException {
+        return searchProductsRange.call(() -> delegate.searchProductsRange(query, offset, limit));
+    }
+
+    @Override
+    public int countSearchResults(String query) throws SQLException {
+        return countSearchResults.call(() -> delegate.countSearchResults(query), count -> 1);
+    }
+
+    @Override
+    public List<Product> searchProductsByName(String name) throws SQLException {
+        return searchProductsByName.call(() -> delegate.searchProductsByName(name));
+    }
+
+    @Override
+    public Product getProductById(UUID id) throws SQLException {
+        return getProductById.call(() -> delegate.getProductById(id));
+    }
+
+    @Override
+    public void updateProduct(Product product) throws IllegalArgumentException, SQLException {
+        updateProduct.run(() -> delegate.updateProduct(product), 1);
+    }
+
+    @Override
+    public boolean deleteProduct(UUID id) throws SQLException {
+        return deleteProduct.call(() -> delegate.deleteProduct(id), deleted -> deleted ? 1 : 0);
+    }
+
+    @Override
+    public BatchResult createProducts(List<Product> products) throws SQLException {
+        return createProducts.call(() -> delegate.createProducts(products), BatchResult::getProcessed);
+    }
+
+    @Override
+    public BatchResult updateProducts(List<Product> products) throws SQLException {
+        return updateProducts.call(() -> delegate.updateProducts(products), BatchResult::getProcessed);
+    }
+
+    @Override
+    public int deleteProducts(Collection<UUID> ids) throws SQLException {
+        return deleteProducts.call(() -> delegate.deleteProducts(ids), deleted -> deleted);
+    }
+
+    @Override
+    public long exportProducts(Path target, ExportFormat format, ProgressListener listener)
+            throws SQLException, IOException {
+        // Два типа исключений: OperationMetrics.call принимает только один
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean failed = true;
+        try {
+            rows = delegate.exportProducts(target, format, listener);
+            failed = false;
+            return rows;
+        } finally {
+            exportProducts.record(System.nanoTime() - start, rows, failed);
+        }
+    }
+
+    @Override
+    public long exportProducts(Writer out, ExportFormat format, ProgressListener listener)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean failed = true;
+        try {
+            rows = delegate.exportProducts(out, format, listener);
+            failed = false;
+            return rows;
+        } finally {
+            exportProducts.record(System.nanoTime() - start, rows, failed);
+        }
+    }
+
+    @Override
+    public ImportResult importProducts(Path source, ExportFormat format, ProgressListener listener)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        ImportResult result = null;
+        try {
+            result = delegate.importProducts(source, format, listener);
+            return result;
+        } finally {
+            importProducts.record(System.nanoTime() - start,
+                    result != null ? result.getImported() : 0, result == null);
+        }
+    }
+
+    @Override
+    public int getTotalProductCount() throws SQLException {
+        return getTotalProductCount.call(delegate::getTotalProductCount, count -> 1);
+    }
+
+    @Override
+    public void refreshProductCount() {
+        delegate.refreshProductCount();
+    }
+
+    @Override
+    public int getTotalPages(int pageSize) throws SQLException {
+        return delegate.getTotalPages(pageSize);
+    }
+
+    @Override
+    protected ProductDAO getProductDAO() {
+        return delegate.getProductDAO();
+    }
+
+    @Override
+    protected void setProductDAO(ProductDAO productDAO) {
+        delegate.setProductDAO(productDAO);
+    }
+}
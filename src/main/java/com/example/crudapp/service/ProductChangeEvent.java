@@ -0,0 +1,68 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.model.Product;
+
+import java.util.UUID;
+
+/**
+ * Изменение каталога, о котором {@link ProductService} сообщает через
+ * {@link ProductEventBus} после записи в базу.
+ *
+ * <p>{@code CREATED} и {@code UPDATED} несут копию продукта с новыми значениями,
+ * {@code DELETED} — только id. {@code RELOAD} означает, что изменилось слишком много
+ * строк (импорт, переполнение шины) и показанные данные нужно перечитать целиком.</p>
+ */
+public final class ProductChangeEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED, RELOAD }
+
+    private static final ProductChangeEvent RELOAD_EVENT = new ProductChangeEvent(Type.RELOAD, null, null);
+
+    private final Type type;
+    private final UUID id;
+    private final Product product;
+
+    private ProductChangeEvent(Type type, UUID id, Product product) {
+        this.type = type;
+        this.id = id;
+        this.product = product;
+    }
+
+    public static ProductChangeEvent created(Product product) {
+        return new ProductChangeEvent(Type.CREATED, product.getId(), new Product(product));
+    }
+
+    public static ProductChangeEvent updated(Product product) {
+        return new ProductChangeEvent(Type.UPDATED, product.getId(), new Product(product));
+    }
+
+    public static ProductChangeEvent deleted(UUID id) {
+        return new ProductChangeEvent(Type.DELETED, id, null);
+    }
+
+    public static ProductChangeEvent reload() {
+        return RELOAD_EVENT;
+    }
+
+    // То же изменение другого типа; копия продукта не нужна, он уже принадлежит событию
+    ProductChangeEvent withType(Type type) {
+        return new ProductChangeEvent(type, id, product);
+    }
+
+    public Type getType() { return type; }
+    public UUID getId() { return id; }
+
+    /**
+     * Продукт после изменения или null для DELETED и RELOAD. Один объект получают
+     * все подписчики, поэтому изменять его нельзя.
+     */
+    public Product getProduct() { return product; }
+
+    @Override
+    public String toString() {
+        return "ProductChangeEvent{" +
+                "type=" + type +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.dao.ProductDAO;
+
+import java.sql.SQLException;
+
+/**
+ * Количество продуктов, которое поддерживают пути записи ProductService.
+ *
+ * <p>COUNT(*) в SQLite — полный проход по индексу, поэтому он выполняется только
+ * при первом обращении, после {@link #invalidate()} и не чаще раза
+ * в {@code resyncIntervalMillis} для сверки с базой (на случай записей в обход сервиса).</p>
+ */
+class ProductCounter {
+    private final long resyncIntervalMillis;
+    private int count;
+    private boolean loaded;
+    private long loadedAt;
+    // Растёт при каждом adjust и invalidate: по нему get узнаёт о записях во время COUNT(*)
+    private long generation;
+
+    ProductCounter(long resyncIntervalMillis) {
+        this.resyncIntervalMillis = resyncIntervalMillis;
+    }
+
+    /**
+     * COUNT(*) выполняется без блокировки, чтобы не задерживать adjust из путей записи.
+     * Если за это время счётчик изменился, результат подсчёта не сохраняется: неизвестно,
+     * учтены ли в нём эти изменения.
+     */
+    int get(ProductDAO productDAO) throws SQLException {
+        long startedAt = System.currentTimeMillis();
+        long expectedGeneration;
+        synchronized (this) {
+            if (loaded && startedAt - loadedAt < resyncIntervalMillis) {
+                return count;
+            }
+            expectedGeneration = generation;
+        }
+        int counted = productDAO.countAll();
+        synchronized (this) {
+            if (generation == expectedGeneration) {
+                count = counted;
+                loaded = true;
+                loadedAt = startedAt;
+            } else if (loaded) {
+                return count;
+            }
+            return counted;
+        }
+    }
+
+    synchronized void adjust(int delta) {
+        generation++;
+        if (loaded) {
+            count = Math.max(0, count + delta);
+        }
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        loaded = false;
+    }
+}
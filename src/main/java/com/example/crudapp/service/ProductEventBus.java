@@ -0,0 +1,187 @@
+package com.example.crudapp.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Шина изменений каталога внутри процесса.
+ *
+ * <p>События не доставляются по одному: первое событие открывает окно в
+ * {@code windowMillis}, по его окончании подписчики получают все накопленные
+ * события одним списком. Изменения одного продукта внутри окна сливаются так же,
+ * как в {@link WriteBehindQueue}: создание и изменение — в создание с новыми
+ * значениями, изменение и удаление — в удаление, создание и удаление — ни во что.
+ * Если в окне набралось больше {@code maxPending} продуктов, вместо них
+ * доставляется одно событие {@link ProductChangeEvent.Type#RELOAD}.</p>
+ *
+ * <p>Каждый подписчик получает список в своём исполнителе (для Swing —
+ * {@code SwingUtilities::invokeLater}), порядок списков сохраняется. Пока
+ * подписчиков нет, {@link #publish} ничего не делает.</p>
+ */
+public class ProductEventBus {
+
+    public static final String WINDOW_PROPERTY = "crudapp.events.windowMs";
+    public static final String MAX_PENDING_PROPERTY = "crudapp.events.maxPending";
+
+    public static final long DEFAULT_WINDOW_MILLIS = 50;
+    public static final int DEFAULT_MAX_PENDING = 1000;
+
+    /**
+     * Подписчик шины; список событий не пуст, RELOAD в нём всегда единственный.
+     */
+    public interface Listener {
+        void productsChanged(List<ProductChangeEvent> events);
+    }
+
+    private static final class Registration {
+        final Listener listener;
+        final Executor executor;
+
+        Registration(Listener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+    }
+
+    // Один поток доставки на все шины, создаётся при первом событии
+    private static final class Delivery {
+        static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "product-events");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private final long windowMillis;
+    private final int maxPending;
+    private final List<Registration> listeners = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+    // Порядок выдачи списков исполнителям: flush из разных потоков не обгоняют друг друга
+    private final Object deliveryLock = new Object();
+    private Map<UUID, ProductChangeEvent> pending = new LinkedHashMap<>();
+    private boolean reload;
+    private boolean scheduled;
+
+    public ProductEventBus() {
+        this(Long.getLong(WINDOW_PROPERTY, DEFAULT_WINDOW_MILLIS),
+                Integer.getInteger(MAX_PENDING_PROPERTY, DEFAULT_MAX_PENDING));
+    }
+
+    public ProductEventBus(long windowMillis, int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending должен быть положительным");
+        }
+        this.windowMillis = Math.max(0, windowMillis);
+        this.maxPending = maxPending;
+    }
+
+    public void addListener(Listener listener, Executor executor) {
+        listeners.add(new Registration(listener, executor));
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.removeIf(registration -> registration.listener == listener);
+    }
+
+    public boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    public void publish(ProductChangeEvent event) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        boolean schedule;
+        synchronized (lock) {
+            if (event.getType() == ProductChangeEvent.Type.RELOAD) {
+                markReload();
+            } else if (!reload) {
+                merge(event);
+                if (pending.size() > maxPending) {
+                    markReload();
+                }
+            }
+            schedule = !scheduled;
+            scheduled = true;
+        }
+        if (schedule) {
+            Delivery.SCHEDULER.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // После RELOAD отдельные события уже не нужны: подписчик всё равно перечитает данные
+    private void markReload() {
+        reload = true;
+        pending.clear();
+    }
+
+    private void merge(ProductChangeEvent event) {
+        UUID id = event.getId();
+        ProductChangeEvent previous = pending.get(id);
+        ProductChangeEvent.Type type = event.getType();
+        if (previous == null) {
+            pending.put(id, event);
+            return;
+        }
+        switch (previous.getType()) {
+            case CREATED:
+                if (type == ProductChangeEvent.Type.DELETED) {
+                    pending.remove(id);
+                } else {
+                    pending.put(id, event.withType(ProductChangeEvent.Type.CREATED));
+                }
+                break;
+            case DELETED:
+                // Удалён и создан заново с тем же id: для подписчика строка изменилась
+                pending.put(id, type == ProductChangeEvent.Type.CREATED
+                        ? event.withType(ProductChangeEvent.Type.UPDATED)
+                        : event);
+                break;
+            default:
+                pending.put(id, event);
+        }
+    }
+
+    /**
+     * Доставляет накопленные события сейчас, не дожидаясь конца окна.
+     */
+    public void flush() {
+        synchronized (deliveryLock) {
+            List<ProductChangeEvent> batch;
+            synchronized (lock) {
+                scheduled = false;
+                if (reload) {
+                    batch = Collections.singletonList(ProductChangeEvent.reload());
+                    reload = false;
+                } else if (pending.isEmpty()) {
+                    return;
+                } else {
+                    batch = Collections.unmodifiableList(new ArrayList<>(pending.values()));
+                    pending = new LinkedHashMap<>();
+                }
+            }
+            // publish ждёт только lock, поэтому медленный исполнитель не задерживает запись
+            for (Registration registration : listeners) {
+                registration.executor.execute(() -> deliver(registration.listener, batch));
+            }
+        }
+    }
+
+    private static void deliver(Listener listener, List<ProductChangeEvent> batch) {
+        try {
+            listener.productsChanged(batch);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
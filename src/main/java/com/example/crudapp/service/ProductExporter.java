@@ -0,0 +1,98 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.dao.ProductDAO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Выгрузка всего каталога в файл. Строки читаются из базы по одной
+ * ({@link ProductDAO#forEach}) и сразу пишутся в буфер, так что память
+ * не зависит от размера таблицы.
+ *
+ * <p>Слушатель получает число записанных строк каждые {@link #PROGRESS_INTERVAL}
+ * строк и в конце. Запись идёт во временный файл рядом с целевым, который заменяет целевой
+ * только после успешного завершения: прерванная выгрузка не оставляет обрезанный файл.</p>
+ */
+public class ProductExporter {
+
+    public static final int PROGRESS_INTERVAL = 10_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ProductDAO productDAO;
+
+    public ProductExporter(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+
+    /**
+     * @return число выгруженных строк
+     * @throws CancellationException если слушатель отменил выгрузку
+     */
+    public long export(Path target, ExportFormat format, ProgressListener listener) throws SQLException, IOException {
+        Path absolute = target.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), ".export-", ".tmp");
+        boolean done = false;
+        try {
+            long rows;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 Writer writer = new BufferedWriter(
+                         Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1), BUFFER_SIZE)) {
+                rows = export(writer, format, listener);
+            }
+            try {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+            done = true;
+            return rows;
+        } finally {
+            if (!done) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * Пишет выгрузку в {@code out}; поток не закрывается.
+     */
+    public long export(Writer out, ExportFormat format, ProgressListener listener) throws SQLException, IOException {
+        format.writeHeader(out);
+        long[] written = new long[1];
+        try {
+            productDAO.forEach(product -> {
+                try {
+                    format.writeRow(out, product);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % PROGRESS_INTERVAL == 0 && listener != null) {
+                    if (listener.isCancelled()) {
+                        throw new CancellationException("Выгрузка отменена");
+                    }
+                    listener.onProgress(written[0]);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+        if (listener != null) {
+            listener.onProgress(written[0]);
+        }
+        return written[0];
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.model.Product;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Загрузка каталога из CSV или NDJSON любого размера.
+ *
+ * <p>Конвейер из трёх ступеней: поток чтения разбирает файл и делит записи на
+ * порции, пул потоков проверяет порции по тем же правилам, что и ProductService,
+ * а вызывающий поток — единственный писатель — сохраняет порции по порядку,
+ * каждую одной транзакцией ({@link ProductDAO#saveAll}). Очередь между ступенями
+ * ограничена, поэтому в памяти одновременно лишь несколько порций.</p>
+ *
+ * <p>Отклонённые строки пишутся в отчёт {@code <файл>.errors.csv}. После каждой
+ * порции обновляется контрольная точка {@code <файл>.checkpoint}; если загрузка
+ * прервалась, следующий запуск по тому же файлу продолжит с неё. Записям без id
+ * присваивается id, вычисленный из файла и номера записи, поэтому порция,
+ * сохранённая перед самым сбоем, при повторе не задвоится, а попадёт в отчёт
+ * как уже существующая.</p>
+ */
+public class ProductImporter {
+
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    private final ProductDAO productDAO;
+    private final int chunkSize;
+    private final int workers;
+
+    public ProductImporter(ProductDAO productDAO) {
+        this(productDAO, DEFAULT_CHUNK_SIZE, Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    public ProductImporter(ProductDAO productDAO, int chunkSize, int workers) {
+        if (chunkSize < 1 || workers < 1) {
+            throw new IllegalArgumentException("Размер порции и число потоков должны быть положительными");
+        }
+        this.productDAO = productDAO;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    public static Path checkpointFile(Path source) {
+        return source.resolveSibling(source.getFileName() + ".checkpoint");
+    }
+
+    public static Path errorReportFile(Path source) {
+        return source.resolveSibling(source.getFileName() + ".errors.csv");
+    }
+
+    /**
+     * Проверенная порция: корректные продукты с их записями и отклонённые записи.
+     */
+    private static final class Chunk {
+        static final Chunk END = new Chunk(0);
+
+        final List<Product> valid = new ArrayList<>();
+        final List<ImportRecord> validRecords = new ArrayList<>();
+        final List<ImportRecord> rejected = new ArrayList<>();
+        final long lastRecord;
+
+        Chunk(long lastRecord) {
+            this.lastRecord = lastRecord;
+        }
+
+        void reject(ImportRecord record, String message) {
+            record.error = message;
+            rejected.add(record);
+        }
+    }
+
+    /**
+     * @throws CancellationException если слушатель отменил загрузку; контрольная точка сохраняется
+     */
+    public ImportResult importFile(Path source, ExportFormat format, ProgressListener listener)
+            throws IOException, SQLException {
+        long start = System.nanoTime();
+        String fingerprint = Files.size(source) + ":" + Files.getLastModifiedTime(source).toMillis();
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(checkpointFile(source), fingerprint);
+        long resumedFrom = checkpoint.records;
+        LocalDateTime importTime = LocalDateTime.now();
+
+        Path reportFile = errorReportFile(source);
+        boolean appendReport = resumedFrom > 0 && Files.exists(reportFile);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService validators = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "product-import-" + threadNumber.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        BlockingQueue<Future<Chunk>> chunks = new ArrayBlockingQueue<>(workers * 2);
+        Thread reader = new Thread(() -> readChunks(source, format, resumedFrom, fingerprint, importTime,
+                validators, chunks), "product-import-reader");
+        reader.setDaemon(true);
+
+        try (Writer report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                appendReport ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (!appendReport) {
+                report.write("record,line,message,name\r\n");
+            }
+            reader.start();
+            while (true) {
+                Chunk chunk = take(chunks);
+                if (chunk == Chunk.END) {
+                    break;
+                }
+                checkpoint.imported += write(chunk);
+                for (ImportRecord record : chunk.rejected) {
+                    report.write(record.number + "," + record.line + ",");
+                    ExportFormat.csvField(report, record.error);
+                    report.write(',');
+                    ExportFormat.csvField(report, record.name);
+                    report.write("\r\n");
+                }
+                report.flush();
+                checkpoint.rejected += chunk.rejected.size();
+                checkpoint.records = chunk.lastRecord;
+                checkpoint.save();
+
+                if (listener != null) {
+                    listener.onProgress(checkpoint.records);
+                    if (listener.isCancelled()) {
+                        throw new CancellationException("Загрузка отменена");
+                    }
+                }
+            }
+        } finally {
+            reader.interrupt();
+            validators.shutdownNow();
+        }
+
+        checkpoint.delete();
+        if (checkpoint.rejected == 0) {
+            Files.deleteIfExists(reportFile);
+        }
+        return new ImportResult(checkpoint.imported, checkpoint.rejected, resumedFrom,
+                (System.nanoTime() - start) / 1_000_000, checkpoint.rejected > 0 ? reportFile : null);
+    }
+
+    private static Chunk take(BlockingQueue<Future<Chunk>> chunks) throws IOException, SQLException {
+        try {
+            return chunks.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Загрузка прервана");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // Поток чтения: делит записи на порции и отдаёт их на проверку, сохраняя порядок в очереди
+    private void readChunks(Path source, ExportFormat format, long skip, String fingerprint,
+                            LocalDateTime importTime, ExecutorService validators,
+                            BlockingQueue<Future<Chunk>> chunks) {
+        try {
+            try (Reader in = new InputStreamReader(Files.newInputStream(source), StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+                ProductRecordReader records = ProductRecordReader.open(in, format);
+                List<ImportRecord> batch = new ArrayList<>(chunkSize);
+                ImportRecord record;
+                while ((record = records.next()) != null) {
+                    if (record.number <= skip) {
+                        continue;
+                    }
+                    batch.add(record);
+                    if (batch.size() == chunkSize) {
+                        List<ImportRecord> full = batch;
+                        chunks.put(validators.submit(() -> validate(full, fingerprint, importTime)));
+                        batch = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    List<ImportRecord> last = batch;
+                    chunks.put(validators.submit(() -> validate(last, fingerprint, importTime)));
+                }
+            }
+            chunks.put(CompletableFuture.completedFuture(Chunk.END));
+        } catch (InterruptedException e) {
+            // Писатель завершил загрузку раньше (ошибка или отмена)
+        } catch (IOException | RuntimeException e) {
+            CompletableFuture<Chunk> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            try {
+                chunks.put(failed);
+            } catch (InterruptedException interrupted) {
+                // Писатель уже остановился
+            }
+        }
+    }
+
+    private static Chunk validate(List<ImportRecord> records, String fingerprint, LocalDateTime importTime) {
+        Chunk chunk = new Chunk(records.get(records.size() - 1).number);
+        for (ImportRecord record : records) {
+            if (record.error != null) {
+                chunk.rejected.add(record);
+                continue;
+            }
+            String error = ProductService.validate(record.name, record.description);
+            if (error != null) {
+                chunk.reject(record, error);
+                continue;
+            }
+            UUID id;
+            try {
+                id = record.id != null
+                        ? UUID.fromString(record.id.trim())
+                        : UUID.nameUUIDFromBytes((fingerprint + ":" + record.number).getBytes(StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                chunk.reject(record, "Некорректный id: " + record.id);
+                continue;
+            }
+            LocalDateTime createdAt;
+            LocalDateTime updatedAt;
+            try {
+                createdAt = record.createdAt != null ? LocalDateTime.parse(record.createdAt.trim()) : importTime;
+                updatedAt = record.updatedAt != null ? LocalDateTime.parse(record.updatedAt.trim()) : createdAt;
+            } catch (DateTimeParseException e) {
+                chunk.reject(record, "Некорректная дата: " + e.getParsedString());
+                continue;
+            }
+            // Полный конструктор: случайный id и текущее время всё равно были бы заменены
+            Product product = new Product(id, record.name, record.description, createdAt, updatedAt);
+            ProductService.trim(product);
+            chunk.valid.add(product);
+            chunk.validRecords.add(record);
+        }
+        return chunk;
+    }
+
+    /**
+     * Сохраняет порцию одной транзакцией. Если база отвергла какую-то строку
+     * (например, повтор id), порция откатывается и пишется по одной строке,
+     * чтобы отвергнутые попали в отчёт, а остальные — в базу.
+     *
+     * @return сколько строк сохранено
+     */
+    private int write(Chunk chunk) throws SQLException {
+        try {
+            productDAO.saveAll(chunk.valid);
+            return chunk.valid.size();
+        } catch (SQLException e) {
+            if (e.getErrorCode() != SQLITE_CONSTRAINT) {
+                throw e;
+            }
+        }
+        int saved = 0;
+        for (int i = 0; i < chunk.valid.size(); i++) {
+            try {
+                productDAO.save(chunk.valid.get(i));
+                saved++;
+            } catch (SQLException e) {
+                if (e.getErrorCode() != SQLITE_CONSTRAINT) {
+                    throw e;
+                }
+                chunk.reject(chunk.validRecords.get(i), "Отклонено базой: " + e.getMessage());
+            }
+        }
+        return saved;
+    }
+}
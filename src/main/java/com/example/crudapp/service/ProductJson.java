@@ -0,0 +1,89 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.model.Product;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Запись продукта одним JSON-объектом без промежуточных строк.
+ */
+public final class ProductJson {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ProductJson() {}
+
+    public static void write(Appendable out, Product product) throws IOException {
+        out.append("{\"id\":\"").append(product.getId().toString()).append('"');
+        out.append(",\"name\":");
+        quote(out, product.getName());
+        out.append(",\"description\":");
+        quote(out, product.getDescription());
+        out.append(",\"createdAt\":\"");
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(product.getCreatedAt(), out);
+        out.append("\",\"updatedAt\":\"");
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(product.getUpdatedAt(), out);
+        out.append("\"}");
+    }
+
+    /**
+     * Название и описание из одного JSON-объекта (например, тела запроса к API);
+     * остальные поля не читаются. Разбор тот же, что при загрузке NDJSON, поэтому
+     * переводы строк между полями заменяются пробелами: внутри строк JSON они
+     * всё равно экранированы.
+     *
+     * @return новый продукт с этими названием и описанием (без проверки)
+     * @throws IllegalArgumentException если это не JSON-объект
+     */
+    public static Product readNameAndDescription(String json) throws IOException {
+        String line = json.replace('\r', ' ').replace('\n', ' ');
+        ImportRecord record = ProductRecordReader.open(new StringReader(line), ExportFormat.NDJSON).next();
+        if (record == null) {
+            throw new IllegalArgumentException("Пустое тело запроса");
+        }
+        if (record.error != null) {
+            throw new IllegalArgumentException(record.error);
+        }
+        return new Product(record.name, record.description);
+    }
+
+    /**
+     * Строка JSON в кавычках; null записывается как {@code null}.
+     */
+    public static void quote(Appendable out, String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
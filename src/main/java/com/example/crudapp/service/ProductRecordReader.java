@@ -0,0 +1,327 @@
+package com.example.crudapp.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковое чтение записей из CSV (с заголовком, RFC 4180) или NDJSON.
+ * В памяти держится только текущая запись.
+ */
+abstract class ProductRecordReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    protected long line = 1;
+    private long records;
+
+    ProductRecordReader(Reader in) {
+        this.in = in;
+    }
+
+    static ProductRecordReader open(Reader in, ExportFormat format) throws IOException {
+        return format == ExportFormat.CSV ? new Csv(in) : new Ndjson(in);
+    }
+
+    /**
+     * @return следующая запись или null в конце файла
+     */
+    abstract ImportRecord next() throws IOException;
+
+    protected ImportRecord newRecord(long startLine) {
+        return new ImportRecord(++records, startLine);
+    }
+
+    protected int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    protected int peek() throws IOException {
+        int c = read();
+        if (c != -1) {
+            position--;
+        }
+        return c;
+    }
+
+    private static final class Csv extends ProductRecordReader {
+        private final int idColumn;
+        private final int nameColumn;
+        private final int descriptionColumn;
+        private final int createdAtColumn;
+        private final int updatedAtColumn;
+        private final StringBuilder field = new StringBuilder();
+
+        Csv(Reader in) throws IOException {
+            super(in);
+            List<String> header = readRow();
+            if (header == null) {
+                throw new IOException("Пустой файл CSV");
+            }
+            // Метка порядка байтов, которую добавляют табличные редакторы
+            if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+                header.set(0, header.get(0).substring(1));
+            }
+            idColumn = column(header, "id");
+            nameColumn = column(header, "name");
+            descriptionColumn = column(header, "description");
+            createdAtColumn = Math.max(column(header, "created_at"), column(header, "createdAt"));
+            updatedAtColumn = Math.max(column(header, "updated_at"), column(header, "updatedAt"));
+            if (nameColumn < 0) {
+                throw new IOException("В заголовке CSV нет столбца name");
+            }
+        }
+
+        private static int column(List<String> header, String name) {
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).trim().equalsIgnoreCase(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            List<String> row;
+            long startLine;
+            do {
+                startLine = line;
+                row = readRow();
+                if (row == null) {
+                    return null;
+                }
+            } while (row.size() == 1 && row.get(0).isEmpty()); // пустые строки пропускаем
+
+            ImportRecord record = newRecord(startLine);
+            record.id = get(row, idColumn);
+            record.name = get(row, nameColumn);
+            record.description = get(row, descriptionColumn);
+            record.createdAt = get(row, createdAtColumn);
+            record.updatedAt = get(row, updatedAtColumn);
+            return record;
+        }
+
+        private static String get(List<String> row, int column) {
+            if (column < 0 || column >= row.size()) {
+                return null;
+            }
+            String value = row.get(column);
+            return value.isEmpty() ? null : value;
+        }
+
+        private List<String> readRow() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> row = new ArrayList<>();
+            while (true) {
+                field.setLength(0);
+                if (c == '"') {
+                    while (true) {
+                        c = read();
+                        if (c == -1) {
+                            break;
+                        }
+                        if (c == '"') {
+                            c = read();
+                            if (c != '"') {
+                                break;
+                            }
+                        } else if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                }
+                // Текст без кавычек (или после закрывающей кавычки) — до разделителя
+                while (c != ',' && c != '\r' && c != '\n' && c != -1) {
+                    field.append((char) c);
+                    c = read();
+                }
+                row.add(field.toString());
+                if (c == ',') {
+                    c = read();
+                    continue;
+                }
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (c != -1) {
+                    line++;
+                }
+                return row;
+            }
+        }
+    }
+
+    private static final class Ndjson extends ProductRecordReader {
+        private final StringBuilder text = new StringBuilder();
+        private int index;
+
+        Ndjson(Reader in) {
+            super(in);
+        }
+
+        @Override
+        ImportRecord next() throws IOException {
+            long startLine;
+            do {
+                startLine = line;
+                if (!readLine()) {
+                    return null;
+                }
+            } while (text.toString().trim().isEmpty());
+
+            ImportRecord record = newRecord(startLine);
+            try {
+                parseObject(record);
+            } catch (IllegalArgumentException e) {
+                record.error = "Некорректный JSON: " + e.getMessage();
+            }
+            return record;
+        }
+
+        private boolean readLine() throws IOException {
+            text.setLength(0);
+            int c = read();
+            if (c == -1) {
+                return false;
+            }
+            while (c != '\n' && c != -1) {
+                if (c != '\r') {
+                    text.append((char) c);
+                }
+                c = read();
+            }
+            line++;
+            return true;
+        }
+
+        private void parseObject(ImportRecord record) {
+            index = 0;
+            skipSpaces();
+            expect('{');
+            skipSpaces();
+            if (peekChar() == '}') {
+                return;
+            }
+            while (true) {
+                skipSpaces();
+                String key = parseString();
+                skipSpaces();
+                expect(':');
+                skipSpaces();
+                String value = parseValue();
+                switch (key) {
+                    case "id": record.id = value; break;
+                    case "name": record.name = value; break;
+                    case "description": record.description = value; break;
+                    case "createdAt":
+                    case "created_at": record.createdAt = value; break;
+                    case "updatedAt":
+                    case "updated_at": record.updatedAt = value; break;
+                    default: break;
+                }
+                skipSpaces();
+                char c = nextChar();
+                if (c == '}') {
+                    return;
+                }
+                if (c != ',') {
+                    throw new IllegalArgumentException("ожидалась ',' или '}'");
+                }
+            }
+        }
+
+        private String parseValue() {
+            char c = peekChar();
+            if (c == '"') {
+                return parseString();
+            }
+            int start = index;
+            while (index < text.length() && ",} \t".indexOf(text.charAt(index)) < 0) {
+                index++;
+            }
+            String literal = text.substring(start, index);
+            if (literal.isEmpty()) {
+                throw new IllegalArgumentException("нет значения");
+            }
+            return "null".equals(literal) ? null : literal;
+        }
+
+        private String parseString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char c = nextChar();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                char escaped = nextChar();
+                switch (escaped) {
+                    case 'n': value.append('\n'); break;
+                    case 'r': value.append('\r'); break;
+                    case 't': value.append('\t'); break;
+                    case 'b': value.append('\b'); break;
+                    case 'f': value.append('\f'); break;
+                    case 'u':
+                        if (index + 4 > text.length()) {
+                            throw new IllegalArgumentException("обрезанная последовательность \\u");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(index, index + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("некорректная последовательность \\u");
+                        }
+                        index += 4;
+                        break;
+                    default: value.append(escaped); break;
+                }
+            }
+        }
+
+        private void skipSpaces() {
+            while (index < text.length() && Character.isWhitespace(text.charAt(index))) {
+                index++;
+            }
+        }
+
+        private char peekChar() {
+            if (index >= text.length()) {
+                throw new IllegalArgumentException("неожиданный конец строки");
+            }
+            return text.charAt(index);
+        }
+
+        private char nextChar() {
+            char c = peekChar();
+            index++;
+            return c;
+        }
+
+        private void expect(char expected) {
+            if (nextChar() != expected) {
+                throw new IllegalArgumentException("ожидался символ '" + expected + "'");
+            }
+        }
+    }
+}
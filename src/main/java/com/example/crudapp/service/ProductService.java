@@ -1,42 +1,136 @@
 package com.example.crudapp.service;
 
+import com.example.crudapp.dao.CachingProductDAO;
 import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.InstrumentedProductDAO;
+import com.example.crudapp.dao.PageCursor;
 import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.dao.SearchCursor;
+import com.example.crudapp.metrics.Metrics;
+import com.example.crudapp.model.Page;
 import com.example.crudapp.model.Product;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class ProductService {
     private ProductDAO productDAO;
+    private final ProductCounter productCounter =
+            new ProductCounter(Long.getLong("crudapp.count.resyncMs", 60_000L));
+    // Сколько результатов поиска держим в памяти для уточнения запроса без базы
+    private static final int SEARCH_CACHE_LIMIT = Integer.getInteger("crudapp.search.cacheLimit", 1000);
+    private final SearchResultCache searchResults = new SearchResultCache();
+    private volatile WriteBehindQueue writeBehind;
+    private final ProductEventBus events = new ProductEventBus();
 
     // Конструктор по умолчанию для реального использования
     public ProductService() {
         this.productDAO = createProductDAO();
+        if (WriteBehindQueue.isEnabled()) {
+            this.writeBehind = new WriteBehindQueue(productDAO);
+        }
     }
 
-    // Конструктор для инъекции зависимости (используется в тестах)
-    protected ProductService(ProductDAO productDAO) {
+    // Конструктор для инъекции зависимости (тесты, CachingProductDAO и другие декораторы)
+    public ProductService(ProductDAO productDAO) {
         this.productDAO = productDAO;
     }
 
-    // Метод для создания DAO (можно переопределить в тестах)
+    // Метод для создания DAO (можно переопределить в тестах). Замеры — под кэшем,
+    // чтобы dao.* показывали обращения к базе, а не попадания в кэш
     protected ProductDAO createProductDAO() {
-        return new DatabaseProductDAO();
+        ProductDAO database = new DatabaseProductDAO();
+        if (Metrics.isEnabled()) {
+            database = new InstrumentedProductDAO(database);
+        }
+        return new CachingProductDAO(database);
     }
 
-    public void createProduct(String name, String description) throws IllegalArgumentException, SQLException {
+    // Возвращает текст ошибки проверки или null, если данные корректны
+    static String validate(String name, String description) {
         if (name == null || name.trim().length() < 3 || name.trim().length() > 50) {
-            throw new IllegalArgumentException("Название должно содержать от 3 до 50 символов");
+            return "Название должно содержать от 3 до 50 символов";
         }
 
         if (description != null && description.length() > 255) {
-            throw new IllegalArgumentException("Описание не должно превышать 255 символов");
+            return "Описание не должно превышать 255 символов";
+        }
+
+        return null;
+    }
+
+    static void trim(Product product) {
+        product.setName(product.getName().trim());
+        if (product.getDescription() != null) {
+            product.setDescription(product.getDescription().trim());
+        }
+    }
+
+    /**
+     * Очередь отложенной записи для createProduct/updateProduct/deleteProduct или null,
+     * если они пишут сразу. Включается свойством {@value WriteBehindQueue#ENABLED_PROPERTY}.
+     */
+    public WriteBehindQueue getWriteBehind() {
+        return writeBehind;
+    }
+
+    public void setWriteBehind(WriteBehindQueue writeBehind) {
+        this.writeBehind = writeBehind;
+    }
+
+    /**
+     * Шина, на которую публикуется каждое записанное изменение (после фиксации,
+     * в том числе отложенной). Интерфейс обновляет по ней строки на месте.
+     */
+    public ProductEventBus getEventBus() {
+        return events;
+    }
+
+    /**
+     * @return созданный продукт (с присвоенным id и временем создания)
+     */
+    public Product createProduct(String name, String description) throws IllegalArgumentException, SQLException {
+        Product product = newProduct(name, description);
+        await(submitCreate(product));
+        return product;
+    }
+
+    /**
+     * Создаёт продукт и возвращает future, который завершается после записи.
+     * С очередью отложенной записи запись попадает в ближайшую групповую фиксацию,
+     * без неё выполняется сразу. Ошибка проверки выбрасывается сразу.
+     */
+    public CompletableFuture<Void> submitCreate(String name, String description) throws IllegalArgumentException {
+        return submitCreate(newProduct(name, description));
+    }
+
+    private static Product newProduct(String name, String description) {
+        String error = validate(name, description);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
+        return new Product(name.trim(), description != null ? description.trim() : null);
+    }
 
-        Product product = new Product(name.trim(), description != null ? description.trim() : null);
-        productDAO.save(product);
+    private CompletableFuture<Void> submitCreate(Product product) {
+        searchResults.invalidate();
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null) {
+            return runNow(() -> {
+                productDAO.save(product);
+                productCounter.adjust(1);
+                events.publish(ProductChangeEvent.created(product));
+            });
+        }
+        return afterWrite(queue.insert(product), 1, ProductChangeEvent.created(product));
     }
 
     public List<Product> getAllProducts() throws SQLException {
@@ -48,6 +142,95 @@ public class ProductService {
         return productDAO.findWithPagination(offset, pageSize);
     }
 
+    /**
+     * Страница по непрозрачному токену из предыдущей страницы; null — первая страница.
+     */
+    public Page<Product> getProductsPage(String pageToken, int pageSize) throws SQLException {
+        return productDAO.findPage(pageToken, pageSize);
+    }
+
+    /**
+     * Токен страницы, которая начинается сразу после {@code product} (как nextToken
+     * страницы, где он последний). Нужен, когда строки страницы поменялись на месте.
+     */
+    public String pageTokenAfter(Product product) {
+        return PageCursor.after(product).encode();
+    }
+
+    /**
+     * Ранжированный поиск по словам-префиксам в названии и описании.
+     *
+     * @param cursor токен следующей/предыдущей страницы этого же запроса или null
+     */
+    public Page<Product> searchProducts(String query, int limit, String cursor) throws SQLException {
+        List<Product> all = searchResults.lookup(query);
+        if (all != null) {
+            int offset = cursor != null ? SearchCursor.decode(cursor, query).getOffset() : 0;
+            return slice(query, all, offset, limit);
+        }
+        return productDAO.search(query, limit, cursor);
+    }
+
+    /**
+     * Первая страница поиска и число найденных строк. Подсчёт останавливается на
+     * {@code crudapp.search.cacheLimit} строках; если найдено не больше, все результаты
+     * читаются сразу и следующие страницы, а также уточнения запроса (дописанные слова)
+     * обслуживаются из памяти до первой записи через сервис.
+     */
+    public SearchResult searchFirstPage(String query, int limit) throws SQLException {
+        List<Product> all = searchResults.lookup(query);
+        if (all != null) {
+            return new SearchResult(slice(query, all, 0, limit), all.size(), true);
+        }
+        long version = searchResults.version();
+        int found = productDAO.countSearch(query, SEARCH_CACHE_LIMIT + 1);
+        if (found > SEARCH_CACHE_LIMIT) {
+            return new SearchResult(productDAO.search(query, limit, null), SEARCH_CACHE_LIMIT, false);
+        }
+        all = found == 0 ? new ArrayList<>() : productDAO.search(query, found, null).getItems();
+        searchResults.store(query, all, version);
+        return new SearchResult(slice(query, all, 0, limit), all.size(), true);
+    }
+
+    // Страница из сохранённых результатов с теми же токенами, что выдаёт ProductDAO.search
+    private static Page<Product> slice(String query, List<Product> all, int offset, int limit) {
+        int from = Math.min(offset, all.size());
+        int to = Math.min(all.size(), from + limit);
+        List<Product> items = new ArrayList<>(to - from);
+        for (Product product : all.subList(from, to)) {
+            items.add(new Product(product));
+        }
+        String nextToken = to < all.size() ? SearchCursor.at(query, to).encode() : null;
+        String previousToken = from > 0 ? SearchCursor.at(query, Math.max(0, from - limit)).encode() : null;
+        return new Page<>(items, nextToken, previousToken);
+    }
+
+    /**
+     * Строки списка начиная с позиции {@code offset}. Если известна строка прямо перед
+     * окном ({@code anchor}), окно читается по ключу от неё, иначе через OFFSET.
+     */
+    public List<Product> getProductsRange(Product anchor, int offset, int limit) throws SQLException {
+        if (anchor != null) {
+            return productDAO.findPage(PageCursor.after(anchor).encode(), limit).getItems();
+        }
+        if (offset == 0) {
+            return productDAO.findPage(null, limit).getItems();
+        }
+        return productDAO.findWithPagination(offset, limit);
+    }
+
+    /**
+     * Окно результатов поиска начиная с позиции {@code offset}.
+     */
+    public List<Product> searchProductsRange(String query, int offset, int limit) throws SQLException {
+        String token = offset > 0 ? SearchCursor.at(query, offset).encode() : null;
+        return productDAO.search(query, limit, token).getItems();
+    }
+
+    public int countSearchResults(String query) throws SQLException {
+        return productDAO.countSearch(query);
+    }
+
     public List<Product> searchProductsByName(String name) throws SQLException {
         return productDAO.findByName(name);
     }
@@ -57,30 +240,227 @@ public class ProductService {
     }
 
     public void updateProduct(Product product) throws IllegalArgumentException, SQLException {
-        if (product.getName() == null || product.getName().trim().length() < 3 ||
-                product.getName().trim().length() > 50) {
-            throw new IllegalArgumentException("Название должно содержать от 3 до 50 символов");
-        }
+        await(submitUpdate(product));
+    }
 
-        if (product.getDescription() != null && product.getDescription().length() > 255) {
-            throw new IllegalArgumentException("Описание не должно превышать 255 символов");
+    public CompletableFuture<Void> submitUpdate(Product product) throws IllegalArgumentException {
+        String error = validate(product.getName(), product.getDescription());
+        if (error != null) {
+            throw new IllegalArgumentException(error);
         }
 
         // Обрезаем пробелы
-        product.setName(product.getName().trim());
-        if (product.getDescription() != null) {
-            product.setDescription(product.getDescription().trim());
+        trim(product);
+
+        searchResults.invalidate();
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null) {
+            return runNow(() -> {
+                productDAO.update(product);
+                events.publish(ProductChangeEvent.updated(product));
+            });
+        }
+        return queue.update(product).thenAccept(written -> {
+            searchResults.invalidate();
+            if (written != null) {
+                events.publish(ProductChangeEvent.updated(written));
+            }
+        });
+    }
+
+    /**
+     * @return false, если продукта с таким id не было
+     */
+    public boolean deleteProduct(UUID id) throws SQLException {
+        return !Boolean.FALSE.equals(await(submitDelete(id)));
+    }
+
+    /**
+     * @return future с ответом, была ли строка; null, если при отложенной записи это
+     * неизвестно (см. {@link WriteBehindQueue#delete})
+     */
+    public CompletableFuture<Boolean> submitDelete(UUID id) {
+        searchResults.invalidate();
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null) {
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            try {
+                boolean removed = productDAO.delete(id) > 0;
+                afterDelete(id, removed);
+                future.complete(removed);
+            } catch (SQLException | RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+        return queue.delete(id).thenApply(removed -> {
+            searchResults.invalidate();
+            afterDelete(id, removed);
+            return removed;
+        });
+    }
+
+    // Счётчик и подписчики меняются, только если строка действительно была
+    private void afterDelete(UUID id, Boolean removed) {
+        if (removed == null) {
+            productCounter.invalidate();
+            events.publish(ProductChangeEvent.reload());
+        } else if (removed) {
+            productCounter.adjust(-1);
+            events.publish(ProductChangeEvent.deleted(id));
+        }
+    }
+
+    private interface Write {
+        void run() throws SQLException;
+    }
+
+    private static CompletableFuture<Void> runNow(Write write) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        try {
+            write.run();
+            future.complete(null);
+        } catch (SQLException | RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // Поиск, выполненный до фиксации, мог сохранить старые результаты
+    private CompletableFuture<Void> afterWrite(CompletableFuture<Void> written, int countDelta,
+                                               ProductChangeEvent event) {
+        return written.thenRun(() -> {
+            searchResults.invalidate();
+            productCounter.adjust(countDelta);
+            events.publish(event);
+        });
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws SQLException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Пакетное создание. Сначала проверяется весь список, затем корректные строки
+     * записываются одной транзакцией; отклонённые перечислены в результате.
+     */
+    public BatchResult createProducts(List<Product> products) throws SQLException {
+        List<BatchResult.RowFailure> failures = new ArrayList<>();
+        List<Product> valid = validateAll(products, failures);
+        searchResults.invalidate();
+        productDAO.saveAll(valid);
+        productCounter.adjust(valid.size());
+        if (events.hasListeners()) {
+            for (Product product : valid) {
+                events.publish(ProductChangeEvent.created(product));
+            }
+        }
+        return new BatchResult(valid.size(), failures);
+    }
+
+    public BatchResult updateProducts(List<Product> products) throws SQLException {
+        List<BatchResult.RowFailure> failures = new ArrayList<>();
+        List<Product> valid = validateAll(products, failures);
+        searchResults.invalidate();
+        productDAO.updateAll(valid);
+        if (events.hasListeners()) {
+            for (Product product : valid) {
+                events.publish(ProductChangeEvent.updated(product));
+            }
+        }
+        return new BatchResult(valid.size(), failures);
+    }
+
+    public int deleteProducts(Collection<UUID> ids) throws SQLException {
+        searchResults.invalidate();
+        int deleted = productDAO.deleteAll(ids);
+        productCounter.adjust(-deleted);
+        if (deleted != ids.size()) {
+            // Каких именно строк не было, неизвестно
+            events.publish(ProductChangeEvent.reload());
+        } else if (events.hasListeners()) {
+            for (UUID id : ids) {
+                events.publish(ProductChangeEvent.deleted(id));
+            }
+        }
+        return deleted;
+    }
+
+    private static List<Product> validateAll(List<Product> products, List<BatchResult.RowFailure> failures) {
+        List<Product> valid = new ArrayList<>(products.size());
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            String error = product == null
+                    ? "Пустая строка"
+                    : validate(product.getName(), product.getDescription());
+            if (error != null) {
+                failures.add(new BatchResult.RowFailure(i, error));
+            } else {
+                trim(product);
+                valid.add(product);
+            }
         }
+        return valid;
+    }
 
-        productDAO.update(product);
+    /**
+     * Выгружает весь каталог в файл потоком, см. {@link ProductExporter}.
+     */
+    public long exportProducts(Path target, ExportFormat format, ProgressListener listener)
+            throws SQLException, IOException {
+        return new ProductExporter(productDAO).export(target, format, listener);
     }
 
-    public void deleteProduct(UUID id) throws SQLException {
-        productDAO.delete(id);
+    /**
+     * Пишет весь каталог в {@code out} потоком (например, в ответ HTTP); поток не закрывается.
+     */
+    public long exportProducts(Writer out, ExportFormat format, ProgressListener listener)
+            throws SQLException, IOException {
+        return new ProductExporter(productDAO).export(out, format, listener);
     }
 
+    /**
+     * Загружает каталог из файла, см. {@link ProductImporter}.
+     */
+    public ImportResult importProducts(Path source, ExportFormat format, ProgressListener listener)
+            throws SQLException, IOException {
+        searchResults.invalidate();
+        try {
+            return new ProductImporter(productDAO).importFile(source, format, listener);
+        } finally {
+            // Число строк после загрузки (в том числе прерванной) проще перечитать
+            productCounter.invalidate();
+            searchResults.invalidate();
+            events.publish(ProductChangeEvent.reload());
+        }
+    }
+
+    /**
+     * Количество продуктов из поддерживаемого сервисом счётчика; COUNT(*) выполняется
+     * только при первом обращении и при периодической сверке.
+     */
     public int getTotalProductCount() throws SQLException {
-        return productDAO.countAll();
+        return productCounter.get(productDAO);
+    }
+
+    /**
+     * Заново считывает количество из базы при следующем обращении
+     * и забывает сохранённые результаты поиска.
+     */
+    public void refreshProductCount() {
+        productCounter.invalidate();
+        searchResults.invalidate();
     }
 
     public int getTotalPages(int pageSize) throws SQLException {
@@ -99,5 +479,7 @@ public class ProductService {
     // Метод для сброса DAO (для тестов)
     protected void setProductDAO(ProductDAO productDAO) {
         this.productDAO = productDAO;
+        productCounter.invalidate();
+        searchResults.invalidate();
     }
 }
\ No newline at end of file
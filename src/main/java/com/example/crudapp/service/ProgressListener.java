@@ -0,0 +1,15 @@
+package com.example.crudapp.service;
+
+/**
+ * Ход длительной операции (выгрузки, загрузки): сколько строк уже обработано.
+ */
+public interface ProgressListener {
+    void onProgress(long rows);
+
+    /**
+     * Проверяется между порциями строк; true прерывает операцию.
+     */
+    default boolean isCancelled() {
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+
+/**
+ * Первая страница поиска вместе с оценкой общего числа найденных строк.
+ */
+public class SearchResult {
+    private final Page<Product> page;
+    private final int total;
+    private final boolean totalExact;
+
+    public SearchResult(Page<Product> page, int total, boolean totalExact) {
+        this.page = page;
+        this.total = total;
+        this.totalExact = totalExact;
+    }
+
+    public Page<Product> getPage() { return page; }
+
+    /**
+     * Число найденных строк; если {@link #isTotalExact()} ложно — нижняя граница.
+     */
+    public int getTotal() { return total; }
+    public boolean isTotalExact() { return totalExact; }
+
+    @Override
+    public String toString() {
+        return "SearchResult{" +
+                "items=" + page.getItems().size() +
+                ", total=" + (totalExact ? "" : ">=") + total +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.dao.FtsQuery;
+import com.example.crudapp.model.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Полный список результатов последнего поиска, если он был небольшим.
+ *
+ * <p>Пока пользователь дописывает запрос, каждый следующий вариант находит
+ * подмножество предыдущего: если каждое прежнее слово — начало нового слова
+ * на той же позиции, новые результаты отбираются из сохранённых без запроса к базе.
+ * Порядок при этом берётся из исходного ранжирования.</p>
+ */
+class SearchResultCache {
+    private List<String> tokens;
+    private List<Product> results;
+    // Растёт при каждой записи: результаты, прочитанные до неё, не сохраняются
+    private long version;
+
+    synchronized long version() {
+        return version;
+    }
+
+    /**
+     * @return все результаты запроса или null, если их нельзя получить без базы
+     */
+    synchronized List<Product> lookup(String query) {
+        if (results == null) {
+            return null;
+        }
+        List<String> queryTokens = FtsQuery.tokens(query);
+        if (queryTokens.equals(tokens)) {
+            return results;
+        }
+        if (!extendsCached(queryTokens)) {
+            return null;
+        }
+        List<Product> filtered = new ArrayList<>();
+        for (Product product : results) {
+            if (FtsQuery.matches(queryTokens, product.getName(), product.getDescription())) {
+                filtered.add(product);
+            }
+        }
+        tokens = queryTokens;
+        results = Collections.unmodifiableList(filtered);
+        return results;
+    }
+
+    private boolean extendsCached(List<String> queryTokens) {
+        if (tokens.isEmpty() || queryTokens.size() < tokens.size()) {
+            return false;
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            if (!queryTokens.get(i).startsWith(tokens.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized void store(String query, List<Product> all, long readAtVersion) {
+        if (readAtVersion != version) {
+            return;
+        }
+        tokens = FtsQuery.tokens(query);
+        results = Collections.unmodifiableList(new ArrayList<>(all));
+    }
+
+    synchronized void invalidate() {
+        version++;
+        tokens = null;
+        results = null;
+    }
+}
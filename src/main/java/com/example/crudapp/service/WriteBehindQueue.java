@@ -0,0 +1,472 @@
+package com.example.crudapp.service;
+
+import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.model.Product;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отложенная запись с групповой фиксацией.
+ *
+ * <p>Изменения складываются в ограниченную очередь, а единственный поток записи
+ * забирает их группой, когда набралось {@code maxBatch} продуктов или прошло
+ * {@code windowMillis} с первого изменения группы, и записывает одной транзакцией
+ * ({@link ProductDAO#writeAll}). Повторные изменения одного продукта внутри группы
+ * сливаются в одну запись: создание и изменение — в создание с новыми значениями,
+ * изменение и удаление — в удаление, создание и удаление — ни во что.</p>
+ *
+ * <p>Future каждого изменения завершается после фиксации его группы; future удаления
+ * сообщает, была ли строка (см. {@link #delete}). Если группа
+ * не записалась целиком, её изменения записываются по одному, и ошибку получают
+ * только те, что не записались. Когда в очереди {@code capacity} продуктов, новые
+ * изменения ждут места (не дольше {@code offerTimeoutMillis}).</p>
+ *
+ * <p>Все открытые очереди дописываются и закрываются {@link #closeAll()} (хук
+ * завершения приложения).</p>
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+    public static final String ENABLED_PROPERTY = "crudapp.writeBehind.enabled";
+    public static final String WINDOW_PROPERTY = "crudapp.writeBehind.windowMs";
+    public static final String MAX_BATCH_PROPERTY = "crudapp.writeBehind.maxBatch";
+    public static final String CAPACITY_PROPERTY = "crudapp.writeBehind.capacity";
+
+    public static final long DEFAULT_WINDOW_MILLIS = 10;
+    public static final int DEFAULT_MAX_BATCH = 500;
+    public static final int DEFAULT_CAPACITY = 10_000;
+    public static final long DEFAULT_OFFER_TIMEOUT_MILLIS = 30_000;
+    private static final long CLOSE_TIMEOUT_MILLIS = 30_000;
+
+    private static final Set<WriteBehindQueue> OPEN = ConcurrentHashMap.newKeySet();
+
+    private enum Kind { INSERT, UPDATE, DELETE }
+
+    /**
+     * Итоговое изменение одного продукта в группе и все ждущие его future.
+     */
+    private static final class Pending {
+        Kind kind;
+        Product product;
+        final UUID id;
+        // Вставка id, удаление которого ещё не записано: сначала удалить, потом вставить
+        boolean replace;
+        final List<Waiter> waiters = new ArrayList<>(1);
+
+        Pending(Kind kind, UUID id, Product product) {
+            this.kind = kind;
+            this.id = id;
+            this.product = product;
+        }
+    }
+
+    /**
+     * Future одного изменения. Для удаления {@code removed} — заранее известный ответ,
+     * была ли строка, или null, если ответ даст запись в базу; для вставки и изменения не важен.
+     */
+    private static final class Waiter {
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        final Pending entry;
+        final Boolean removed;
+
+        Waiter(Pending entry, Boolean removed) {
+            this.entry = entry;
+            this.removed = removed;
+        }
+    }
+
+    private final ProductDAO productDAO;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final int capacity;
+    private final long offerTimeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private LinkedHashMap<UUID, Pending> pending = new LinkedHashMap<>();
+    private long windowStartNanos;
+    private int inFlight;
+    private boolean closed;
+    private final Thread flusher;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong writtenCount = new AtomicLong();
+    private final AtomicLong groupCount = new AtomicLong();
+    private final AtomicLong fallbackCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    /**
+     * Очередь с настройками из системных свойств ({@value #WINDOW_PROPERTY} и др.).
+     */
+    public WriteBehindQueue(ProductDAO productDAO) {
+        this(productDAO, Long.getLong(WINDOW_PROPERTY, DEFAULT_WINDOW_MILLIS),
+                Integer.getInteger(MAX_BATCH_PROPERTY, DEFAULT_MAX_BATCH),
+                Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY), DEFAULT_OFFER_TIMEOUT_MILLIS);
+    }
+
+    public WriteBehindQueue(ProductDAO productDAO, long windowMillis, int maxBatch, int capacity,
+                            long offerTimeoutMillis) {
+        if (maxBatch < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Размер группы и ёмкость очереди должны быть положительными");
+        }
+        this.productDAO = productDAO;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatch = maxBatch;
+        this.capacity = capacity;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.flusher = new Thread(this::runFlusher, "product-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+        OPEN.add(this);
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ENABLED_PROPERTY);
+    }
+
+    /**
+     * Дописывает и закрывает все открытые очереди.
+     */
+    public static void closeAll() {
+        for (WriteBehindQueue queue : new ArrayList<>(OPEN)) {
+            queue.close();
+        }
+    }
+
+    public CompletableFuture<Void> insert(Product product) {
+        return submit(Kind.INSERT, product.getId(), new Product(product)).future.thenApply(removed -> null);
+    }
+
+    /**
+     * @return future с записанной копией продукта (с updated_at из базы) или null,
+     * если продукт удалён в той же группе. Копию изменять нельзя
+     */
+    public CompletableFuture<Product> update(Product product) {
+        Waiter waiter = submit(Kind.UPDATE, product.getId(), new Product(product));
+        // После выдачи группы писателю запись больше не меняется
+        return waiter.future.thenApply(removed -> waiter.entry.product);
+    }
+
+    /**
+     * @return future с ответом, была ли строка. Удаление продукта, созданного в той же
+     * группе, — true, повторное удаление — false. Null, если в одной транзакции удалялись
+     * и существующие, и отсутствующие строки: writeAll сообщает только их общее число
+     */
+    public CompletableFuture<Boolean> delete(UUID id) {
+        return submit(Kind.DELETE, id, null).future;
+    }
+
+    private Waiter submit(Kind kind, UUID id, Product product) {
+        Waiter waiter;
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+            while (!closed && pending.size() >= capacity && !pending.containsKey(id)) {
+                if (remaining <= 0) {
+                    throw new RejectedExecutionException("Очередь записи переполнена (" + capacity + ")");
+                }
+                try {
+                    remaining = notFull.awaitNanos(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Ожидание места в очереди записи прервано", e);
+                }
+            }
+            if (closed) {
+                throw new RejectedExecutionException("Очередь записи закрыта");
+            }
+            if (pending.isEmpty()) {
+                windowStartNanos = System.nanoTime();
+            }
+            waiter = merge(kind, id, product);
+            submittedCount.incrementAndGet();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        return waiter;
+    }
+
+    // Вызывается под lock
+    private Waiter merge(Kind kind, UUID id, Product product) {
+        Pending current = pending.get(id);
+        if (current == null) {
+            current = new Pending(kind, id, product);
+            pending.put(id, current);
+            return addWaiter(current, kind == Kind.DELETE ? null : Boolean.FALSE);
+        }
+        Waiter waiter;
+        if (kind != Kind.DELETE) {
+            waiter = addWaiter(current, Boolean.FALSE);
+        } else if (current.kind == Kind.INSERT) {
+            // Удаляется строка, вставленная в этой же группе
+            waiter = addWaiter(current, Boolean.TRUE);
+        } else if (current.kind == Kind.UPDATE) {
+            waiter = addWaiter(current, null);
+        } else {
+            // Уже удалён (или создан и удалён) в этой группе
+            waiter = addWaiter(current, Boolean.FALSE);
+        }
+        switch (kind) {
+            case INSERT:
+                // Повторная вставка после удаления из этой же группы
+                current.replace = current.kind == Kind.DELETE || current.replace;
+                current.kind = Kind.INSERT;
+                current.product = product;
+                break;
+            case UPDATE:
+                if (current.kind == Kind.DELETE) {
+                    // Изменение удалённого продукта ничего не меняет
+                    break;
+                }
+                current.product = product;
+                break;
+            case DELETE:
+                if (current.kind == null || current.kind == Kind.INSERT && !current.replace) {
+                    // Продукт создан и удалён в одной группе: в базу не пишем ничего
+                    current.product = null;
+                    current.kind = null;
+                } else {
+                    current.kind = Kind.DELETE;
+                    current.product = null;
+                    current.replace = false;
+                }
+                break;
+            default:
+                break;
+        }
+        return waiter;
+    }
+
+    private static Waiter addWaiter(Pending entry, Boolean removed) {
+        Waiter waiter = new Waiter(entry, removed);
+        entry.waiters.add(waiter);
+        return waiter;
+    }
+
+    private void runFlusher() {
+        while (true) {
+            Map<UUID, Pending> group;
+            lock.lock();
+            try {
+                while (pending.isEmpty() && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (pending.isEmpty()) {
+                    flushed.signalAll();
+                    return;
+                }
+                // Окно группы: ждём до maxBatch продуктов или конца окна
+                while (!closed && pending.size() < maxBatch) {
+                    // flush() сдвигает начало окна, поэтому срок пересчитывается на каждом шаге
+                    long remaining = windowStartNanos + windowNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    try {
+                        notEmpty.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        // Поток записи прерывают только при закрытии; дописываем то, что есть
+                        break;
+                    }
+                }
+                group = pending;
+                pending = new LinkedHashMap<>();
+                inFlight = group.size();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            write(group.values());
+
+            lock.lock();
+            try {
+                inFlight = 0;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void write(Iterable<Pending> group) {
+        List<Pending> entries = new ArrayList<>();
+        for (Pending entry : group) {
+            if (entry.kind == null) {
+                complete(entry, null, null);
+            } else {
+                entries.add(entry);
+            }
+        }
+        if (entries.isEmpty()) {
+            return;
+        }
+        Boolean removed;
+        try {
+            removed = apply(entries);
+            groupCount.incrementAndGet();
+        } catch (SQLException | RuntimeException e) {
+            writeOneByOne(entries, e);
+            return;
+        }
+        for (Pending entry : entries) {
+            complete(entry, null, removed);
+        }
+    }
+
+    private void writeOneByOne(List<Pending> entries, Exception groupError) {
+        if (entries.size() == 1) {
+            complete(entries.get(0), groupError, null);
+            return;
+        }
+        // Одна неудачная запись не должна отменять чужие: пишем по одной
+        fallbackCount.incrementAndGet();
+        for (Pending entry : entries) {
+            Boolean removed;
+            try {
+                removed = apply(Collections.singletonList(entry));
+            } catch (SQLException | RuntimeException single) {
+                complete(entry, single, null);
+                continue;
+            }
+            complete(entry, null, removed);
+        }
+    }
+
+    /**
+     * @return были ли удаляемые строки: true — все, false — ни одной, null — часть
+     */
+    private Boolean apply(List<Pending> entries) throws SQLException {
+        List<Product> inserts = new ArrayList<>();
+        List<Product> updates = new ArrayList<>();
+        List<UUID> deletes = new ArrayList<>();
+        for (Pending entry : entries) {
+            switch (entry.kind) {
+                case INSERT:
+                    if (entry.replace) {
+                        deletes.add(entry.id);
+                    }
+                    inserts.add(entry.product);
+                    break;
+                case UPDATE:
+                    updates.add(entry.product);
+                    break;
+                case DELETE:
+                    deletes.add(entry.id);
+                    break;
+                default:
+                    break;
+            }
+        }
+        int deleted = productDAO.writeAll(inserts, updates, deletes);
+        if (deleted == deletes.size()) {
+            return Boolean.TRUE;
+        }
+        return deleted == 0 ? Boolean.FALSE : null;
+    }
+
+    // Счётчики до завершения future: дождавшийся записи видит их уже обновлёнными
+    private void complete(Pending entry, Throwable error, Boolean removed) {
+        if (error == null) {
+            writtenCount.addAndGet(entry.waiters.size());
+        } else {
+            failedCount.addAndGet(entry.waiters.size());
+        }
+        for (Waiter waiter : entry.waiters) {
+            CompletableFuture<Boolean> future = waiter.future;
+            if (error == null) {
+                future.complete(waiter.removed != null ? waiter.removed : removed);
+            } else {
+                future.completeExceptionally(error);
+            }
+        }
+    }
+
+    /**
+     * Ждёт, пока будет записано всё, что уже в очереди.
+     *
+     * @return false, если не дождались за {@code timeoutMillis}
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            // Не ждём конца окна: группа уходит сразу
+            windowStartNanos = System.nanoTime() - windowNanos;
+            notEmpty.signal();
+            while (!pending.isEmpty() || inFlight > 0) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size() + inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Сколько изменений принято в очередь. */
+    public long getSubmittedCount() { return submittedCount.get(); }
+    /** Сколько изменений записано (включая слитые с другими). */
+    public long getWrittenCount() { return writtenCount.get(); }
+    /** Сколько изменений завершилось ошибкой. */
+    public long getFailedCount() { return failedCount.get(); }
+    /** Сколько групп записано одной транзакцией. */
+    public long getGroupCount() { return groupCount.get(); }
+    /** Сколько групп пришлось записывать по одному изменению. */
+    public long getFallbackCount() { return fallbackCount.get(); }
+
+    /**
+     * Перестаёт принимать изменения, дописывает очередь и останавливает поток записи.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            System.out.println("Очередь записи не дописана за " + CLOSE_TIMEOUT_MILLIS + " мс, осталось: "
+                    + getPendingCount());
+        }
+        OPEN.remove(this);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.AsyncProductService;
+import com.example.crudapp.service.ProductService;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncProductServiceTest {
+
+    private static class SlowProductDAO extends ProductDAO {
+        final AtomicInteger findByIdCalls = new AtomicInteger();
+        volatile String callerThread;
+        volatile boolean fail;
+
+        @Override
+        public Product findById(UUID id) throws SQLException {
+            findByIdCalls.incrementAndGet();
+            callerThread = Thread.currentThread().getName();
+            if (fail) throw new SQLException("Test exception");
+            Product product = new Product("Async", "Desc");
+            product.setId(id);
+            return product;
+        }
+
+        @Override
+        protected Connection getConnection() {
+            return null;
+        }
+    }
+
+    private SlowProductDAO dao;
+    private AsyncProductService asyncService;
+
+    @BeforeEach
+    void setUp() {
+        dao = new SlowProductDAO();
+        asyncService = new AsyncProductService(new ProductService(dao), Executors.newSingleThreadExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.close();
+    }
+
+    @Test
+    void testCallRunsOffCallerThread() {
+        UUID id = UUID.randomUUID();
+
+        Product product = asyncService.getProductById(id).join();
+
+        assertEquals(id, product.getId());
+        assertNotEquals(Thread.currentThread().getName(), dao.callerThread);
+    }
+
+    @Test
+    void testSqlExceptionIsDeliveredThroughFuture() {
+        dao.fail = true;
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> asyncService.getProductById(UUID.randomUUID()).join());
+
+        assertTrue(AsyncProductService.unwrap(e) instanceof SQLException);
+    }
+
+    @Test
+    void testCancelledCallIsNotExecuted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // Занимаем единственный поток, чтобы следующий вызов встал в очередь
+        CompletableFuture<Void> blocker = asyncService.run(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        CompletableFuture<Product> queued = asyncService.getProductById(UUID.randomUUID());
+        queued.cancel(false);
+        release.countDown();
+        blocker.get(5, TimeUnit.SECONDS);
+        asyncService.getProductById(UUID.randomUUID()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(queued.isCancelled());
+        assertEquals(1, dao.findByIdCalls.get());
+    }
+
+    @Test
+    void testDefaultExecutorIsUsable() throws Exception {
+        ExecutorService executor = AsyncProductService.createDefaultExecutor();
+        try {
+            assertEquals(42, (int) executor.submit(() -> 42).get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.CachingProductDAO;
+import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ProductService;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingProductDAOTest {
+
+    private static class CountingProductDAO extends ProductDAO {
+        private final List<Product> products = new ArrayList<>();
+        int findByIdCalls;
+        int findPageCalls;
+
+        @Override
+        public void save(Product product) {
+            products.add(new Product(product));
+        }
+
+        @Override
+        public Product findById(UUID id) {
+            findByIdCalls++;
+            return products.stream()
+                    .filter(p -> p.getId().equals(id))
+                    .map(Product::new)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        @Override
+        public Page<Product> findPage(String pageToken, int limit) {
+            findPageCalls++;
+            List<Product> items = new ArrayList<>();
+            for (int i = 0; i < Math.min(limit, products.size()); i++) {
+                items.add(new Product(products.get(i)));
+            }
+            return new Page<>(items, null, null);
+        }
+
+        @Override
+        public void update(Product product) {
+            for (int i = 0; i < products.size(); i++) {
+                if (products.get(i).getId().equals(product.getId())) {
+                    products.set(i, new Product(product));
+                }
+            }
+        }
+
+        @Override
+        public int delete(UUID id) {
+            return products.removeIf(p -> p.getId().equals(id)) ? 1 : 0;
+        }
+
+        @Override
+        protected Connection getConnection() {
+            return null;
+        }
+    }
+
+    private CountingProductDAO backing;
+    private CachingProductDAO cachingDAO;
+
+    @BeforeEach
+    void setUp() {
+        backing = new CountingProductDAO();
+        cachingDAO = new CachingProductDAO(backing, 2, 60_000, 10, 60_000);
+    }
+
+    @Test
+    void testFindByIdIsServedFromCache() throws SQLException {
+        Product product = new Product("Cached", "Desc");
+        cachingDAO.save(product);
+
+        cachingDAO.findById(product.getId());
+        cachingDAO.findById(product.getId());
+        cachingDAO.findById(product.getId());
+
+        assertEquals(1, backing.findByIdCalls);
+        assertEquals(2, cachingDAO.getProductCacheStats().getHits());
+        assertEquals(1, cachingDAO.getProductCacheStats().getMisses());
+    }
+
+    @Test
+    void testReturnedProductsAreCopies() throws SQLException {
+        Product product = new Product("Original", "Desc");
+        cachingDAO.save(product);
+
+        cachingDAO.findById(product.getId()).setName("Changed by caller");
+
+        assertEquals("Original", cachingDAO.findById(product.getId()).getName());
+    }
+
+    @Test
+    void testUpdateThroughServiceInvalidatesEntry() throws SQLException {
+        ProductService service = new ProductService(cachingDAO);
+        Product product = new Product("Before", "Desc");
+        cachingDAO.save(product);
+        cachingDAO.findById(product.getId());
+
+        product.setName("After");
+        service.updateProduct(product);
+
+        assertEquals("After", service.getProductById(product.getId()).getName());
+        assertEquals(2, backing.findByIdCalls);
+    }
+
+    @Test
+    void testPagesAreCachedUntilWrite() throws SQLException {
+        cachingDAO.save(new Product("First", "Desc"));
+
+        cachingDAO.findPage(null, 10);
+        cachingDAO.findPage(null, 10);
+        assertEquals(1, backing.findPageCalls);
+
+        cachingDAO.save(new Product("Second", "Desc"));
+        Page<Product> page = cachingDAO.findPage(null, 10);
+        assertEquals(2, backing.findPageCalls);
+        assertEquals(2, page.getItems().size());
+    }
+
+    @Test
+    void testDeleteInvalidatesEntry() throws SQLException {
+        Product product = new Product("To delete", "Desc");
+        cachingDAO.save(product);
+        cachingDAO.findById(product.getId());
+
+        cachingDAO.delete(product.getId());
+
+        assertNull(cachingDAO.findById(product.getId()));
+    }
+
+    @Test
+    void testCacheSizeIsBounded() throws SQLException {
+        for (int i = 0; i < 3; i++) {
+            Product product = new Product("Product " + i, "Desc");
+            cachingDAO.save(product);
+            cachingDAO.findById(product.getId());
+        }
+
+        assertEquals(2, cachingDAO.getProductCacheStats().getSize());
+        assertEquals(1, cachingDAO.getProductCacheStats().getEvictions());
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() throws Exception {
+        CachingProductDAO shortLived = new CachingProductDAO(backing, 10, 20, 10, 20);
+        Product product = new Product("Short lived", "Desc");
+        shortLived.save(product);
+
+        shortLived.findById(product.getId());
+        Thread.sleep(40);
+        shortLived.findById(product.getId());
+
+        assertEquals(2, backing.findByIdCalls);
+    }
+
+    // Чтение уже получило строку из базы и ждёт, пока параллельно пройдёт запись
+    private static class PausingProductDAO extends CountingProductDAO {
+        volatile CountDownLatch read;
+        volatile CountDownLatch release;
+
+        void pauseNextRead() {
+            read = new CountDownLatch(1);
+            release = new CountDownLatch(1);
+        }
+
+        private <T> T pause(T result) {
+            CountDownLatch current = read;
+            if (current != null && current.getCount() > 0) {
+                current.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Product findById(UUID id) {
+            return pause(super.findById(id));
+        }
+
+        @Override
+        public Page<Product> findPage(String pageToken, int limit) {
+            return pause(super.findPage(pageToken, limit));
+        }
+    }
+
+    private static <T> T readDuringUpdate(PausingProductDAO backing, CachingProductDAO dao, Product changed,
+                                          Callable<T> read) throws Exception {
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            backing.pauseNextRead();
+            Future<T> result = reader.submit(read);
+            assertTrue(backing.read.await(5, TimeUnit.SECONDS));
+            dao.update(changed);
+            backing.release.countDown();
+            return result.get(5, TimeUnit.SECONDS);
+        } finally {
+            reader.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReadRacingWithUpdateDoesNotCacheStaleRow() throws Exception {
+        PausingProductDAO slow = new PausingProductDAO();
+        CachingProductDAO dao = new CachingProductDAO(slow, 10, 60_000, 10, 60_000);
+        Product product = new Product("Старое", "Desc");
+        dao.save(product);
+
+        Product changed = new Product(product);
+        changed.setName("Новое");
+        Product stale = readDuringUpdate(slow, dao, changed, () -> dao.findById(product.getId()));
+        // Чтение вернуло то, что успело прочитать, но в кэш это не попало
+        assertEquals("Старое", stale.getName());
+        assertEquals("Новое", dao.findById(product.getId()).getName());
+
+        Product again = new Product(changed);
+        again.setName("Ещё новее");
+        Page<Product> stalePage = readDuringUpdate(slow, dao, again, () -> dao.findPage(null, 10));
+        assertEquals("Новое", stalePage.getItems().get(0).getName());
+        assertEquals("Ещё новее", dao.findPage(null, 10).getItems().get(0).getName());
+        assertEquals("Ещё новее", dao.findById(product.getId()).getName());
+    }
+}
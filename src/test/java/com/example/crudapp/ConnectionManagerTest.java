@@ -0,0 +1,141 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionManager;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.StorageProfile;
+import com.example.crudapp.model.Product;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionManagerTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionManager manager;
+    private DatabaseProductDAO productDAO;
+
+    @BeforeEach
+    void setUp() {
+        manager = new ConnectionManager(database.getUrl(), 4, StorageProfile.BALANCED);
+        DatabaseConnection.initializeDatabase(manager.getWriterPool());
+        productDAO = new DatabaseProductDAO(manager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.close();
+    }
+
+    private static int count(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM products")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testReadConnectionRejectsWrites() throws SQLException {
+        try (Connection conn = manager.getReadConnection();
+             Statement stmt = conn.createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.executeUpdate("DELETE FROM products"));
+        }
+    }
+
+    @Test
+    void testReadsDoNotWaitForOpenWriteTransaction() throws Exception {
+        productDAO.save(new Product("Товар", "Описание"));
+
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        try (Connection writer = manager.getWriteConnection()) {
+            writer.setAutoCommit(false);
+            try (PreparedStatement pstmt = writer.prepareStatement(
+                    "INSERT INTO products (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?)")) {
+                Product product = new Product("Незавершённый", "");
+                pstmt.setString(1, product.getId().toString());
+                pstmt.setString(2, product.getName());
+                pstmt.setString(3, product.getDescription());
+                pstmt.setLong(4, 0);
+                pstmt.setLong(5, 0);
+                pstmt.executeUpdate();
+            }
+
+            // Пока транзакция открыта, читатели видят последний подтверждённый снимок
+            List<Future<Integer>> counts = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                counts.add(readers.submit(() -> productDAO.countAll()));
+            }
+            for (Future<Integer> count : counts) {
+                assertEquals(1, count.get(2, TimeUnit.SECONDS));
+            }
+            writer.commit();
+            writer.setAutoCommit(true);
+        } finally {
+            readers.shutdownNow();
+        }
+        assertEquals(2, productDAO.countAll());
+    }
+
+    @Test
+    void testConcurrentWritersAreSerialized() throws Exception {
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        productDAO.save(new Product("Товар " + i, "Описание"));
+                        productDAO.findAll();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection conn = manager.getReadConnection()) {
+            assertEquals(threads * perThread, count(conn));
+        }
+        assertEquals(1, manager.getWriterPool().getStats().getMaxSize());
+        assertEquals(1, manager.getWriterPool().getStats().getCreatedCount());
+    }
+
+    @Test
+    void testDaoRoutesReadsAndWrites() throws SQLException {
+        long writesBefore = manager.getWriterPool().getStats().getLeaseCount();
+        long readsBefore = manager.getReaderPool().getStats().getLeaseCount();
+
+        Product product = new Product("Товар", "Описание");
+        productDAO.save(product);
+        productDAO.findById(product.getId());
+        productDAO.findAll();
+        productDAO.countAll();
+        productDAO.delete(product.getId());
+
+        assertEquals(writesBefore + 2, manager.getWriterPool().getStats().getLeaseCount());
+        // Первое обращение читателя ещё и определяет формат id
+        assertTrue(manager.getReaderPool().getStats().getLeaseCount() >= readsBefore + 3);
+    }
+}
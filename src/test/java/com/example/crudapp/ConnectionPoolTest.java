@@ -0,0 +1,180 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.PoolStats;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.sqlite.SQLiteConnection;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("pool_test.db"), 2, 0, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void testConnectionIsReusedAfterClose() throws SQLException {
+        SQLiteConnection first;
+        try (Connection conn = pool.getConnection()) {
+            first = conn.unwrap(SQLiteConnection.class);
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertSame(first, conn.unwrap(SQLiteConnection.class));
+        }
+
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getCreatedCount());
+        assertEquals(2, stats.getLeaseCount());
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getIdle());
+    }
+
+    @Test
+    void testForeignKeysEnabledOnEveryConnection() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA foreign_keys")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testClosedLeaseCannotBeUsed() throws SQLException {
+        Connection conn = pool.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+        conn.close(); // повторное закрытие безопасно
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    @Test
+    void testPoolIsBounded() throws SQLException {
+        try (Connection c1 = pool.getConnection();
+             Connection c2 = pool.getConnection()) {
+            assertEquals(2, pool.getStats().getActive());
+            assertThrows(SQLException.class, pool::getConnection);
+            assertEquals(1, pool.getStats().getTimeoutCount());
+        }
+        assertEquals(2, pool.getStats().getIdle());
+    }
+
+    @Test
+    void testUncommittedTransactionIsRolledBackOnRelease() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE t (v INTEGER)");
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            stmt.execute("INSERT INTO t VALUES (1)");
+        }
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM t")) {
+            assertTrue(conn.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testIdleConnectionsAreEvicted() throws Exception {
+        try (ConnectionPool evictingPool = new ConnectionPool(
+                "jdbc:sqlite:" + tempDir.resolve("evict_test.db"), 3, 20, 200)) {
+            Connection c1 = evictingPool.getConnection();
+            Connection c2 = evictingPool.getConnection();
+            Connection c3 = evictingPool.getConnection();
+            c1.close();
+            c2.close();
+            c3.close();
+            assertEquals(3, evictingPool.getStats().getIdle());
+
+            Thread.sleep(50);
+            evictingPool.evictIdleConnections();
+
+            PoolStats stats = evictingPool.getStats();
+            assertEquals(1, stats.getIdle());
+            assertEquals(2, stats.getEvictedCount());
+        }
+    }
+
+    @Test
+    void testPreparedStatementsAreCachedPerConnection() throws SQLException {
+        String sql = "SELECT ? + 1";
+        for (int i = 0; i < 3; i++) {
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, i);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(i + 1, rs.getInt(1));
+                }
+            }
+        }
+
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getStatementCacheMisses());
+        assertEquals(2, stats.getStatementCacheHits());
+    }
+
+    @Test
+    void testNestedUseOfSameStatementIsNotShared() throws SQLException {
+        String sql = "SELECT ?";
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement(sql);
+             PreparedStatement inner = conn.prepareStatement(sql)) {
+            assertNotSame(outer, inner);
+            outer.setString(1, "outer");
+            inner.setString(1, "inner");
+            try (ResultSet rs = outer.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("outer", rs.getString(1));
+            }
+        }
+    }
+
+    @Test
+    void testStatementCacheIsBounded() throws SQLException {
+        pool.setStatementCacheSize(2);
+        try (Connection conn = pool.getConnection()) {
+            for (String sql : new String[]{"SELECT 1", "SELECT 2", "SELECT 3", "SELECT 1"}) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.executeQuery().close();
+                }
+            }
+        }
+        // "SELECT 1" был вытеснен и подготовлен заново
+        assertEquals(4, pool.getStats().getStatementCacheMisses());
+        assertEquals(0, pool.getStats().getStatementCacheHits());
+    }
+
+    @Test
+    void testClosedPoolRejectsRequests() {
+        pool.close();
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.FtsQuery;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.SearchResult;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Проверки ProductDAO на настоящей SQLite во временном файле.
+ */
+public class DatabaseProductDAOTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private DatabaseProductDAO productDAO;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+        productDAO = new DatabaseProductDAO(pool);
+    }
+
+    private static List<Product> products(int count) {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("Product " + i, "Desc " + i));
+        }
+        return products;
+    }
+
+    @Test
+    void testSaveAndFindById() throws SQLException {
+        Product product = new Product("Test Product", "Test Description");
+        productDAO.save(product);
+
+        Product found = productDAO.findById(product.getId());
+        assertNotNull(found);
+        assertEquals("Test Product", found.getName());
+        assertEquals(1, productDAO.countAll());
+    }
+
+    @Test
+    void testMappedRowsMatchDriverTimestamps() throws SQLException {
+        List<Product> saved = products(50);
+        for (int i = 0; i < saved.size(); i++) {
+            saved.get(i).setCreatedAt(LocalDateTime.of(2020, 1 + i % 12, 1 + i % 28, i % 24, i, i, i * 1_000_000));
+        }
+        productDAO.saveAll(saved);
+
+        List<Product> mapped = productDAO.findAll();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, created_at, updated_at FROM products")) {
+            int rows = 0;
+            while (rs.next()) {
+                UUID id = UUID.fromString(rs.getString("id"));
+                Product product = mapped.stream().filter(p -> p.getId().equals(id)).findFirst().orElseThrow();
+                assertEquals(rs.getTimestamp("created_at").toLocalDateTime(), product.getCreatedAt());
+                assertEquals(rs.getTimestamp("updated_at").toLocalDateTime(), product.getUpdatedAt());
+                rows++;
+            }
+            assertEquals(50, rows);
+        }
+    }
+
+    @Test
+    void testLegacyTextTimestampsAreRead() throws SQLException {
+        Product product = new Product("Legacy", "Desc");
+        productDAO.save(product);
+        // Так значения записывал удалённый триггер update_product_timestamp (CURRENT_TIMESTAMP)
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "UPDATE products SET created_at = ?, updated_at = ? WHERE id = ?")) {
+            pstmt.setString(1, "2023-05-06 07:08:09");
+            pstmt.setString(2, "2023-05-06 07:08:09.250");
+            pstmt.setString(3, product.getId().toString());
+            pstmt.executeUpdate();
+        }
+
+        Product found = productDAO.findById(product.getId());
+        assertEquals(LocalDateTime.of(2023, 5, 6, 7, 8, 9), found.getCreatedAt());
+        assertEquals(LocalDateTime.of(2023, 5, 6, 7, 8, 9, 250_000_000), found.getUpdatedAt());
+    }
+
+    @Test
+    void testSaveAllAcrossSeveralChunks() throws SQLException {
+        productDAO.setBatchSize(7);
+        productDAO.saveAll(products(50));
+
+        assertEquals(50, productDAO.countAll());
+    }
+
+    @Test
+    void testSaveAllRollsBackWholeBatchOnError() throws SQLException {
+        productDAO.setBatchSize(3);
+        List<Product> products = products(10);
+        products.get(8).setId(products.get(1).getId()); // дубликат первичного ключа
+
+        assertThrows(SQLException.class, () -> productDAO.saveAll(products));
+        assertEquals(0, productDAO.countAll());
+    }
+
+    @Test
+    void testUpdateAll() throws SQLException {
+        List<Product> products = products(5);
+        productDAO.saveAll(products);
+
+        for (Product product : products) {
+            product.setName(product.getName() + " v2");
+        }
+        productDAO.updateAll(products);
+
+        for (Product product : products) {
+            assertTrue(productDAO.findById(product.getId()).getName().endsWith(" v2"));
+        }
+    }
+
+    @Test
+    void testDeleteAllReturnsDeletedCount() throws SQLException {
+        List<Product> products = products(4);
+        productDAO.saveAll(products);
+
+        int deleted = productDAO.deleteAll(Arrays.asList(
+                products.get(0).getId(), products.get(2).getId(), UUID.randomUUID()));
+
+        assertEquals(2, deleted);
+        assertEquals(2, productDAO.countAll());
+    }
+
+    @Test
+    void testKeysetPaginationForwardAndBackward() throws SQLException {
+        // Часть строк с одинаковым created_at: порядок внутри них задаёт id
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Product> products = products(23);
+        for (int i = 0; i < products.size(); i++) {
+            LocalDateTime createdAt = base.plusMinutes(i / 3);
+            products.get(i).setCreatedAt(createdAt);
+            products.get(i).setUpdatedAt(createdAt);
+        }
+        productDAO.saveAll(products);
+
+        List<UUID> forward = new ArrayList<>();
+        List<Page<Product>> pages = new ArrayList<>();
+        Page<Product> page = productDAO.findPage(null, 5);
+        assertFalse(page.hasPrevious());
+        while (true) {
+            pages.add(page);
+            for (Product product : page.getItems()) {
+                forward.add(product.getId());
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = productDAO.findPage(page.getNextToken(), 5);
+        }
+
+        assertEquals(5, pages.size());
+        assertEquals(3, pages.get(4).getItems().size());
+        assertEquals(23, forward.size());
+        assertEquals(23, forward.stream().distinct().count());
+        for (int i = 1; i < forward.size(); i++) {
+            Product prev = productDAO.findById(forward.get(i - 1));
+            Product next = productDAO.findById(forward.get(i));
+            assertFalse(prev.getCreatedAt().isBefore(next.getCreatedAt()));
+        }
+
+        // Назад с последней страницы получаем те же страницы, что и вперёд
+        Page<Product> back = pages.get(4);
+        for (int i = 3; i >= 0; i--) {
+            back = productDAO.findPage(back.getPreviousToken(), 5);
+            assertEquals(ids(pages.get(i)), ids(back));
+        }
+        assertFalse(back.hasPrevious());
+        assertTrue(back.hasNext());
+    }
+
+    @Test
+    void testFindPageRejectsForeignToken() {
+        assertThrows(IllegalArgumentException.class, () -> productDAO.findPage("not-a-token", 5));
+    }
+
+    @Test
+    void testFullTextSearchMatchesPrefixesInNameAndDescription() throws SQLException {
+        Product phone = new Product("Apple iPhone", "Смартфон");
+        Product laptop = new Product("MacBook Pro", "Ноутбук Apple");
+        Product other = new Product("Samsung Galaxy", "Смартфон Samsung");
+        productDAO.saveAll(Arrays.asList(phone, laptop, other));
+
+        // Совпадение в названии ранжируется выше совпадения в описании
+        assertEquals(Arrays.asList(phone.getId(), laptop.getId()), ids(productDAO.search("app", 10, null)));
+        assertEquals(Arrays.asList(other.getId()), ids(productDAO.search("смарт sams", 10, null)));
+        assertTrue(productDAO.search("\"*)(", 10, null).getItems().isEmpty());
+    }
+
+    @Test
+    void testFullTextIndexFollowsUpdatesAndDeletes() throws SQLException {
+        Product product = new Product("Old name", "Desc");
+        productDAO.save(product);
+
+        product.setName("Brand new");
+        productDAO.update(product);
+        assertTrue(productDAO.search("old", 10, null).getItems().isEmpty());
+        assertEquals(1, productDAO.search("brand", 10, null).getItems().size());
+
+        productDAO.delete(product.getId());
+        assertTrue(productDAO.search("brand", 10, null).getItems().isEmpty());
+    }
+
+    @Test
+    void testFullTextSearchSurvivesTableRebuild() throws SQLException {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            products.add(new Product("Product", "code" + (100 + i)));
+        }
+        productDAO.saveAll(products);
+        for (int i = 0; i < 20; i += 2) {
+            productDAO.delete(products.get(i).getId());
+        }
+
+        // Отдельное соединение: у соединений пула открыты кэшированные запросы
+        try (Connection conn = DriverManager.getConnection(pool.getUrl());
+             Statement stmt = conn.createStatement()) {
+            // Пересоздание таблицы так, как это делают сторонние инструменты: копия
+            // по столбцам в другом порядке, rowid без INTEGER PRIMARY KEY не переносится
+            String tableSql;
+            List<String> dependentSql = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT type, sql FROM sqlite_master " +
+                    "WHERE tbl_name = 'products' AND sql IS NOT NULL ORDER BY type = 'table' DESC")) {
+                assertTrue(rs.next());
+                tableSql = rs.getString("sql");
+                while (rs.next()) {
+                    dependentSql.add(rs.getString("sql"));
+                }
+            }
+            stmt.execute(tableSql.replaceFirst("\"?products\"?", "products_rebuilt"));
+            stmt.execute("INSERT INTO products_rebuilt SELECT * FROM products ORDER BY id");
+            stmt.execute("DROP TABLE products");
+            stmt.execute("ALTER TABLE products_rebuilt RENAME TO products");
+            for (String sql : dependentSql) {
+                stmt.execute(sql);
+            }
+            // Документация SQLite разрешает VACUUM менять rowid таблиц без INTEGER PRIMARY KEY
+            stmt.execute("VACUUM");
+        }
+
+        for (int i = 1; i < 20; i += 2) {
+            List<Product> found = productDAO.search("code" + (100 + i), 10, null).getItems();
+            assertEquals(Collections.singletonList(products.get(i).getId()), ids(found));
+        }
+        assertTrue(productDAO.search("code100", 10, null).getItems().isEmpty());
+    }
+
+    @Test
+    void testSearchIsPaginated() throws SQLException {
+        productDAO.saveAll(products(12));
+
+        Page<Product> first = productDAO.search("product", 5, null);
+        Page<Product> second = productDAO.search("product", 5, first.getNextToken());
+        Page<Product> third = productDAO.search("product", 5, second.getNextToken());
+
+        assertEquals(5, first.getItems().size());
+        assertEquals(2, third.getItems().size());
+        assertFalse(third.hasNext());
+        assertEquals(ids(first), ids(productDAO.search("product", 5, second.getPreviousToken())));
+        assertThrows(IllegalArgumentException.class, () -> productDAO.search("desc", 5, first.getNextToken()));
+    }
+
+    @Test
+    void testRangesByOffsetAndByAnchorAgree() throws SQLException {
+        // Одинаковые created_at: OFFSET и курсор должны упорядочивать строки одинаково
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Product> products = products(30);
+        for (Product product : products) {
+            product.setCreatedAt(createdAt);
+            product.setUpdatedAt(createdAt);
+        }
+        productDAO.saveAll(products);
+        ProductService service = new ProductService(productDAO);
+
+        List<Product> first = service.getProductsRange(null, 0, 10);
+        List<Product> byOffset = service.getProductsRange(null, 10, 10);
+        List<Product> byAnchor = service.getProductsRange(first.get(first.size() - 1), 10, 10);
+
+        assertEquals(ids(byOffset), ids(byAnchor));
+        Page<Product> firstPage = productDAO.findPage(null, 10);
+        assertEquals(ids(productDAO.findPage(firstPage.getNextToken(), 10)), ids(byAnchor));
+    }
+
+    @Test
+    void testCountSearchMatchesSearchResults() throws SQLException {
+        productDAO.saveAll(products(12));
+        productDAO.save(new Product("Other", "Something"));
+
+        assertEquals(12, productDAO.countSearch("product"));
+        assertEquals(0, productDAO.countSearch("\"*)("));
+    }
+
+    @Test
+    void testSearchCountStopsAtLimit() throws SQLException {
+        productDAO.saveAll(products(12));
+
+        assertEquals(5, productDAO.countSearch("product", 5));
+        assertEquals(12, productDAO.countSearch("product", 100));
+    }
+
+    @Test
+    void testInMemoryMatchAgreesWithFullTextIndex() throws SQLException {
+        productDAO.saveAll(Arrays.asList(
+                new Product("Café crème", "Напиток"),
+                new Product("Apple iPhone", "Смартфон Apple"),
+                new Product("Apple Watch", "Часы"),
+                new Product("Чехол", "Для iPhone и Watch")));
+
+        for (String query : Arrays.asList("cafe", "app", "apple wat", "iph", "смарт", "для wat", "нет")) {
+            List<UUID> expected = ids(productDAO.search(query, 10, null));
+            List<UUID> actual = new ArrayList<>();
+            for (Product product : productDAO.findAll()) {
+                if (FtsQuery.matches(FtsQuery.tokens(query), product.getName(), product.getDescription())) {
+                    actual.add(product.getId());
+                }
+            }
+            assertEquals(new HashSet<>(expected), new HashSet<>(actual), query);
+        }
+    }
+
+    @Test
+    void testRefinedSearchIsServedFromPreviousResults() throws SQLException {
+        ProductService service = new ProductService(productDAO);
+        productDAO.saveAll(products(12));
+
+        SearchResult first = service.searchFirstPage("prod", 5);
+        assertEquals(12, first.getTotal());
+        assertTrue(first.isTotalExact());
+        assertEquals(5, first.getPage().getItems().size());
+
+        // Запись в обход сервиса не видна: уточнённый запрос отбирается из прежних результатов
+        Product removed = first.getPage().getItems().get(0);
+        productDAO.delete(removed.getId());
+        SearchResult refined = service.searchFirstPage("product", 5);
+        assertEquals(12, refined.getTotal());
+
+        // Следующие страницы берутся из тех же результатов и не пересекаются
+        Page<Product> second = service.searchProducts("product", 5, refined.getPage().getNextToken());
+        assertEquals(5, second.getItems().size());
+        assertTrue(Collections.disjoint(ids(refined.getPage()), ids(second)));
+
+        // Запись через сервис сбрасывает сохранённые результаты
+        service.createProduct("Product extra", "Desc");
+        assertEquals(12, service.searchFirstPage("product", 5).getTotal());
+        assertEquals(0, service.searchFirstPage("product extra missing", 5).getTotal());
+    }
+
+    private static List<UUID> ids(List<Product> products) {
+        List<UUID> ids = new ArrayList<>();
+        for (Product product : products) {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+
+    private static List<UUID> ids(Page<Product> page) {
+        return ids(page.getItems());
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.IdFormat;
+import com.example.crudapp.dao.StorageSettings;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdFormatTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+    }
+
+    private List<Product> seed(int count) throws SQLException {
+        // Одинаковые created_at: порядок страниц задаёт только id
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product("Product " + i, "Desc " + i);
+            product.setCreatedAt(createdAt);
+            product.setUpdatedAt(createdAt);
+            products.add(product);
+        }
+        new DatabaseProductDAO(pool).saveAll(products);
+        return products;
+    }
+
+    private List<UUID> allPages(DatabaseProductDAO dao) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        Page<Product> page = dao.findPage(null, 7);
+        while (true) {
+            for (Product product : page.getItems()) {
+                ids.add(product.getId());
+            }
+            if (!page.hasNext()) {
+                return ids;
+            }
+            page = dao.findPage(page.getNextToken(), 7);
+        }
+    }
+
+    private String idTypes() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT group_concat(DISTINCT typeof(id)) FROM products")) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    @Test
+    void testBytesRoundTripAndKeepStringOrder() {
+        for (int i = 0; i < 1000; i++) {
+            UUID a = UUID.randomUUID();
+            UUID b = UUID.randomUUID();
+            byte[] ba = IdFormat.toBytes(a);
+            byte[] bb = IdFormat.toBytes(b);
+
+            assertEquals(a, IdFormat.fromBytes(ba));
+            assertEquals(Integer.signum(a.toString().compareTo(b.toString())),
+                    Integer.signum(compareUnsigned(ba, bb)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> IdFormat.fromBytes(new byte[15]));
+        assertThrows(IllegalArgumentException.class, () -> IdFormat.parse("binary"));
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            int diff = (a[i] & 0xff) - (b[i] & 0xff);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    @Test
+    void testNewDatabaseStoresTextIds() throws SQLException {
+        seed(3);
+
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(IdFormat.TEXT, StorageSettings.readIdFormat(conn));
+        }
+        assertEquals("text", idTypes());
+    }
+
+    @Test
+    void testConversionKeepsRowsOrderAndFullTextIndex() throws SQLException {
+        List<Product> products = seed(40);
+        List<UUID> orderBefore = allPages(new DatabaseProductDAO(pool));
+
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(40, StorageSettings.convertIds(conn, IdFormat.BLOB));
+            assertEquals(0, StorageSettings.convertIds(conn, IdFormat.BLOB));
+        }
+        assertEquals("blob", idTypes());
+
+        DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+        assertEquals(orderBefore, allPages(dao));
+        assertEquals(IdFormat.BLOB, dao.getIdFormat());
+        assertEquals("Product 5", dao.findById(products.get(5).getId()).getName());
+        assertEquals(1, dao.search("product", 100, null).getItems().stream()
+                .filter(p -> p.getId().equals(products.get(7).getId())).count());
+
+        Product added = new Product("Added", "After conversion");
+        dao.save(added);
+        dao.delete(products.get(0).getId());
+        assertNull(dao.findById(products.get(0).getId()));
+        assertEquals(added.getName(), dao.findById(added.getId()).getName());
+        assertEquals(40, dao.countAll());
+
+        // Обратный перевод восстанавливает исходные строки
+        try (Connection conn = pool.getConnection()) {
+            StorageSettings.convertIds(conn, IdFormat.TEXT);
+        }
+        assertEquals("text", idTypes());
+        DatabaseProductDAO textDao = new DatabaseProductDAO(pool);
+        assertEquals("Product 9", textDao.findById(products.get(9).getId()).getName());
+        assertEquals(IdFormat.TEXT, textDao.getIdFormat());
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM products WHERE id = '" +
+                     products.get(9).getId() + "'")) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void testConfiguredFormatIsAppliedOnInitialization() throws SQLException {
+        seed(5);
+        System.setProperty(IdFormat.PROPERTY, "blob");
+        try {
+            DatabaseConnection.initializeDatabase(pool);
+        } finally {
+            System.clearProperty(IdFormat.PROPERTY);
+        }
+
+        assertEquals("blob", idTypes());
+        assertEquals(5, new DatabaseProductDAO(pool).findAll().size());
+    }
+
+    @Test
+    void testBlobIdsShrinkPrimaryKeyIndex() throws SQLException {
+        seed(5000);
+        Map<String, Long> before;
+        Map<String, Long> after;
+        try (Connection conn = pool.getConnection()) {
+            before = StorageSettings.spaceUsage(conn);
+            StorageSettings.convertIds(conn, IdFormat.BLOB);
+            after = StorageSettings.spaceUsage(conn);
+        }
+
+        // Ключ индекса: 16 байт вместо 36 символов
+        assertTrue(after.get("sqlite_autoindex_products_1") < before.get("sqlite_autoindex_products_1") * 0.6);
+        assertTrue(after.get("idx_products_created_at_id") < before.get("idx_products_created_at_id"));
+    }
+}
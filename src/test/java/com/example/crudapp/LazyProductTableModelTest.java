@@ -0,0 +1,187 @@
+package com.example.crudapp;
+
+import com.example.crudapp.controller.LazyProductTableModel;
+import com.example.crudapp.dao.ProductDAO;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.AsyncProductService;
+import com.example.crudapp.service.ProductService;
+import org.junit.jupiter.api.*;
+
+import javax.swing.SwingUtilities;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ленивая модель таблицы на синтетическом источнике строк, без окна.
+ */
+public class LazyProductTableModelTest {
+
+    private static class NumberedSource implements LazyProductTableModel.RowSource {
+        private final int total;
+        final List<Integer> loadedOffsets = new ArrayList<>();
+        int anchoredLoads;
+
+        NumberedSource(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public int count() {
+            return total;
+        }
+
+        @Override
+        public synchronized List<Product> load(Product anchor, int offset, int limit) {
+            loadedOffsets.add(offset);
+            if (anchor != null) {
+                anchoredLoads++;
+            }
+            List<Product> rows = new ArrayList<>();
+            for (int i = offset; i < Math.min(total, offset + limit); i++) {
+                rows.add(new Product("Product " + i, "Desc"));
+            }
+            return rows;
+        }
+    }
+
+    private AsyncProductService asyncService;
+
+    @BeforeEach
+    void setUp() {
+        ProductService service = new ProductService(new ProductDAO() {
+            @Override
+            protected Connection getConnection() {
+                return null;
+            }
+        });
+        asyncService = new AsyncProductService(service, Executors.newSingleThreadExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.close();
+    }
+
+    private static void await(BooleanSupplier condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        boolean[] done = new boolean[1];
+        while (System.nanoTime() < deadline) {
+            SwingUtilities.invokeAndWait(() -> done[0] = condition.getAsBoolean());
+            if (done[0]) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Условие не выполнилось за 5 секунд");
+    }
+
+    private static <T> T onEdt(java.util.concurrent.Callable<T> call) throws Exception {
+        Object[] result = new Object[1];
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                result[0] = call.call();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    @Test
+    void testRowsAreLoadedOnDemandInBlocks() throws Exception {
+        NumberedSource source = new NumberedSource(1_000_000);
+        LazyProductTableModel model = new LazyProductTableModel(asyncService, source, 100, 4);
+        assertEquals(1_000_000, (int) model.refresh().get(5, TimeUnit.SECONDS));
+        await(() -> model.getRowCount() == 1_000_000);
+
+        assertNull(onEdt(() -> model.getProductAt(500_050)));
+        await(() -> model.getProductAt(500_050) != null);
+
+        assertEquals("Product 500050", onEdt(() -> model.getProductAt(500_050).getName()));
+        assertEquals(1, source.loadedOffsets.size());
+        assertEquals(500_000, (int) source.loadedOffsets.get(0));
+    }
+
+    @Test
+    void testNextBlockIsReadFromKnownAnchor() throws Exception {
+        NumberedSource source = new NumberedSource(1000);
+        LazyProductTableModel model = new LazyProductTableModel(asyncService, source, 100, 4);
+        model.refresh().get(5, TimeUnit.SECONDS);
+
+        await(() -> model.getProductAt(10) != null);
+        await(() -> model.getProductAt(150) != null);
+
+        assertEquals(1, source.anchoredLoads);
+    }
+
+    @Test
+    void testFarBlocksAreEvicted() throws Exception {
+        NumberedSource source = new NumberedSource(10_000);
+        LazyProductTableModel model = new LazyProductTableModel(asyncService, source, 100, 3);
+        model.refresh().get(5, TimeUnit.SECONDS);
+
+        for (int row = 0; row < 2000; row += 100) {
+            int target = row;
+            await(() -> model.getProductAt(target) != null);
+        }
+
+        assertEquals(3, (int) onEdt(model::getLoadedBlockCount));
+        // Ближние к последнему месту блоки остались, дальние вытеснены
+        assertNotNull(onEdt(() -> model.getProductAt(1900)));
+        assertNull(onEdt(() -> model.getProductAt(0)));
+    }
+
+    @Test
+    void testRefreshDropsLoadedBlocks() throws Exception {
+        NumberedSource source = new NumberedSource(500);
+        LazyProductTableModel model = new LazyProductTableModel(asyncService, source, 100, 3);
+        model.refresh().get(5, TimeUnit.SECONDS);
+        await(() -> model.getProductAt(0) != null);
+
+        model.refresh().get(5, TimeUnit.SECONDS);
+        await(() -> model.getLoadedBlockCount() == 0);
+    }
+
+    @Test
+    void testInsertAndRemoveShiftLoadedBlocks() throws Exception {
+        NumberedSource source = new NumberedSource(500);
+        LazyProductTableModel model = new LazyProductTableModel(asyncService, source, 100, 5);
+        model.refresh().get(5, TimeUnit.SECONDS);
+        await(() -> model.getProductAt(0) != null);
+        await(() -> model.getProductAt(100) != null);
+        await(() -> model.getProductAt(300) != null);
+
+        Product added = new Product("Новый", "Desc");
+        onEdt(() -> {
+            model.insertProduct(0, added);
+            return null;
+        });
+        assertEquals(501, (int) onEdt(model::getRowCount));
+        assertEquals("Новый", onEdt(() -> model.getProductAt(0).getName()));
+        // Последняя строка блока 0 перешла в блок 1; блок 3 за незагруженным блоком 2 выброшен
+        assertEquals("Product 99", onEdt(() -> model.getProductAt(100).getName()));
+        assertEquals(2, (int) onEdt(model::getLoadedBlockCount));
+
+        Product renamed = new Product(onEdt(() -> model.getProductAt(1)));
+        renamed.setName("Изменён");
+        assertTrue(onEdt(() -> model.replaceProduct(renamed)));
+        assertEquals("Изменён", onEdt(() -> model.getProductAt(1).getName()));
+
+        assertTrue(onEdt(() -> model.removeProduct(added.getId())));
+        assertFalse(onEdt(() -> model.removeProduct(added.getId())));
+        assertEquals(500, (int) onEdt(model::getRowCount));
+        assertEquals("Изменён", onEdt(() -> model.getProductAt(0).getName()));
+        assertEquals("Product 99", onEdt(() -> model.getProductAt(99).getName()));
+        // Блок 1 дополнить нечем: он перечитывается при обращении
+        await(() -> model.getProductAt(150) != null);
+        assertEquals("Product 150", onEdt(() -> model.getProductAt(150).getName()));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.crudapp;
+
+import com.example.crudapp.controller.MainController;
+import com.example.crudapp.controller.ProductTableModel;
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.AsyncProductService;
+import com.example.crudapp.service.ProductService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import java.awt.Component;
+import java.awt.Container;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Главное окно без JFrame: содержимое собирается через createContent, действия
+ * пользователя выполняются в EDT через компоненты.
+ */
+public class MainControllerTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private ProductService service;
+    private AsyncProductService asyncService;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+        service = new ProductService(new DatabaseProductDAO(pool));
+        asyncService = new AsyncProductService(service, Executors.newSingleThreadExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.close();
+    }
+
+    private static void await(BooleanSupplier condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        boolean[] done = new boolean[1];
+        while (System.nanoTime() < deadline) {
+            SwingUtilities.invokeAndWait(() -> done[0] = condition.getAsBoolean());
+            if (done[0]) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Условие не выполнено за 5 секунд");
+    }
+
+    private static <T extends Component> T find(Container root, Class<T> type) {
+        for (Component child : root.getComponents()) {
+            if (type.isInstance(child)) {
+                return type.cast(child);
+            }
+            if (child instanceof Container) {
+                T found = find((Container) child, type);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    void testEditInShowAllModeDoesNotReload() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            service.createProduct("Товар " + i, "Описание");
+        }
+        MainController controller = new MainController(asyncService);
+        JComponent[] content = new JComponent[1];
+        JTable[] table = new JTable[1];
+
+        // Режим «Все» выбран, пока страница ещё загружается
+        SwingUtilities.invokeAndWait(() -> {
+            content[0] = controller.createContent();
+            table[0] = find(content[0], JTable.class);
+            find(content[0], JComboBox.class).setSelectedItem("Все");
+        });
+        await(() -> table[0].getRowCount() == 3
+                && ((ProductTableModel) table[0].getModel()).getProductAt(0) != null);
+
+        List<TableModelEvent> changes = new ArrayList<>();
+        Product[] edited = new Product[1];
+        SwingUtilities.invokeAndWait(() -> {
+            table[0].getModel().addTableModelListener(changes::add);
+            edited[0] = new Product(((ProductTableModel) table[0].getModel()).getProductAt(0));
+        });
+        edited[0].setName("Переименован");
+        service.updateProduct(edited[0]);
+
+        await(() -> !changes.isEmpty());
+        Thread.sleep(200);
+        SwingUtilities.invokeAndWait(() -> {
+            // Одна изменённая строка, а не перечитанная таблица
+            assertEquals(1, changes.size());
+            assertEquals(0, changes.get(0).getFirstRow());
+            assertEquals(0, changes.get(0).getLastRow());
+            assertEquals("Переименован", ((ProductTableModel) table[0].getModel()).getProductAt(0).getName());
+        });
+    }
+}
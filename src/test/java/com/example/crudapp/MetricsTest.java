@@ -0,0 +1,139 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.InstrumentedProductDAO;
+import com.example.crudapp.metrics.LatencyHistogram;
+import com.example.crudapp.metrics.Metrics;
+import com.example.crudapp.metrics.OperationMetrics;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.InstrumentedProductService;
+import com.example.crudapp.service.ProductService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private Metrics metrics;
+    private InstrumentedProductDAO productDAO;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+        metrics = new Metrics();
+        productDAO = new InstrumentedProductDAO(new DatabaseProductDAO(pool), metrics, "dao");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        metrics.unregisterJmx();
+    }
+
+    @Test
+    void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(5_000_000, histogram.getPercentile(0.50), 5_000_000 / 16.0);
+        assertEquals(9_900_000, histogram.getPercentile(0.99), 9_900_000 / 16.0);
+        assertTrue(histogram.getPercentile(0.50) >= 5_000_000);
+        assertEquals(10_000_000, histogram.getPercentile(1.0));
+    }
+
+    @Test
+    void testDaoCallsAreCountedWithRowsAndErrors() throws SQLException {
+        Product product = new Product("Measured", "Desc");
+        productDAO.save(product);
+        productDAO.findById(product.getId());
+        productDAO.findAll();
+        assertThrows(SQLException.class, () -> productDAO.save(product));
+
+        OperationMetrics save = metrics.operation("dao.save");
+        assertEquals(2, save.getCount());
+        assertEquals(1, save.getErrors());
+        assertEquals(1, save.getRows());
+        assertEquals(1, metrics.operation("dao.findById").getRows());
+        assertTrue(metrics.operation("dao.findAll").getMaxMicros() > 0);
+        assertTrue(metrics.dump().contains("dao.findById"));
+
+        metrics.reset();
+        assertEquals(0, save.getCount());
+        assertFalse(metrics.dump().contains("dao.findById"));
+    }
+
+    @Test
+    void testServiceValidationErrorsAreCounted() throws SQLException {
+        ProductService service = new InstrumentedProductService(new ProductService(productDAO), metrics);
+
+        service.createProduct("Valid name", "Desc");
+        assertThrows(IllegalArgumentException.class, () -> service.createProduct("AB", null));
+        assertEquals(1, service.getProductsPage(null, 10).getItems().size());
+
+        assertEquals(2, metrics.operation("service.createProduct").getCount());
+        assertEquals(1, metrics.operation("service.createProduct").getErrors());
+        assertEquals(1, metrics.operation("service.getProductsPage").getRows());
+        // Сервис ходит в базу через замеряемый DAO
+        assertEquals(1, metrics.operation("dao.findPage").getCount());
+    }
+
+    @Test
+    void testOperationsAreVisibleInJmx() throws Exception {
+        productDAO.countAll();
+        metrics.registerJmx();
+        productDAO.findById(UUID.randomUUID());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName countAll = new ObjectName("com.example.crudapp:type=Operation,layer=\"dao\",name=\"countAll\"");
+        ObjectName findById = new ObjectName("com.example.crudapp:type=Operation,layer=\"dao\",name=\"findById\"");
+        assertEquals(1L, server.getAttribute(countAll, "Count"));
+        assertEquals(1L, server.getAttribute(findById, "Count"));
+
+        String dump = (String) server.invoke(new ObjectName("com.example.crudapp:type=Metrics"), "dump",
+                new Object[0], new String[0]);
+        assertTrue(dump.contains("dao.countAll"));
+
+        metrics.unregisterJmx();
+        assertFalse(server.isRegistered(countAll));
+    }
+
+    @Test
+    void testJfrEventsAreRecorded() throws Exception {
+        Path file = database.resolve("operations.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.crudapp.Operation");
+            recording.start();
+            productDAO.countAll();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.crudapp.Operation"))
+                .collect(Collectors.toList());
+        assertEquals(1, events.size());
+        assertEquals("dao.countAll", events.get(0).getString("operation"));
+        assertTrue(events.get(0).getLong("latency") > 0);
+    }
+}
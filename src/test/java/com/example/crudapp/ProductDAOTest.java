@@ -70,8 +70,8 @@ public class ProductDAOTest {
         }
 
         @Override
-        public void delete(UUID id) {
-            products.removeIf(p -> p.getId().equals(id));
+        public int delete(UUID id) {
+            return products.removeIf(p -> p.getId().equals(id)) ? 1 : 0;
         }
 
         @Override
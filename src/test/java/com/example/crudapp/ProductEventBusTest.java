@@ -0,0 +1,196 @@
+package com.example.crudapp;
+
+import com.example.crudapp.controller.PagedProductTableModel;
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ProductChangeEvent;
+import com.example.crudapp.service.ProductEventBus;
+import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.WriteBehindQueue;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductEventBusTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private final BlockingQueue<List<ProductChangeEvent>> delivered = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+    }
+
+    private ProductEventBus subscribe(ProductEventBus bus) {
+        bus.addListener(delivered::add, Runnable::run);
+        return bus;
+    }
+
+    private List<ProductChangeEvent> nextBatch() throws InterruptedException {
+        List<ProductChangeEvent> batch = delivered.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch, "События не доставлены за 5 секунд");
+        return batch;
+    }
+
+    private static String describe(List<ProductChangeEvent> batch) {
+        List<String> parts = new ArrayList<>();
+        for (ProductChangeEvent event : batch) {
+            parts.add(event.getType() + (event.getProduct() != null ? ":" + event.getProduct().getName() : ""));
+        }
+        return String.join(",", parts);
+    }
+
+    @Test
+    void testChangesOfOneProductAreCoalesced() {
+        ProductEventBus bus = subscribe(new ProductEventBus(60_000, 100));
+        Product a = new Product("A", "");
+        Product b = new Product("B", "");
+        Product c = new Product("C", "");
+        Product d = new Product("D", "");
+
+        bus.publish(ProductChangeEvent.created(a));
+        a.setName("A2");
+        bus.publish(ProductChangeEvent.updated(a));
+        bus.publish(ProductChangeEvent.created(b));
+        bus.publish(ProductChangeEvent.deleted(b.getId()));
+        bus.publish(ProductChangeEvent.updated(c));
+        bus.publish(ProductChangeEvent.deleted(c.getId()));
+        bus.publish(ProductChangeEvent.deleted(d.getId()));
+        bus.publish(ProductChangeEvent.created(d));
+        bus.flush();
+
+        List<ProductChangeEvent> batch = delivered.poll();
+        assertEquals("CREATED:A2,DELETED,UPDATED:D", describe(batch));
+        assertEquals(Arrays.asList(a.getId(), c.getId(), d.getId()),
+                Arrays.asList(batch.get(0).getId(), batch.get(1).getId(), batch.get(2).getId()));
+        // В событии копия: последующие изменения объекта его не трогают
+        a.setName("A3");
+        assertEquals("A2", batch.get(0).getProduct().getName());
+
+        bus.flush();
+        assertTrue(delivered.isEmpty());
+    }
+
+    @Test
+    void testEventsWithinWindowArriveAsOneBatch() throws InterruptedException {
+        ProductEventBus bus = subscribe(new ProductEventBus(100, 100));
+        for (int i = 0; i < 5; i++) {
+            bus.publish(ProductChangeEvent.created(new Product("P" + i, "")));
+        }
+
+        assertEquals(5, nextBatch().size());
+        assertNull(delivered.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testOverflowTurnsIntoReload() {
+        ProductEventBus bus = subscribe(new ProductEventBus(60_000, 10));
+        for (int i = 0; i < 50; i++) {
+            bus.publish(ProductChangeEvent.created(new Product("P" + i, "")));
+        }
+        bus.flush();
+        assertEquals("RELOAD", describe(delivered.poll()));
+
+        // После доставки события снова идут по одному
+        bus.publish(ProductChangeEvent.deleted(UUID.randomUUID()));
+        bus.flush();
+        assertEquals("DELETED", describe(delivered.poll()));
+    }
+
+    @Test
+    void testServicePublishesWrittenChanges() throws Exception {
+        DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+        ProductService service = new ProductService(dao);
+        subscribe(service.getEventBus());
+
+        Product created = service.createProduct("  Товар  ", "Описание");
+        assertEquals("CREATED:Товар", describe(nextBatch()));
+
+        created.setName("Товар 2");
+        service.updateProduct(created);
+        List<ProductChangeEvent> updated = nextBatch();
+        assertEquals("UPDATED:Товар 2", describe(updated));
+        assertEquals(created.getCreatedAt(), updated.get(0).getProduct().getCreatedAt());
+        // updated_at в событии — то, что записано в базу
+        assertEquals(dao.findById(created.getId()).getUpdatedAt(), updated.get(0).getProduct().getUpdatedAt());
+
+        service.deleteProduct(created.getId());
+        assertEquals(created.getId(), nextBatch().get(0).getId());
+
+        // Неизвестно, каких строк не было: подписчик перечитывает данные
+        service.deleteProducts(Arrays.asList(UUID.randomUUID(), UUID.randomUUID()));
+        assertEquals("RELOAD", describe(nextBatch()));
+
+        // Ошибка проверки ничего не публикует
+        assertThrows(IllegalArgumentException.class, () -> service.createProduct("x", null));
+        assertNull(delivered.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testWriteBehindPublishesAfterCommit() throws Exception {
+        DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+        ProductService service = new ProductService(dao);
+        try (WriteBehindQueue queue = new WriteBehindQueue(dao, 200, 1000, 1000, 1000)) {
+            service.setWriteBehind(queue);
+            subscribe(service.getEventBus());
+
+            service.submitCreate("Отложенный", "");
+            service.submitCreate("Второй", "").join();
+
+            List<ProductChangeEvent> batch = new ArrayList<>(nextBatch());
+            while (batch.size() < 2) {
+                batch.addAll(nextBatch());
+            }
+            assertEquals("CREATED:Отложенный,CREATED:Второй", describe(batch));
+            for (ProductChangeEvent event : batch) {
+                assertNotNull(dao.findById(event.getId()));
+            }
+
+            Product renamed = new Product(batch.get(0).getProduct());
+            renamed.setName("Переименован");
+            service.submitUpdate(renamed).join();
+            ProductChangeEvent updated = nextBatch().get(0);
+            assertEquals("Переименован", updated.getProduct().getName());
+            assertEquals(dao.findById(renamed.getId()).getUpdatedAt(), updated.getProduct().getUpdatedAt());
+        }
+    }
+
+    @Test
+    void testPagedModelChangesRowsInPlace() {
+        PagedProductTableModel model = new PagedProductTableModel();
+        List<Product> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            rows.add(new Product("P" + i, ""));
+        }
+        model.setProducts(rows);
+        List<String> changes = new ArrayList<>();
+        model.addTableModelListener(e -> changes.add(e.getType() + ":" + e.getFirstRow() + "-" + e.getLastRow()));
+
+        Product renamed = new Product(rows.get(1));
+        renamed.setName("P1 изменён");
+        assertTrue(model.replaceProduct(renamed));
+        model.insertProduct(0, new Product("Новый", ""));
+        model.truncate(3);
+        assertTrue(model.removeProduct(rows.get(0).getId()));
+        assertFalse(model.removeProduct(rows.get(2).getId()));
+
+        assertEquals(2, model.getRowCount());
+        assertEquals("Новый", model.getProductAt(0).getName());
+        assertEquals("P1 изменён", model.getProductAt(1).getName());
+        // UPDATE = 0, INSERT = 1, DELETE = -1
+        assertEquals(Arrays.asList("0:1-1", "1:0-0", "-1:3-3", "-1:1-1"), changes);
+    }
+}
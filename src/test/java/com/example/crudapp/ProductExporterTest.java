@@ -0,0 +1,127 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ExportFormat;
+import com.example.crudapp.service.ProductExporter;
+import com.example.crudapp.service.ProgressListener;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductExporterTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private DatabaseProductDAO productDAO;
+    private ProductExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+        productDAO = new DatabaseProductDAO(pool);
+        exporter = new ProductExporter(productDAO);
+    }
+
+    private Product saved(String name, String description) throws SQLException {
+        Product product = new Product(name, description);
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 10, 30, 15);
+        product.setCreatedAt(time);
+        product.setUpdatedAt(time);
+        productDAO.save(product);
+        return product;
+    }
+
+    @Test
+    void testCsvQuotesOnlyFieldsThatNeedIt() throws Exception {
+        Product plain = saved("Ноутбук", "Обычное описание");
+        Product tricky = saved("Кабель \"USB-C\", 2 м", "Строка 1\nСтрока 2");
+        Product empty = saved("Без описания", null);
+        Path file = database.resolve("products.csv");
+
+        long rows = exporter.export(file, ExportFormat.CSV, null);
+
+        assertEquals(3, rows);
+        String csv = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        assertEquals("id,name,description,created_at,updated_at\r\n"
+                + plain.getId() + ",Ноутбук,Обычное описание,2024-05-01T10:30:15,2024-05-01T10:30:15\r\n"
+                + tricky.getId() + ",\"Кабель \"\"USB-C\"\", 2 м\",\"Строка 1\nСтрока 2\",2024-05-01T10:30:15,2024-05-01T10:30:15\r\n"
+                + empty.getId() + ",Без описания,,2024-05-01T10:30:15,2024-05-01T10:30:15\r\n", csv);
+    }
+
+    @Test
+    void testNdjsonWritesOneEscapedObjectPerLine() throws Exception {
+        Product product = saved("Say \"hi\"\\", null);
+        Path file = database.resolve("products.ndjson");
+
+        exporter.export(file, ExportFormat.NDJSON, null);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        assertEquals("{\"id\":\"" + product.getId() + "\",\"name\":\"Say \\\"hi\\\"\\\\\",\"description\":null,"
+                + "\"createdAt\":\"2024-05-01T10:30:15\",\"updatedAt\":\"2024-05-01T10:30:15\"}", lines.get(0));
+    }
+
+    @Test
+    void testProgressIsReportedAndLastCallHasTotal() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ProductExporter.PROGRESS_INTERVAL * 2 + 5; i++) {
+            products.add(new Product("Product " + i, "Desc"));
+        }
+        productDAO.saveAll(products);
+        List<Long> progress = new ArrayList<>();
+
+        exporter.export(database.resolve("products.csv"), ExportFormat.CSV, progress::add);
+
+        assertEquals(3, progress.size());
+        assertEquals(ProductExporter.PROGRESS_INTERVAL, (long) progress.get(0));
+        assertEquals(products.size(), (long) progress.get(2));
+    }
+
+    @Test
+    void testCancelledExportLeavesNoFiles() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < ProductExporter.PROGRESS_INTERVAL + 1; i++) {
+            products.add(new Product("Product " + i, "Desc"));
+        }
+        productDAO.saveAll(products);
+        Path exportDir = Files.createDirectory(database.resolve("out"));
+
+        assertThrows(CancellationException.class, () -> exporter.export(exportDir.resolve("products.csv"),
+                ExportFormat.CSV, new ProgressListener() {
+                    @Override
+                    public void onProgress(long rows) {
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return true;
+                    }
+                }));
+
+        try (Stream<Path> files = Files.list(exportDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testFormatIsChosenByExtension() {
+        assertEquals(ExportFormat.CSV, ExportFormat.forFileName("catalog.CSV"));
+        assertEquals(ExportFormat.NDJSON, ExportFormat.forFileName("catalog.jsonl"));
+        assertNull(ExportFormat.forFileName("catalog.xlsx"));
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.server.ProductHttpServer;
+import com.example.crudapp.service.ProductService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductHttpServerTest {
+
+    private static final Pattern ID = Pattern.compile("\"id\":\"([0-9a-f-]{36})\"");
+    private static final Pattern NEXT_TOKEN = Pattern.compile("\"nextToken\":\"([^\"]+)\"");
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private ProductService service;
+    private ProductHttpServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pool = database.getPool();
+        service = new ProductService(new DatabaseProductDAO(pool));
+        server = new ProductHttpServer(service, new InetSocketAddress("127.0.0.1", 0),
+                ProductHttpServer.newBoundedPool(4, 16));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+    }
+
+    private static String json(String name, String description) {
+        return "{\"name\": \"" + name + "\",\n \"description\": \"" + description + "\"}";
+    }
+
+    private String create(String name, String description) throws Exception {
+        HttpResponse<String> response = send(request("/products")
+                .POST(HttpRequest.BodyPublishers.ofString(json(name, description), StandardCharsets.UTF_8)));
+        assertEquals(201, response.statusCode(), response.body());
+        Matcher matcher = ID.matcher(response.body());
+        assertTrue(matcher.find());
+        assertEquals("/products/" + matcher.group(1), response.headers().firstValue("Location").orElse(null));
+        return matcher.group(1);
+    }
+
+    @Test
+    void testCrudRoundTrip() throws Exception {
+        String id = create("Ноутбук", "Игровой \\\"X\\\"");
+
+        HttpResponse<String> item = send(request("/products/" + id));
+        assertEquals(200, item.statusCode());
+        assertTrue(item.body().contains("\"name\":\"Ноутбук\""), item.body());
+        assertTrue(item.body().contains("\"description\":\"Игровой \\\"X\\\"\""), item.body());
+
+        HttpResponse<String> updated = send(request("/products/" + id)
+                .PUT(HttpRequest.BodyPublishers.ofString(json("Ноутбук Pro", "Новый"), StandardCharsets.UTF_8)));
+        assertEquals(200, updated.statusCode(), updated.body());
+        assertEquals("Ноутбук Pro", service.getProductById(java.util.UUID.fromString(id)).getName());
+
+        assertEquals(204, send(request("/products/" + id).DELETE()).statusCode());
+        assertEquals(404, send(request("/products/" + id)).statusCode());
+        assertEquals(404, send(request("/products/" + id).DELETE()).statusCode());
+    }
+
+    @Test
+    void testInvalidRequestsAreRejected() throws Exception {
+        HttpResponse<String> invalid = send(request("/products")
+                .POST(HttpRequest.BodyPublishers.ofString(json("AB", ""), StandardCharsets.UTF_8)));
+        assertEquals(400, invalid.statusCode());
+        assertTrue(invalid.body().contains("\"error\""));
+
+        assertEquals(400, send(request("/products")
+                .POST(HttpRequest.BodyPublishers.ofString("не json", StandardCharsets.UTF_8))).statusCode());
+        assertEquals(400, send(request("/products?pageSize=0")).statusCode());
+        assertEquals(400, send(request("/products?pageToken=garbage")).statusCode());
+        assertEquals(404, send(request("/products/not-an-id")).statusCode());
+        assertEquals(404, send(request("/productsx")).statusCode());
+        HttpResponse<String> notAllowed = send(request("/products/search").DELETE());
+        assertEquals(405, notAllowed.statusCode());
+        assertEquals("GET", notAllowed.headers().firstValue("Allow").orElse(null));
+        assertEquals(0, service.getTotalProductCount());
+    }
+
+    @Test
+    void testPagesFollowTokens() throws Exception {
+        for (int i = 0; i < 12; i++) {
+            create("Товар " + i, "Описание " + i);
+        }
+
+        int seen = 0;
+        String path = "/products?pageSize=5";
+        while (path != null) {
+            HttpResponse<String> page = send(request(path));
+            assertEquals(200, page.statusCode());
+            Matcher ids = ID.matcher(page.body());
+            while (ids.find()) {
+                seen++;
+            }
+            Matcher next = NEXT_TOKEN.matcher(page.body());
+            path = next.find() ? "/products?pageSize=5&pageToken=" + next.group(1) : null;
+        }
+        assertEquals(12, seen);
+
+        HttpResponse<String> search = send(request("/products/search?limit=2&q="
+                + URLEncoder.encode("товар", StandardCharsets.UTF_8)));
+        assertEquals(200, search.statusCode());
+        assertTrue(search.body().contains("\"total\":12"), search.body());
+        assertTrue(NEXT_TOKEN.matcher(search.body()).find());
+    }
+
+    @Test
+    void testETagAnswersNotModifiedUntilDataChanges() throws Exception {
+        String id = create("Монитор", "27 дюймов");
+
+        for (String path : new String[] {"/products", "/products/" + id}) {
+            HttpResponse<String> first = send(request(path));
+            String etag = first.headers().firstValue("ETag").orElse(null);
+            assertNotNull(etag, path);
+
+            HttpResponse<String> cached = send(request(path).header("If-None-Match", etag));
+            assertEquals(304, cached.statusCode(), path);
+            assertEquals("", cached.body());
+            assertEquals(200, send(request(path).header("If-None-Match", "\"other\"")).statusCode());
+        }
+
+        String listETag = send(request("/products")).headers().firstValue("ETag").orElse(null);
+        send(request("/products/" + id)
+                .PUT(HttpRequest.BodyPublishers.ofString(json("Монитор 4K", "27 дюймов"), StandardCharsets.UTF_8)));
+        HttpResponse<String> changed = send(request("/products").header("If-None-Match", listETag));
+        assertEquals(200, changed.statusCode());
+        assertTrue(changed.body().contains("Монитор 4K"));
+    }
+
+    @Test
+    void testExportStreamsWholeCatalog() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            create("Товар " + i, "Описание");
+        }
+
+        HttpResponse<String> export = send(request("/products/export"));
+        assertEquals(200, export.statusCode());
+        assertTrue(export.headers().firstValue("Content-Type").orElse("").startsWith("application/x-ndjson"));
+        assertEquals(30, export.body().split("\n").length);
+        assertTrue(export.body().startsWith("{\"id\":"));
+
+        HttpResponse<String> csv = send(request("/products/export?format=csv"));
+        assertEquals(31, csv.body().split("\r\n").length);
+        assertEquals(400, send(request("/products/export?format=xml")).statusCode());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.ExportFormat;
+import com.example.crudapp.service.ImportResult;
+import com.example.crudapp.service.ProductExporter;
+import com.example.crudapp.service.ProductImporter;
+import com.example.crudapp.service.ProgressListener;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductImporterTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private DatabaseProductDAO productDAO;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+        productDAO = new DatabaseProductDAO(pool);
+    }
+
+    private Path file(String name, String content) throws IOException {
+        Path file = database.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private Path generatedCsv(String name, int rows) throws IOException {
+        Path file = database.resolve(name);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("name,description\n");
+            for (int i = 0; i < rows; i++) {
+                writer.write("Product " + i + ",Description " + i + "\n");
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void testCsvRowsAreValidatedAndRejectsReported() throws Exception {
+        Path source = file("catalog.csv", "name,description,created_at\n"
+                + "Ноутбук,\"Описание, с запятой\",2024-01-02T03:04:05\n"
+                + "AB,Слишком короткое название,\n"
+                + "\"Многострочное\nназвание\",,\n"
+                + "Монитор,,вчера\n"
+                + "\n"
+                + "Клавиатура,Без даты,\n");
+
+        ImportResult result = new ProductImporter(productDAO, 2, 2).importFile(source, ExportFormat.CSV, null);
+
+        assertEquals(3, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(3, productDAO.countAll());
+        assertEquals("Описание, с запятой", productDAO.findByName("Ноутбук").get(0).getDescription());
+
+        List<String> report = Files.readAllLines(result.getErrorReport(), StandardCharsets.UTF_8);
+        assertEquals("record,line,message,name", report.get(0));
+        assertTrue(report.get(1).startsWith("2,3,Название должно содержать"));
+        assertTrue(report.get(2).startsWith("4,6,Некорректная дата"));
+        assertFalse(Files.exists(ProductImporter.checkpointFile(source)));
+    }
+
+    @Test
+    void testNdjsonImport() throws Exception {
+        Path source = file("catalog.ndjson",
+                "{\"name\": \"Смартфон \\\"X\\\"\", \"description\": \"Строка\\nвторая\", \"price\": 10}\n"
+                + "{\"name\": \"Планшет\", \"description\": null}\n"
+                + "{не json}\n");
+
+        ImportResult result = new ProductImporter(productDAO).importFile(source, ExportFormat.NDJSON, null);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        Product phone = productDAO.findByName("Смартфон").get(0);
+        assertEquals("Смартфон \"X\"", phone.getName());
+        assertEquals("Строка\nвторая", phone.getDescription());
+    }
+
+    @Test
+    void testExportedCatalogImportsBackUnchanged() throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            products.add(new Product("Product " + i, i % 2 == 0 ? "Desc, \"quoted\"\n" + i : null));
+        }
+        productDAO.saveAll(products);
+        Path export = database.resolve("export.csv");
+        new ProductExporter(productDAO).export(export, ExportFormat.CSV, null);
+
+        try (ConnectionPool otherPool = new ConnectionPool("jdbc:sqlite:" + database.resolve("copy.db"))) {
+            DatabaseConnection.initializeDatabase(otherPool);
+            DatabaseProductDAO otherDAO = new DatabaseProductDAO(otherPool);
+            ImportResult result = new ProductImporter(otherDAO).importFile(export, ExportFormat.CSV, null);
+
+            assertEquals(50, result.getImported());
+            assertNull(result.getErrorReport());
+            for (Product product : productDAO.findAll()) {
+                Product copy = otherDAO.findById(product.getId());
+                assertEquals(product.getName(), copy.getName());
+                assertEquals(product.getDescription(), copy.getDescription());
+                assertEquals(product.getCreatedAt(), copy.getCreatedAt());
+            }
+        }
+    }
+
+    @Test
+    void testRowsRejectedByDatabaseDoNotBlockTheirChunk() throws Exception {
+        Product existing = new Product("Existing", "Desc");
+        productDAO.save(existing);
+        Path source = file("catalog.csv", "id,name\n"
+                + "," + "First new\n"
+                + existing.getId() + ",Duplicate\n"
+                + ",Second new\n");
+
+        ImportResult result = new ProductImporter(productDAO).importFile(source, ExportFormat.CSV, null);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals("Existing", productDAO.findById(existing.getId()).getName());
+    }
+
+    @Test
+    void testCancelledImportResumesFromCheckpoint() throws Exception {
+        Path source = generatedCsv("big.csv", 1000);
+        ProductImporter importer = new ProductImporter(productDAO, 100, 2);
+
+        assertThrows(CancellationException.class, () -> importer.importFile(source, ExportFormat.CSV,
+                new ProgressListener() {
+                    @Override
+                    public void onProgress(long rows) {
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return true;
+                    }
+                }));
+        assertEquals(100, productDAO.countAll());
+        assertTrue(Files.exists(ProductImporter.checkpointFile(source)));
+
+        ImportResult result = importer.importFile(source, ExportFormat.CSV, null);
+
+        assertEquals(100, result.getResumedFrom());
+        assertEquals(1000, result.getImported());
+        assertEquals(1000, productDAO.countAll());
+        assertFalse(Files.exists(ProductImporter.checkpointFile(source)));
+    }
+
+    @Test
+    void testReplayedChunkIsNotDuplicated() throws Exception {
+        Path source = generatedCsv("replay.csv", 300);
+        ProductImporter importer = new ProductImporter(productDAO, 100, 1);
+        importer.importFile(source, ExportFormat.CSV, null);
+
+        // Повтор без контрольной точки, как после сбоя до её записи: id совпадают
+        ImportResult replay = importer.importFile(source, ExportFormat.CSV, null);
+
+        assertEquals(0, replay.getImported());
+        assertEquals(300, replay.getRejected());
+        assertEquals(300, productDAO.countAll());
+    }
+
+    @Test
+    void testCheckpointOfChangedFileIsRefused() throws Exception {
+        Path source = generatedCsv("changed.csv", 300);
+        ProductImporter importer = new ProductImporter(productDAO, 100, 1);
+        assertThrows(CancellationException.class, () -> importer.importFile(source, ExportFormat.CSV,
+                new ProgressListener() {
+                    @Override
+                    public void onProgress(long rows) {
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return true;
+                    }
+                }));
+
+        Files.write(source, "name\nAnother file\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> importer.importFile(source, ExportFormat.CSV, null));
+    }
+}
@@ -2,11 +2,14 @@ package com.example.crudapp;
 
 import com.example.crudapp.dao.ProductDAO;
 import com.example.crudapp.model.Product;
+import com.example.crudapp.service.BatchResult;
 import com.example.crudapp.service.ProductService;
 import org.junit.jupiter.api.*;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -22,11 +25,17 @@ public class ProductServiceTest {
     private static class MockProductDAO extends ProductDAO {
         private final List<Product> products = new ArrayList<>();
         private boolean throwException = false;
+        // Выполняется внутри countAll после подсчёта, как запись, пришедшая во время COUNT(*)
+        private Runnable duringCount;
 
         void setThrowException(boolean value) {
             throwException = value;
         }
 
+        void setDuringCount(Runnable action) {
+            duringCount = action;
+        }
+
         @Override
         public void save(Product product) throws SQLException {
             if (throwException) throw new SQLException("Test exception");
@@ -60,9 +69,9 @@ public class ProductServiceTest {
         }
 
         @Override
-        public void delete(UUID id) throws SQLException {
+        public int delete(UUID id) throws SQLException {
             if (throwException) throw new SQLException("Test exception");
-            products.removeIf(p -> p.getId().equals(id));
+            return products.removeIf(p -> p.getId().equals(id)) ? 1 : 0;
         }
 
         @Override
@@ -80,7 +89,13 @@ public class ProductServiceTest {
         @Override
         public int countAll() throws SQLException {
             if (throwException) throw new SQLException("Test exception");
-            return products.size();
+            int count = products.size();
+            Runnable action = duringCount;
+            duringCount = null;
+            if (action != null) {
+                action.run();
+            }
+            return count;
         }
 
         @Override
@@ -96,6 +111,27 @@ public class ProductServiceTest {
             return result;
         }
 
+        @Override
+        public void saveAll(Collection<Product> batch) throws SQLException {
+            if (throwException) throw new SQLException("Test exception");
+            products.addAll(batch);
+        }
+
+        @Override
+        public void updateAll(Collection<Product> batch) throws SQLException {
+            for (Product product : batch) {
+                update(product);
+            }
+        }
+
+        @Override
+        public int deleteAll(Collection<UUID> ids) throws SQLException {
+            if (throwException) throw new SQLException("Test exception");
+            int before = products.size();
+            products.removeIf(p -> ids.contains(p.getId()));
+            return before - products.size();
+        }
+
         @Override
         protected Connection getConnection() {
             return null;
@@ -334,4 +370,94 @@ public class ProductServiceTest {
         assertThrows(SQLException.class,
                 () -> productService.getTotalProductCount());
     }
+
+    @Test
+    @Order(22)
+    void testCreateProductsReportsInvalidRows() throws SQLException {
+        List<Product> batch = Arrays.asList(
+                new Product("  Valid One  ", "Desc"),
+                new Product("AB", "Too short"),
+                new Product("Valid Two", "D".repeat(256)),
+                new Product("Valid Three", null));
+
+        BatchResult result = productService.createProducts(batch);
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(2, result.getFailures().size());
+        assertEquals(1, result.getFailures().get(0).getIndex());
+        assertTrue(result.getFailures().get(0).getMessage().contains("3 до 50"));
+        assertEquals(2, result.getFailures().get(1).getIndex());
+        assertTrue(result.getFailures().get(1).getMessage().contains("255"));
+
+        assertEquals(2, productService.getTotalProductCount());
+        assertEquals("Valid One", batch.get(0).getName());
+    }
+
+    @Test
+    @Order(23)
+    void testUpdateAndDeleteProductsInBulk() throws SQLException {
+        List<Product> batch = Arrays.asList(new Product("First", "Desc"), new Product("Second", "Desc"));
+        productService.createProducts(batch);
+
+        batch.get(0).setName("First renamed");
+        BatchResult result = productService.updateProducts(batch);
+        assertFalse(result.hasFailures());
+        assertEquals("First renamed", productService.getProductById(batch.get(0).getId()).getName());
+
+        int deleted = productService.deleteProducts(Arrays.asList(batch.get(0).getId(), batch.get(1).getId()));
+        assertEquals(2, deleted);
+        assertEquals(0, productService.getTotalProductCount());
+    }
+
+    @Test
+    @Order(24)
+    void testProductCountIsMaintainedWithoutRecounting() throws SQLException {
+        productService.createProduct("Product 1", "Desc 1");
+        assertEquals(1, productService.getTotalProductCount());
+
+        // Запись в обход сервиса не видна до сверки счётчика
+        mockDAO.save(new Product("Outside", "Desc"));
+        productService.createProduct("Product 2", "Desc 2");
+        assertEquals(2, productService.getTotalProductCount());
+        assertEquals(1, productService.getTotalPages(2));
+
+        productService.refreshProductCount();
+        assertEquals(3, productService.getTotalProductCount());
+
+        productService.deleteProduct(mockDAO.findAll().get(0).getId());
+        assertEquals(2, productService.getTotalProductCount());
+    }
+
+    @Test
+    @Order(25)
+    void testDeletingMissingProductKeepsCount() throws SQLException {
+        Product product = productService.createProduct("Product 1", "Desc 1");
+        productService.createProduct("Product 2", "Desc 2");
+        assertEquals(2, productService.getTotalProductCount());
+
+        assertTrue(productService.deleteProduct(product.getId()));
+        assertFalse(productService.deleteProduct(product.getId()));
+        assertFalse(productService.deleteProduct(UUID.randomUUID()));
+        assertEquals(1, productService.getTotalProductCount());
+    }
+
+    @Test
+    @Order(26)
+    void testCountRacingWithDeleteIsNotStored() throws SQLException {
+        Product first = productService.createProduct("Product 1", "Desc 1");
+        productService.createProduct("Product 2", "Desc 2");
+        productService.refreshProductCount();
+
+        mockDAO.setDuringCount(() -> {
+            try {
+                productService.deleteProduct(first.getId());
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        productService.getTotalProductCount();
+
+        // Подсчёт не учёл удаление и не должен был сохраниться
+        assertEquals(1, productService.getTotalProductCount());
+    }
 }
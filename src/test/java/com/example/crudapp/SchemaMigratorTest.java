@@ -0,0 +1,176 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.Migration;
+import com.example.crudapp.dao.MigrationResult;
+import com.example.crudapp.dao.SchemaMigrations;
+import com.example.crudapp.dao.SchemaMigrator;
+import com.example.crudapp.model.Product;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SchemaMigratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ConnectionPool("jdbc:sqlite:" + tempDir.resolve("migration_test.db"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private static boolean exists(Connection conn, String type, String name) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM sqlite_master WHERE type = ? AND name = ?")) {
+            pstmt.setString(1, type);
+            pstmt.setString(2, name);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Test
+    void testFreshDatabaseGetsAllMigrations() throws SQLException {
+        SchemaMigrator migrator = new SchemaMigrator(SchemaMigrations.all());
+
+        try (Connection conn = pool.getConnection()) {
+            List<MigrationResult> applied = migrator.migrate(conn);
+
+            assertEquals(SchemaMigrations.all().size(), applied.size());
+            assertEquals(applied.get(applied.size() - 1).getVersion(), migrator.currentVersion(conn));
+            assertTrue(exists(conn, "table", "products"));
+            assertTrue(exists(conn, "index", "idx_products_created_at_id"));
+
+            // Повторный запуск ничего не применяет
+            assertTrue(migrator.migrate(conn).isEmpty());
+        }
+    }
+
+    @Test
+    void testLegacyDatabaseIsUpgradedInPlace() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE products (id TEXT PRIMARY KEY, name VARCHAR(50) NOT NULL, " +
+                    "description TEXT, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, " +
+                    "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            stmt.execute("INSERT INTO products (id, name) VALUES ('legacy', 'Legacy product')");
+
+            new SchemaMigrator(SchemaMigrations.all()).migrate(conn);
+
+            assertTrue(exists(conn, "index", "idx_products_created_at_id"));
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM products")) {
+                assertTrue(rs.next());
+                assertEquals(1, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    void testFailedMigrationIsRolledBackAndNotRecorded() throws SQLException {
+        List<Migration> migrations = new ArrayList<>(Arrays.asList(
+                Migration.of(1, "ok", "CREATE TABLE a (v INTEGER)"),
+                Migration.of(2, "broken", "CREATE TABLE b (v INTEGER)", "INSERT INTO missing VALUES (1)"),
+                Migration.of(3, "after", "CREATE TABLE c (v INTEGER)")));
+        SchemaMigrator migrator = new SchemaMigrator(migrations);
+
+        try (Connection conn = pool.getConnection()) {
+            SQLException e = assertThrows(SQLException.class, () -> migrator.migrate(conn));
+            assertTrue(e.getMessage().contains("v2"));
+
+            assertEquals(1, migrator.currentVersion(conn));
+            assertTrue(exists(conn, "table", "a"));
+            assertFalse(exists(conn, "table", "b"));
+            assertFalse(exists(conn, "table", "c"));
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void testDuplicateVersionsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SchemaMigrator(Arrays.asList(
+                Migration.of(1, "a", "SELECT 1"),
+                Migration.of(1, "b", "SELECT 1"))));
+    }
+
+    /**
+     * Сколько строк записывается на один ProductDAO.update: со старым триггером
+     * (миграции v1-v2) и после его удаления. total_changes() учитывает и записи триггеров.
+     */
+    @Test
+    void testUpdateWritesRowOnceWithoutTimestampTrigger() throws SQLException {
+        List<Migration> legacy = SchemaMigrations.all().subList(0, 2);
+        try (Connection conn = pool.getConnection()) {
+            new SchemaMigrator(legacy).migrate(conn);
+        }
+        double before = writesPerUpdate();
+
+        // Без FTS-индекса (v4), чьи служебные таблицы total_changes() тоже учитывает
+        try (Connection conn = pool.getConnection()) {
+            new SchemaMigrator(SchemaMigrations.all().subList(0, 3)).migrate(conn);
+        }
+        double after = writesPerUpdate();
+
+        assertEquals(2.0, before);
+        assertEquals(1.0, after);
+    }
+
+    @Test
+    void testTimestampTriggerIsRemovedFromLegacyDatabase() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            new SchemaMigrator(SchemaMigrations.all().subList(0, 2)).migrate(conn);
+            assertTrue(exists(conn, "trigger", "update_product_timestamp"));
+
+            new SchemaMigrator(SchemaMigrations.all()).migrate(conn);
+            assertFalse(exists(conn, "trigger", "update_product_timestamp"));
+        }
+    }
+
+    private double writesPerUpdate() throws SQLException {
+        int updates = 50;
+        // total_changes() считается на соединение, поэтому замер идёт через пул из одного соединения
+        try (ConnectionPool single = new ConnectionPool(pool.getUrl(), 1, 0, 1000)) {
+            DatabaseProductDAO dao = new DatabaseProductDAO(single);
+            Product product = new Product("Benchmark", "Desc");
+            dao.save(product);
+
+            long startChanges = totalChanges(single);
+            for (int i = 0; i < updates; i++) {
+                product.setName("Benchmark " + i);
+                dao.update(product);
+            }
+            long writes = totalChanges(single) - startChanges;
+
+            dao.delete(product.getId());
+            return (double) writes / updates;
+        }
+    }
+
+    private static long totalChanges(ConnectionPool single) throws SQLException {
+        try (Connection conn = single.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT total_changes()")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.SlowQueryLog;
+import com.example.crudapp.model.Product;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SlowQueryLogTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private DatabaseProductDAO productDAO;
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+        productDAO = new DatabaseProductDAO(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (slowQueryLog != null) {
+            slowQueryLog.close();
+        }
+    }
+
+    private void enable(long thresholdMillis, SlowQueryLog.Redaction redaction) throws IOException {
+        enable(thresholdMillis, redaction, 1024 * 1024, 3);
+    }
+
+    private void enable(long thresholdMillis, SlowQueryLog.Redaction redaction, int maxBytes, int files)
+            throws IOException {
+        slowQueryLog = new SlowQueryLog(database.resolve("logs").resolve("slow.log"), thresholdMillis,
+                redaction, maxBytes, files);
+        pool.setSlowQueryLog(slowQueryLog);
+    }
+
+    private List<Path> logFiles() throws IOException {
+        try (Stream<Path> files = Files.list(database.resolve("logs"))) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".log"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private String readLog() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Path file : logFiles()) {
+            sb.append(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private static int occurrences(String text, String fragment) {
+        int count = 0;
+        for (int i = text.indexOf(fragment); i >= 0; i = text.indexOf(fragment, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private void seed(int count) throws SQLException {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            products.add(new Product("Секретный товар " + i, "Описание " + i));
+        }
+        productDAO.saveAll(products);
+    }
+
+    @Test
+    void testSlowQueryIsLoggedWithRowsAndRedactedParameters() throws Exception {
+        seed(5);
+        enable(0, SlowQueryLog.Redaction.STRINGS);
+
+        List<Product> found = productDAO.findByName("Секретный");
+        assertEquals(5, found.size());
+
+        String log = readLog();
+        assertTrue(log.contains("SQL: SELECT * FROM products WHERE name LIKE ? ORDER BY created_at DESC"), log);
+        assertTrue(log.contains("строк: 5"), log);
+        assertTrue(log.contains("Параметры: [?(текст, 11 симв.)]"), log);
+        assertFalse(log.contains("Секретный"), "строковые параметры должны быть скрыты");
+        assertTrue(slowQueryLog.getSlowQueryCount() > 0);
+    }
+
+    @Test
+    void testPlanIsCapturedOncePerStatementShape() throws Exception {
+        seed(3);
+        enable(0, SlowQueryLog.Redaction.STRINGS);
+
+        Product product = productDAO.findAll().get(0);
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(productDAO.findById(product.getId()));
+        }
+
+        String log = readLog();
+        assertEquals(3, occurrences(log, "SQL: SELECT * FROM products WHERE id = ?"), log);
+        String plan = log.substring(log.indexOf("SQL: SELECT * FROM products WHERE id = ?"));
+        assertTrue(plan.contains("План"), log);
+        assertTrue(plan.contains("SEARCH products USING INDEX"), "поиск по id идёт по индексу первичного ключа");
+        // Два других выполнения того же запроса плана уже не содержат
+        String[] entries = log.split("SQL: SELECT \\* FROM products WHERE id = \\?");
+        int withPlan = 0;
+        for (int i = 1; i < entries.length; i++) {
+            String entry = entries[i].split("\n\\d{4}-")[0];
+            if (entry.contains("План")) {
+                withPlan++;
+            }
+        }
+        assertEquals(1, withPlan, log);
+    }
+
+    @Test
+    void testFastQueriesAreNotLogged() throws Exception {
+        seed(3);
+        enable(60_000, SlowQueryLog.Redaction.STRINGS);
+
+        productDAO.findAll();
+        productDAO.countAll();
+
+        assertEquals(0, slowQueryLog.getSlowQueryCount());
+        assertEquals("", readLog());
+    }
+
+    @Test
+    void testRedactionModes() throws Exception {
+        seed(1);
+        enable(0, SlowQueryLog.Redaction.NONE);
+        productDAO.findByName("Секретный");
+        assertTrue(readLog().contains("Параметры: ['%Секретный%']"), readLog());
+
+        pool.setSlowQueryLog(null);
+        slowQueryLog.close();
+        slowQueryLog = new SlowQueryLog(database.resolve("all").resolve("slow.log"), 0,
+                SlowQueryLog.Redaction.ALL, 1024 * 1024, 1);
+        pool.setSlowQueryLog(slowQueryLog);
+        productDAO.findByName("Секретный");
+        String log = new String(Files.readAllBytes(database.resolve("all").resolve("slow.0.log")),
+                StandardCharsets.UTF_8);
+        assertTrue(log.contains("Параметры: [?]"), log);
+    }
+
+    @Test
+    void testNullParameterIsLoggedAsNull() throws Exception {
+        enable(0, SlowQueryLog.Redaction.NONE);
+        Product product = new Product("Без даты", "Описание");
+        product.setUpdatedAt(null);
+        productDAO.save(product);
+
+        // setNull(5, Types.TIMESTAMP): в журнале NULL, а не код типа 93
+        String log = readLog();
+        assertTrue(log.contains("'Без даты', 'Описание', "), log);
+        assertTrue(log.contains(", NULL]"), log);
+        assertFalse(log.contains(", 93]"), log);
+        assertFalse(log.contains("не удалось получить план"), log);
+    }
+
+    @Test
+    void testPlainStatementsAndConsumerTimeExcluded() throws Exception {
+        seed(2);
+        enable(50, SlowQueryLog.Redaction.STRINGS);
+
+        // Время обработки строк вызывающим кодом в замер не входит
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM products")) {
+            while (rs.next()) {
+                Thread.sleep(40);
+            }
+        }
+        assertEquals(0, slowQueryLog.getSlowQueryCount());
+
+        pool.setSlowQueryLog(null);
+        slowQueryLog.close();
+        enable(0, SlowQueryLog.Redaction.STRINGS);
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM products WHERE name <> 'x'")) {
+            assertTrue(rs.next());
+        }
+        String log = readLog();
+        assertTrue(log.contains("SQL: SELECT COUNT(*) FROM products WHERE name <> '?'"), log);
+        assertTrue(log.contains("SCAN products"), log);
+    }
+
+    @Test
+    void testLogRollsOverBySize() throws Exception {
+        seed(1);
+        enable(0, SlowQueryLog.Redaction.STRINGS, 2048, 3);
+
+        for (int i = 0; i < 100; i++) {
+            productDAO.countAll();
+        }
+
+        List<Path> files = logFiles();
+        assertEquals(3, files.size(), files.toString());
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 2048 + 512, file + ": " + Files.size(file));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.StorageProfile;
+import com.example.crudapp.dao.WalCheckpointer;
+import com.example.crudapp.model.Product;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StorageProfileTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path dbFile;
+
+    @BeforeEach
+    void setUp() {
+        dbFile = tempDir.resolve("profile_test.db");
+    }
+
+    private ConnectionPool open(StorageProfile profile) {
+        ConnectionPool pool = new ConnectionPool("jdbc:sqlite:" + dbFile, 2, 0, 1000, profile);
+        DatabaseConnection.initializeDatabase(pool);
+        return pool;
+    }
+
+    private static String pragma(Connection conn, String name) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA " + name)) {
+            assertTrue(rs.next());
+            return rs.getString(1);
+        }
+    }
+
+    private static int count(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM products")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    void testProfilesApplyPragmas() throws SQLException {
+        String[] synchronous = {"2", "1", "0"};
+        String[] tempStore = {"0", "2", "2"};
+        for (StorageProfile profile : StorageProfile.values()) {
+            try (ConnectionPool pool = open(profile);
+                 Connection conn = pool.getConnection()) {
+                assertEquals("wal", pragma(conn, "journal_mode"), profile.name());
+                assertEquals(synchronous[profile.ordinal()], pragma(conn, "synchronous"), profile.name());
+                assertEquals(String.valueOf(profile.getMmapSize()), pragma(conn, "mmap_size"), profile.name());
+                assertEquals("-" + profile.getCacheSizeKib(), pragma(conn, "cache_size"), profile.name());
+                assertEquals(tempStore[profile.ordinal()], pragma(conn, "temp_store"), profile.name());
+                assertEquals(String.valueOf(profile.getBusyTimeoutMillis()), pragma(conn, "busy_timeout"));
+                assertEquals("1", pragma(conn, "foreign_keys"));
+            }
+        }
+    }
+
+    @Test
+    void testProfileIsSelectedByProperty() {
+        assertEquals(StorageProfile.BALANCED, StorageProfile.configured());
+        System.setProperty(StorageProfile.PROPERTY, "Throughput");
+        try {
+            assertEquals(StorageProfile.THROUGHPUT, StorageProfile.configured());
+        } finally {
+            System.clearProperty(StorageProfile.PROPERTY);
+        }
+        assertThrows(IllegalArgumentException.class, () -> StorageProfile.parse("fast"));
+    }
+
+    @Test
+    void testWriterDoesNotWaitForOpenReader() throws SQLException {
+        try (ConnectionPool pool = open(StorageProfile.BALANCED)) {
+            DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+            dao.save(new Product("First", "Desc"));
+
+            try (Connection reader = pool.getConnection()) {
+                reader.setAutoCommit(false);
+                assertEquals(1, count(reader));
+
+                // В журнале отката запись ждала бы конца чтения и упала бы по busy_timeout
+                long start = System.nanoTime();
+                dao.save(new Product("Second", "Desc"));
+                assertTrue(System.nanoTime() - start < 1_000_000_000L);
+
+                // Читатель видит свой снимок до конца транзакции
+                assertEquals(1, count(reader));
+                reader.commit();
+                assertEquals(2, count(reader));
+            }
+        }
+    }
+
+    @Test
+    void testCheckpointerTruncatesWalAfterReadersFinish() throws Exception {
+        Path wal = tempDir.resolve("profile_test.db-wal");
+        try (ConnectionPool pool = open(StorageProfile.THROUGHPUT);
+             WalCheckpointer checkpointer = new WalCheckpointer(pool.getUrl(), 0, 10)) {
+            DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+
+            try (Connection reader = pool.getConnection()) {
+                reader.setAutoCommit(false);
+                count(reader);
+                for (int i = 0; i < 200; i++) {
+                    dao.save(new Product("Product " + i, "Пока открыт снимок, WAL не начинается заново"));
+                }
+                assertTrue(Files.size(wal) > 0);
+
+                // Пока снимок открыт, TRUNCATE не запускается и не задерживает писателей
+                long start = System.nanoTime();
+                assertTrue(checkpointer.checkpoint() > 10);
+                dao.save(new Product("Во время проверки", "Запись не ждёт контрольную точку"));
+                assertTrue(System.nanoTime() - start < 1_000_000_000L);
+                assertEquals(0, checkpointer.getTruncateCount());
+                assertEquals(1, checkpointer.getBusyCount());
+                reader.commit();
+            }
+
+            assertEquals(0, checkpointer.checkpoint());
+            assertEquals(1, checkpointer.getTruncateCount());
+            assertEquals(0, Files.size(wal));
+            assertEquals(201, dao.countAll());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Временная база SQLite для каждого теста. Перед тестом создаётся пустой каталог,
+ * пул с применёнными миграциями открывается при первом {@link #getPool()}; после
+ * теста (и его {@code @AfterEach}) пул закрывается, каталог удаляется.
+ *
+ * <pre>{@code
+ * @RegisterExtension
+ * final TestDatabase database = new TestDatabase();
+ * }</pre>
+ */
+public class TestDatabase implements BeforeEachCallback, AfterEachCallback {
+
+    private static final String FILE_NAME = "test.db";
+
+    private Path directory;
+    private ConnectionPool pool;
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws IOException {
+        directory = Files.createTempDirectory("crudapp-test-");
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws IOException {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Файл в каталоге теста (экспорт, журналы, другие базы).
+     */
+    public Path resolve(String name) {
+        return directory.resolve(name);
+    }
+
+    public String getUrl() {
+        return "jdbc:sqlite:" + directory.resolve(FILE_NAME);
+    }
+
+    public ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(getUrl());
+            DatabaseConnection.initializeDatabase(pool);
+        }
+        return pool;
+    }
+}
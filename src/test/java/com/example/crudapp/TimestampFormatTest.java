@@ -0,0 +1,195 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseConnection;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.dao.StorageSettings;
+import com.example.crudapp.dao.TimestampFormat;
+import com.example.crudapp.model.Page;
+import com.example.crudapp.model.Product;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimestampFormatTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+    }
+
+    // Половина строк — через DAO (числа), половина — текстом, как их писал удалённый триггер
+    private List<Product> seedMixed(int count) throws SQLException {
+        LocalDateTime base = LocalDateTime.of(2024, 3, 1, 9, 30, 15, 250_000_000);
+        List<Product> products = new ArrayList<>();
+        List<Product> viaDao = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO products (id, name, description, created_at, updated_at) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                Product product = new Product("Product " + i, "Desc " + i);
+                product.setCreatedAt(base.plusMinutes(i));
+                product.setUpdatedAt(base.plusMinutes(i).plusSeconds(1));
+                products.add(product);
+                if (i % 2 == 0) {
+                    viaDao.add(product);
+                    continue;
+                }
+                pstmt.setString(1, product.getId().toString());
+                pstmt.setString(2, product.getName());
+                pstmt.setString(3, product.getDescription());
+                pstmt.setString(4, product.getCreatedAt().toString().replace('T', ' '));
+                pstmt.setString(5, product.getUpdatedAt().toString().replace('T', ' '));
+                pstmt.executeUpdate();
+            }
+        }
+        new DatabaseProductDAO(pool).saveAll(viaDao);
+        return products;
+    }
+
+    private List<UUID> allPages(DatabaseProductDAO dao) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        Page<Product> page = dao.findPage(null, 7);
+        while (true) {
+            for (Product product : page.getItems()) {
+                ids.add(product.getId());
+            }
+            if (!page.hasNext()) {
+                return ids;
+            }
+            page = dao.findPage(page.getNextToken(), 7);
+        }
+    }
+
+    private String timestampTypes() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT group_concat(DISTINCT typeof(created_at)) || '/' || " +
+                     "group_concat(DISTINCT typeof(updated_at)) FROM products")) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    @Test
+    void testEpochMillisMatchTimestamp() {
+        LocalDateTime[] times = {
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 7, 15, 13, 45, 30, 123_456_789),
+                LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000)
+        };
+        for (LocalDateTime time : times) {
+            assertEquals(Timestamp.valueOf(time).getTime(), TimestampFormat.toEpochMillis(time), time.toString());
+        }
+        assertEquals(TimestampFormat.EPOCH_MILLIS, TimestampFormat.parse(" Epoch_Millis "));
+        assertThrows(IllegalArgumentException.class, () -> TimestampFormat.parse("text"));
+    }
+
+    @Test
+    void testNewDatabaseKeepsTimestampFormat() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(TimestampFormat.TIMESTAMP, StorageSettings.readTimestampFormat(conn));
+        }
+        DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+        assertEquals(0, dao.countAll());
+        assertEquals(TimestampFormat.TIMESTAMP, dao.getTimestampFormat());
+    }
+
+    @Test
+    void testConversionKeepsValuesRowidsAndFullTextIndex() throws SQLException {
+        List<Product> products = seedMixed(30);
+        assertEquals("integer,text/integer,text", timestampTypes().replace("text,integer", "integer,text"));
+        List<Long> rowidsBefore = rowids();
+
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(15, StorageSettings.convertTimestamps(conn, TimestampFormat.EPOCH_MILLIS));
+            assertEquals(0, StorageSettings.convertTimestamps(conn, TimestampFormat.EPOCH_MILLIS));
+            assertEquals(TimestampFormat.EPOCH_MILLIS, StorageSettings.readTimestampFormat(conn));
+        }
+        assertEquals("integer/integer", timestampTypes());
+        assertEquals(rowidsBefore, rowids());
+
+        DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+        for (Product product : products) {
+            Product stored = dao.findById(product.getId());
+            assertEquals(product.getCreatedAt().withNano(product.getCreatedAt().getNano() / 1_000_000 * 1_000_000),
+                    stored.getCreatedAt());
+            assertEquals(product.getUpdatedAt().withNano(product.getUpdatedAt().getNano() / 1_000_000 * 1_000_000),
+                    stored.getUpdatedAt());
+        }
+        // Все строки теперь сравниваются как числа: страницы идут строго по created_at
+        List<UUID> expected = new ArrayList<>();
+        for (int i = products.size() - 1; i >= 0; i--) {
+            expected.add(products.get(i).getId());
+        }
+        assertEquals(expected, allPages(dao));
+        assertEquals(TimestampFormat.EPOCH_MILLIS, dao.getTimestampFormat());
+        assertEquals(1, dao.search("desc 7", 10, null).getItems().size());
+    }
+
+    @Test
+    void testEpochMillisWritesIntegers() throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            StorageSettings.convertTimestamps(conn, TimestampFormat.EPOCH_MILLIS);
+        }
+        DatabaseProductDAO dao = new DatabaseProductDAO(pool);
+        Product product = new Product("Новый", "Описание");
+        dao.save(product);
+        List<Product> batch = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            batch.add(new Product("Пакет " + i, ""));
+        }
+        dao.saveAll(batch);
+        product.setDescription("Изменено");
+        dao.update(product);
+        dao.updateAll(batch.subList(0, 5));
+
+        assertEquals("integer/integer", timestampTypes());
+        Product stored = dao.findById(product.getId());
+        assertEquals("Изменено", stored.getDescription());
+        assertFalse(stored.getUpdatedAt().isBefore(stored.getCreatedAt()));
+        assertEquals(21, allPages(dao).size());
+    }
+
+    @Test
+    void testConfiguredFormatIsAppliedOnInitialization() throws SQLException {
+        seedMixed(6);
+        System.setProperty(TimestampFormat.PROPERTY, "epoch_millis");
+        try {
+            DatabaseConnection.initializeDatabase(pool);
+        } finally {
+            System.clearProperty(TimestampFormat.PROPERTY);
+        }
+
+        assertEquals("integer/integer", timestampTypes());
+        assertEquals(6, new DatabaseProductDAO(pool).findAll().size());
+    }
+
+    private List<Long> rowids() throws SQLException {
+        List<Long> rowids = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT rowid FROM products ORDER BY id")) {
+            while (rs.next()) {
+                rowids.add(rs.getLong(1));
+            }
+        }
+        return rowids;
+    }
+}
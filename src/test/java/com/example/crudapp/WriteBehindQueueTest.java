@@ -0,0 +1,236 @@
+package com.example.crudapp;
+
+import com.example.crudapp.dao.ConnectionPool;
+import com.example.crudapp.dao.DatabaseProductDAO;
+import com.example.crudapp.model.Product;
+import com.example.crudapp.service.AsyncProductService;
+import com.example.crudapp.service.ProductService;
+import com.example.crudapp.service.WriteBehindQueue;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindQueueTest {
+
+    @RegisterExtension
+    final TestDatabase database = new TestDatabase();
+
+    private ConnectionPool pool;
+    private CountingDAO productDAO;
+    private WriteBehindQueue queue;
+
+    // Считает транзакции writeAll и может задержать запись до сигнала
+    private static class CountingDAO extends DatabaseProductDAO {
+        final AtomicInteger transactions = new AtomicInteger();
+        volatile CountDownLatch gate;
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        CountingDAO(ConnectionPool pool) {
+            super(pool);
+        }
+
+        @Override
+        public int writeAll(Collection<Product> inserts, Collection<Product> updates, Collection<UUID> deletes)
+                throws SQLException {
+            entered.countDown();
+            CountDownLatch current = gate;
+            if (current != null) {
+                try {
+                    current.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            transactions.incrementAndGet();
+            return super.writeAll(inserts, updates, deletes);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        pool = database.getPool();
+        productDAO = new CountingDAO(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) {
+            queue.close();
+        }
+    }
+
+    @Test
+    void testUpdatesToSameProductCollapseIntoOneWrite() throws Exception {
+        queue = new WriteBehindQueue(productDAO, 200, 1000, 1000, 1000);
+        Product product = new Product("Товар", "Версия 0");
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        futures.add(queue.insert(product));
+        for (int i = 1; i <= 5; i++) {
+            product.setDescription("Версия " + i);
+            futures.add(queue.update(product));
+        }
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, productDAO.transactions.get());
+        assertEquals(1, queue.getGroupCount());
+        assertEquals(6, queue.getWrittenCount());
+        Product stored = productDAO.findById(product.getId());
+        assertEquals("Версия 5", stored.getDescription());
+    }
+
+    @Test
+    void testCreateThenDeleteWritesNothing() throws Exception {
+        queue = new WriteBehindQueue(productDAO, 200, 1000, 1000, 1000);
+        Product product = new Product("Товар", "Описание");
+        CompletableFuture<Void> created = queue.insert(product);
+        CompletableFuture<Boolean> deleted = queue.delete(product.getId());
+        CompletableFuture<Boolean> deletedAgain = queue.delete(product.getId());
+
+        CompletableFuture.allOf(created, deleted, deletedAgain).get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, productDAO.transactions.get());
+        assertEquals(0, productDAO.countAll());
+        assertEquals(Boolean.TRUE, deleted.get());
+        assertEquals(Boolean.FALSE, deletedAgain.get());
+    }
+
+    @Test
+    void testDeleteReportsWhetherRowExisted() throws Exception {
+        queue = new WriteBehindQueue(productDAO, 50, 1000, 1000, 1000);
+        Product product = new Product("Товар", "Описание");
+        productDAO.save(product);
+
+        assertEquals(Boolean.TRUE, queue.delete(product.getId()).get(5, TimeUnit.SECONDS));
+        assertEquals(Boolean.FALSE, queue.delete(product.getId()).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testConcurrentWritesShareGroupCommits() throws Exception {
+        queue = new WriteBehindQueue(productDAO, 20, 500, 1000, 5000);
+        int threads = 8;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> submitters = new ArrayList<>();
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                submitters.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        CompletableFuture<Void> write = queue.insert(new Product("Товар " + i, "Описание"));
+                        synchronized (writes) {
+                            writes.add(write);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> submitter : submitters) {
+                submitter.get(10, TimeUnit.SECONDS);
+            }
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * perThread, productDAO.countAll());
+        assertTrue(productDAO.transactions.get() < threads * perThread / 10,
+                "групп: " + productDAO.transactions.get());
+    }
+
+    @Test
+    void testFailedWriteDoesNotFailItsGroup() throws Exception {
+        Product existing = new Product("Существующий", "");
+        productDAO.save(existing);
+        queue = new WriteBehindQueue(productDAO, 200, 1000, 1000, 1000);
+
+        CompletableFuture<Void> first = queue.insert(new Product("Первый", ""));
+        CompletableFuture<Void> duplicate = queue.insert(existing);
+        CompletableFuture<Void> second = queue.insert(new Product("Второй", ""));
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> duplicate.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SQLException.class, AsyncProductService.unwrap(error));
+        assertEquals(3, productDAO.countAll());
+        assertEquals(1, queue.getFallbackCount());
+        assertEquals(1, queue.getFailedCount());
+    }
+
+    @Test
+    void testFullQueueAppliesBackpressure() throws Exception {
+        productDAO.gate = new CountDownLatch(1);
+        queue = new WriteBehindQueue(productDAO, 0, 1000, 2, 100);
+
+        CompletableFuture<Void> blocked = queue.insert(new Product("Первый", ""));
+        assertTrue(productDAO.entered.await(5, TimeUnit.SECONDS));
+        // Поток записи занят первой группой; очередь вмещает ещё две записи
+        queue.insert(new Product("Второй", ""));
+        queue.insert(new Product("Третий", ""));
+        assertThrows(RejectedExecutionException.class, () -> queue.insert(new Product("Четвёртый", "")));
+
+        productDAO.gate.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        assertTrue(queue.flush(5000));
+        assertEquals(3, productDAO.countAll());
+    }
+
+    @Test
+    void testCloseDrainsPendingWrites() throws Exception {
+        queue = new WriteBehindQueue(productDAO, 60_000, 1000, 1000, 1000);
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            writes.add(queue.insert(new Product("Товар " + i, "")));
+        }
+        assertEquals(10, queue.getPendingCount());
+
+        long start = System.nanoTime();
+        WriteBehindQueue.closeAll();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), "закрытие не ждёт конца окна");
+
+        for (CompletableFuture<Void> write : writes) {
+            assertTrue(write.isDone() && !write.isCompletedExceptionally());
+        }
+        assertEquals(10, productDAO.countAll());
+        assertThrows(RejectedExecutionException.class, () -> queue.insert(new Product("Поздний", "")));
+    }
+
+    @Test
+    void testServiceWritesThroughQueue() throws Exception {
+        queue = new WriteBehindQueue(productDAO, 50, 1000, 1000, 1000);
+        ProductService service = new ProductService(productDAO);
+        service.setWriteBehind(queue);
+        assertEquals(0, service.getTotalProductCount());
+
+        service.createProduct("Синхронный", "Описание");
+        CompletableFuture<Void> created = service.submitCreate("Асинхронный", "Описание");
+        assertThrows(IllegalArgumentException.class, () -> service.submitCreate("x", ""));
+        created.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, service.getTotalProductCount());
+        Product product = service.searchProductsByName("Асинхронный").get(0);
+        assertTrue(service.deleteProduct(product.getId()));
+        assertEquals(1, service.getTotalProductCount());
+        assertEquals(1, productDAO.countAll());
+
+        // Повторное удаление не трогает счётчик
+        assertFalse(service.deleteProduct(product.getId()));
+        assertEquals(1, service.getTotalProductCount());
+    }
+}